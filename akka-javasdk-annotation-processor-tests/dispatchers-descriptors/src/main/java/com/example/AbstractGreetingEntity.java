@@ -0,0 +1,17 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package com.example;
+
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+
+public abstract class AbstractGreetingEntity<C> extends KeyValueEntity<String> {
+
+  public C lastGreeting;
+
+  public Effect<String> greet(C greeting) {
+    lastGreeting = greeting;
+    return effects().reply("done");
+  }
+}
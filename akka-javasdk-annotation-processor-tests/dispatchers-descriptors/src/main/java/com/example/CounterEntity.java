@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package com.example;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+
+@ComponentId("counter")
+public class CounterEntity extends KeyValueEntity<Integer> {
+
+  public int lastAmount;
+
+  public Effect<Integer> increase(int amount) {
+    lastAmount = amount;
+    return effects().reply(amount);
+  }
+
+  public Effect<String> reset() {
+    lastAmount = 0;
+    return effects().reply("done");
+  }
+
+  public Effect<String> set(Integer value) {
+    return effects().reply("done");
+  }
+
+  public Effect<String> set(String value) {
+    return effects().reply("done");
+  }
+}
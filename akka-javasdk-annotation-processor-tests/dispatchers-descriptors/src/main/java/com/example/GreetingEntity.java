@@ -0,0 +1,12 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package com.example;
+
+import akka.javasdk.annotations.ComponentId;
+
+@ComponentId("greeting")
+public class GreetingEntity extends AbstractGreetingEntity<String> {
+
+}
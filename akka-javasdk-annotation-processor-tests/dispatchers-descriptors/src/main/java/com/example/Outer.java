@@ -0,0 +1,22 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package com.example;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.timedaction.TimedAction;
+
+public class Outer {
+
+  @ComponentId("nested-timed-action")
+  public static class Inner extends TimedAction {
+
+    public boolean ticked;
+
+    public Effect tick() {
+      ticked = true;
+      return effects().done();
+    }
+  }
+}
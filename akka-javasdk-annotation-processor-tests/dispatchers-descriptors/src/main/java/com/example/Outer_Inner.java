@@ -0,0 +1,20 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package com.example;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.timedaction.TimedAction;
+
+// named like the nested Outer.Inner with its enclosing class joined by an underscore
+@ComponentId("top-level-timed-action")
+public class Outer_Inner extends TimedAction {
+
+  public boolean tocked;
+
+  public Effect tock() {
+    tocked = true;
+    return effects().done();
+  }
+}
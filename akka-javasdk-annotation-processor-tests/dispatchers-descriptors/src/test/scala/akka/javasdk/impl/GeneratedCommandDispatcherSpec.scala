@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+// same package as the dispatcher lookup, which is internal
+package akka.javasdk.impl
+
+import com.example.CounterEntity
+import com.example.GreetingEntity
+import com.example.Outer
+import com.example.Outer_Inner
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class GeneratedCommandDispatcherSpec extends AnyWordSpec with Matchers {
+
+  private val NotHandled = ComponentCommandDispatcher.NOT_HANDLED
+
+  private def dispatcherFor(componentClass: Class[_]): ComponentCommandDispatcher[AnyRef] =
+    ComponentCommandDispatchers.lookup(componentClass).getOrElse(fail(s"No generated dispatcher for $componentClass"))
+
+  "The generated command dispatcher" should {
+
+    "be found for nested components under the name the runtime looks up" in {
+      ComponentCommandDispatchers.generatedClassName(classOf[Outer.Inner]) shouldBe
+      "com.example.Outer$$Inner_AkkaDispatcher"
+      val component = new Outer.Inner
+      dispatcherFor(classOf[Outer.Inner]).dispatch(component, "Tick", null) should not be NotHandled
+      component.ticked shouldBe true
+    }
+
+    "not mix up a nested component with a top level one of the same joined name" in {
+      ComponentCommandDispatchers.generatedClassName(classOf[Outer_Inner]) shouldBe
+      "com.example.Outer_Inner_AkkaDispatcher"
+      val component = new Outer_Inner
+      dispatcherFor(classOf[Outer_Inner]).dispatch(component, "Tock", null) should not be NotHandled
+      component.tocked shouldBe true
+      dispatcherFor(classOf[Outer.Inner]).dispatch(new Outer.Inner, "Tock", null) shouldBe NotHandled
+    }
+
+    "pass commands to handlers with primitive parameters" in {
+      val component = new CounterEntity
+      dispatcherFor(classOf[CounterEntity]).dispatch(component, "Increase", Int.box(3)) should not be NotHandled
+      component.lastAmount shouldBe 3
+    }
+
+    "call handlers without parameters" in {
+      val component = new CounterEntity
+      component.lastAmount = 3
+      dispatcherFor(classOf[CounterEntity]).dispatch(component, "Reset", null) should not be NotHandled
+      component.lastAmount shouldBe 0
+    }
+
+    "leave overloaded handlers to the reflective invocation" in {
+      dispatcherFor(classOf[CounterEntity]).dispatch(new CounterEntity, "Set", "value") shouldBe NotHandled
+    }
+
+    "call handlers inherited from a generic superclass" in {
+      val component = new GreetingEntity
+      dispatcherFor(classOf[GreetingEntity]).dispatch(component, "Greet", "hello") should not be NotHandled
+      component.lastGreeting shouldBe "hello"
+    }
+
+    "not handle unknown commands" in {
+      dispatcherFor(classOf[CounterEntity]).dispatch(new CounterEntity, "Unknown", null) shouldBe NotHandled
+    }
+  }
+}
@@ -11,11 +11,17 @@ import com.typesafe.config.ConfigRenderOptions;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic;
 import javax.tools.FileObject;
@@ -23,6 +29,7 @@ import javax.tools.StandardLocation;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.Writer;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
@@ -42,6 +49,7 @@ import java.util.stream.Collectors;
                 // central config/lifecycle class
                 "akka.javasdk.annotations.Setup"
         })
+@SupportedOptions(ComponentAnnotationProcessor.GENERATE_DISPATCHERS_OPTION)
 @SupportedSourceVersion(SourceVersion.RELEASE_21)
 public class ComponentAnnotationProcessor extends AbstractProcessor {
 
@@ -63,6 +71,22 @@ public class ComponentAnnotationProcessor extends AbstractProcessor {
 
     private static final List<String> ALL_COMPONENT_TYPES = List.of(HTTP_ENDPOINT_KEY, EVENT_SOURCED_ENTITY_KEY, VALUE_ENTITY_KEY, TIMED_ACTION_KEY, CONSUMER_KEY, VIEW_KEY, WORKFLOW_KEY, SERVICE_SETUP_KEY);
 
+    // component types with command handlers that can be called through a generated dispatcher
+    private static final List<String> DISPATCHED_COMPONENT_TYPES = List.of(EVENT_SOURCED_ENTITY_KEY, VALUE_ENTITY_KEY, TIMED_ACTION_KEY, WORKFLOW_KEY);
+
+    // erased return types of command handlers, must be kept in sync with the component descriptor factories
+    private static final Set<String> COMMAND_HANDLER_EFFECT_TYPES = Set.of(
+        "akka.javasdk.eventsourcedentity.EventSourcedEntity.Effect",
+        "akka.javasdk.eventsourcedentity.EventSourcedEntity.ReadOnlyEffect",
+        "akka.javasdk.keyvalueentity.KeyValueEntity.Effect",
+        "akka.javasdk.timedaction.TimedAction.Effect",
+        "akka.javasdk.workflow.Workflow.Effect",
+        "akka.javasdk.workflow.Workflow.ReadOnlyEffect");
+
+    // must be kept in sync with the lookup in akka.javasdk.impl.ComponentCommandDispatchers
+    private static final String DISPATCHER_CLASS_SUFFIX = "_AkkaDispatcher";
+
+    static final String GENERATE_DISPATCHERS_OPTION = "akka-component-processor.generate-dispatchers";
 
     private final boolean debugEnabled;
     private boolean alreadyRan = false;
@@ -72,6 +96,16 @@ public class ComponentAnnotationProcessor extends AbstractProcessor {
         debugEnabled = Boolean.getBoolean("akka-component-processor.debug");
     }
 
+    /**
+     * Opt-in, generates a command dispatcher per component that the runtime uses instead of reflection, enabled with
+     * `mvn compile -Dakka-component-processor.generate-dispatchers=true` or the compiler option
+     * `-Aakka-component-processor.generate-dispatchers=true`.
+     */
+    private boolean generateDispatchers() {
+        return Boolean.getBoolean(GENERATE_DISPATCHERS_OPTION) ||
+            Boolean.parseBoolean(processingEnv.getOptions().get(GENERATE_DISPATCHERS_OPTION));
+    }
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         if (!alreadyRan) {
@@ -80,6 +114,8 @@ public class ComponentAnnotationProcessor extends AbstractProcessor {
             alreadyRan = true;
 
             Map<String, List<String>> componentTypeToConcreteComponents = new HashMap<>();
+            List<TypeElement> componentsToDispatch = new ArrayList<>();
+            var generateDispatchers = generateDispatchers();
             for (TypeElement annotation : annotations) {
                 Set<? extends Element> annotatedElements = roundEnv.getElementsAnnotatedWith(annotation);
                 var elementsPerComponentType = ElementFilter.typesIn(annotatedElements)
@@ -93,6 +129,9 @@ public class ComponentAnnotationProcessor extends AbstractProcessor {
                     }
                     debug("Found "  + classNames.size() + " components of type " + componentType + " annotated with " + annotation + ": " + String.join(", ", classNames));
                     componentTypeToConcreteComponents.put(componentType, classNames);
+                    if (generateDispatchers && DISPATCHED_COMPONENT_TYPES.contains(componentType)) {
+                        componentsToDispatch.addAll(elements);
+                    }
                 });
             }
 
@@ -108,6 +147,9 @@ public class ComponentAnnotationProcessor extends AbstractProcessor {
                     ).toList());
                     info("Akka SDK annotation processor detected components: " + summary);
                     createComponentServiceDescriptor(componentTypeToConcreteComponents);
+                    for (TypeElement component : componentsToDispatch) {
+                        createCommandDispatcher(component);
+                    }
                 } else {
                     debug("Akka SDK annotation processor found no annotated components");
                 }
@@ -218,6 +260,81 @@ public class ComponentAnnotationProcessor extends AbstractProcessor {
         writeConfig(newDescriptorResource, ConfigFactory.parseMap(config));
     }
 
+    /**
+     * Generates a dispatcher calling the command handlers of the component directly, switching on the command name,
+     * so that component client calls do not need reflection at runtime.
+     */
+    private void createCommandDispatcher(TypeElement component) throws IOException {
+        if (component.getModifiers().contains(Modifier.PRIVATE) || component.getModifiers().contains(Modifier.ABSTRACT)) {
+            debug("Not generating command dispatcher for private or abstract component " + component.getQualifiedName());
+            return;
+        }
+        var types = processingEnv.getTypeUtils();
+        var packageName = processingEnv.getElementUtils().getPackageOf(component).getQualifiedName().toString();
+        var componentName = component.getQualifiedName().toString();
+        // the binary name, with '$' separating nested classes, doubled so that no two components get the same name
+        var binaryName = processingEnv.getElementUtils().getBinaryName(component).toString();
+        var nestedName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        var dispatcherSimpleName = nestedName.replace("$", "$$") + DISPATCHER_CLASS_SUFFIX;
+        var dispatcherName = packageName.isEmpty() ? dispatcherSimpleName : packageName + "." + dispatcherSimpleName;
+
+        // command name is the capitalized method name, overloaded names are left to the reflective invocation
+        Map<String, List<String>> callsPerCommandName = new HashMap<>();
+        var componentType = (DeclaredType) component.asType();
+        // including handlers inherited from superclasses
+        var members = processingEnv.getElementUtils().getAllMembers(component);
+        for (ExecutableElement method : ElementFilter.methodsIn(members)) {
+            var modifiers = method.getModifiers();
+            var returnType = types.erasure(method.getReturnType()).toString();
+            if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC) ||
+                method.getParameters().size() > 1 || !COMMAND_HANDLER_EFFECT_TYPES.contains(returnType)) continue;
+
+            var methodName = method.getSimpleName().toString();
+            var commandName = Character.toUpperCase(methodName.charAt(0)) + methodName.substring(1);
+            // parameter type as seen from the component, so that type parameters of a superclass are resolved
+            var parameterTypes = ((ExecutableType) types.asMemberOf(componentType, method)).getParameterTypes();
+            var call = parameterTypes.isEmpty()
+                ? "component." + methodName + "()"
+                : "component." + methodName + "((" + castableTypeName(parameterTypes.getFirst()) + ") command)";
+            callsPerCommandName.computeIfAbsent(commandName, name -> new ArrayList<>()).add(call);
+        }
+
+        var sourceFile = processingEnv.getFiler().createSourceFile(dispatcherName, component);
+        debug("Akka SDK annotation processor writing command dispatcher " + dispatcherName);
+        try (var out = new PrintWriter(sourceFile.openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/** Generated by the Akka SDK annotation processor, do not edit. */");
+            out.println("public final class " + dispatcherSimpleName + " implements akka.javasdk.impl.ComponentCommandDispatcher<" + componentName + "> {");
+            out.println();
+            out.println("  @Override");
+            out.println("  @SuppressWarnings(\"unchecked\")");
+            out.println("  public Object dispatch(" + componentName + " component, String commandName, Object command) {");
+            out.println("    return switch (commandName) {");
+            callsPerCommandName.forEach((commandName, calls) -> {
+                if (calls.size() == 1) {
+                    out.println("      case \"" + commandName + "\" -> " + calls.getFirst() + ";");
+                }
+            });
+            out.println("      default -> NOT_HANDLED;");
+            out.println("    };");
+            out.println("  }");
+            out.println("}");
+        }
+    }
+
+    /** Primitive parameters are cast to their boxed type, the command is always passed as an object. */
+    private String castableTypeName(TypeMirror type) {
+        var types = processingEnv.getTypeUtils();
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        } else {
+            return types.erasure(type).toString();
+        }
+    }
+
     private void writeConfig(FileObject descriptorResource, Config config) throws IOException {
         try (Writer out = descriptorResource.openWriter()) {
             var writer = new BufferedWriter(out);
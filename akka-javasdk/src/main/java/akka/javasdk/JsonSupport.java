@@ -6,9 +6,10 @@ package akka.javasdk;
 
 import akka.Done;
 import akka.annotation.InternalApi;
-import akka.javasdk.annotations.Migration;
 import akka.javasdk.impl.AnySupport;
 import akka.javasdk.impl.ByteStringEncoding;
+import akka.javasdk.impl.JsonCodecRegistry;
+import akka.javasdk.impl.JsonMigrationPlan;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
@@ -35,7 +36,6 @@ import com.google.protobuf.ByteString;
 import com.google.protobuf.UnsafeByteOperations;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.Optional;
 
@@ -71,6 +71,8 @@ public final class JsonSupport {
     objectMapper.registerModule(module);
   }
 
+  private static final JsonCodecRegistry codecRegistry = new JsonCodecRegistry(objectMapper);
+
   /**
    * The Jackson ObjectMapper that is used for encoding and decoding JSON. You may adjust it's
    * configuration, but that must only be performed before starting the service,
@@ -80,6 +82,15 @@ public final class JsonSupport {
     return objectMapper;
   }
 
+  /**
+   * INTERNAL API
+   * @hidden
+   */
+  @InternalApi
+  public static JsonCodecRegistry getCodecRegistry() {
+    return codecRegistry;
+  }
+
   private JsonSupport() {
   }
 
@@ -124,11 +135,11 @@ public final class JsonSupport {
   // FIXME do we really want all these to be public API?
   public static <T> ByteString encodeToBytes(T value) throws JsonProcessingException {
     return UnsafeByteOperations.unsafeWrap(
-      objectMapper.writerFor(value.getClass()).writeValueAsBytes(value));
+      codecRegistry.writerFor(value.getClass()).writeValueAsBytes(value));
   }
 
   public static <T> akka.util.ByteString encodeToAkkaByteString(T value) throws JsonProcessingException {
-    return akka.util.ByteString.fromArrayUnsafe(objectMapper.writerFor(value.getClass()).writeValueAsBytes(value));
+    return akka.util.ByteString.fromArrayUnsafe(codecRegistry.writerFor(value.getClass()).writeValueAsBytes(value));
   }
 
   public static akka.util.ByteString encodeDynamicToAkkaByteString(String key, String value) throws JsonProcessingException {
@@ -163,39 +174,64 @@ public final class JsonSupport {
               + "]");
     } else {
       try {
-        ByteString decodedBytes = ByteStringEncoding.decodePrimitiveBytes(any.getValue());
-        if (valueClass.getAnnotation(Migration.class) != null) {
-          JsonMigration migration = valueClass.getAnnotation(Migration.class)
-              .value()
-              .getConstructor()
-              .newInstance();
-          int fromVersion = parseVersion(any.getTypeUrl());
-          int currentVersion = migration.currentVersion();
-          int supportedForwardVersion = migration.supportedForwardVersion();
+        // a view over the JSON payload inside the wrapper, to avoid copying it before handing it to Jackson
+        ByteString decodedBytes = ByteStringEncoding.decodeJsonBytes(any.getTypeUrl(), any.getValue());
+        boolean cbor = AnySupport.isCborTypeUrl(any.getTypeUrl());
+        Optional<JsonMigrationPlan> migrationPlan;
+        try {
+          migrationPlan = JsonMigrationPlan.forClass(valueClass);
+        } catch (IllegalStateException e) {
+          // the migration could not be created
+          throw genericDecodeException(valueClass, any, e);
+        }
+        if (migrationPlan.isPresent()) {
+          JsonMigrationPlan plan = migrationPlan.get();
+          int fromVersion = plan.versionOf(any.getTypeUrl());
+          int currentVersion = plan.currentVersion();
+          int supportedForwardVersion = plan.supportedForwardVersion();
           if (fromVersion < currentVersion) {
-            return migrate(valueClass, decodedBytes, fromVersion, migration);
+            return migrate(valueClass, decodedBytes, cbor, fromVersion, plan.migration());
           } else if (fromVersion == currentVersion) {
-            return parseBytes(decodedBytes.toByteArray(), valueClass);
+            return parseBytes(decodedBytes, cbor, valueClass);
           } else if (fromVersion <= supportedForwardVersion) {
-            return migrate(valueClass, decodedBytes, fromVersion, migration);
+            return migrate(valueClass, decodedBytes, cbor, fromVersion, plan.migration());
           } else {
             throw new IllegalStateException("Migration version " + supportedForwardVersion + " is " +
                 "behind version " + fromVersion + " of deserialized type [" + valueClass.getName() + "]");
           }
         } else {
-          return parseBytes(decodedBytes.toByteArray(), valueClass);
+          return parseBytes(decodedBytes, cbor, valueClass);
         }
       } catch (JsonProcessingException e) {
         throw jsonProcessingException(valueClass, any, e);
-      } catch (IOException | NoSuchMethodException | InstantiationException | IllegalAccessException |
-               InvocationTargetException e) {
+      } catch (IOException e) {
         throw genericDecodeException(valueClass, any, e);
       }
     }
   }
 
   public static <T> T parseBytes(byte[] bytes, Class<T> valueClass) throws IOException {
-    return objectMapper.readValue(bytes, valueClass);
+    return codecRegistry.readerFor(valueClass).readValue(bytes);
+  }
+
+  /**
+   * INTERNAL API
+   * @hidden
+   */
+  @InternalApi
+  public static <T> T parseBytes(akka.util.ByteString bytes, Class<T> valueClass) throws IOException {
+    if (bytes.isCompact()) {
+      // backed by a single array, no copy
+      return codecRegistry.readerFor(valueClass).readValue(bytes.toArrayUnsafe());
+    } else {
+      // stream through the segments rather than concatenating them first
+      return codecRegistry.readerFor(valueClass).readValue(bytes.iterator().asInputStream());
+    }
+  }
+
+  private static <T> T parseBytes(ByteString bytes, boolean cbor, Class<T> valueClass) throws IOException {
+    if (cbor) return codecRegistry.cborReaderFor(valueClass).readValue(bytes.newInput());
+    else return codecRegistry.readerFor(valueClass).readValue(bytes.newInput());
   }
 
   private static <T> IllegalArgumentException jsonProcessingException(Class<T> valueClass, Any any, JsonProcessingException e) {
@@ -218,22 +254,14 @@ public final class JsonSupport {
         e);
   }
 
-  private static <T> T migrate(Class<T> valueClass, ByteString decodedBytes, int fromVersion, JsonMigration jsonMigration) throws IOException {
-    JsonNode jsonNode = objectMapper.readTree(decodedBytes.toByteArray());
+  private static <T> T migrate(Class<T> valueClass, ByteString decodedBytes, boolean cbor, int fromVersion, JsonMigration jsonMigration) throws IOException {
+    // the tree is the same for JSON and CBOR, so the migrations work the same for both
+    ObjectMapper mapper = cbor ? codecRegistry.cborMapper() : objectMapper;
+    JsonNode jsonNode = mapper.readTree(decodedBytes.newInput());
     JsonNode newJsonNode = jsonMigration.transform(fromVersion, jsonNode);
     return objectMapper.treeToValue(newJsonNode, valueClass);
   }
 
-  private static int parseVersion(String typeUrl) {
-    int versionSeparatorIndex = typeUrl.lastIndexOf("#");
-    if (versionSeparatorIndex > 0) {
-      String maybeVersion = typeUrl.substring(versionSeparatorIndex + 1);
-      return Integer.parseInt(maybeVersion);
-    } else {
-      return 0;
-    }
-  }
-
   public static <T, C extends Collection<T>> C decodeJsonCollection(Class<T> valueClass, Class<C> collectionType, Any any) {
     if (!AnySupport.isJsonTypeUrl(any.getTypeUrl())) {
       throw new IllegalArgumentException(
@@ -244,9 +272,10 @@ public final class JsonSupport {
               + "]");
     } else {
       try {
-        ByteString decodedBytes = ByteStringEncoding.decodePrimitiveBytes(any.getValue());
-        var typeRef = objectMapper.getTypeFactory().constructCollectionType(collectionType, valueClass);
-        return objectMapper.readValue(decodedBytes.toByteArray(), typeRef);
+        ByteString decodedBytes = ByteStringEncoding.decodeJsonBytes(any.getTypeUrl(), any.getValue());
+        ObjectMapper mapper = AnySupport.isCborTypeUrl(any.getTypeUrl()) ? codecRegistry.cborMapper() : objectMapper;
+        var typeRef = mapper.getTypeFactory().constructCollectionType(collectionType, valueClass);
+        return mapper.readValue(decodedBytes.newInput(), typeRef);
       } catch (JsonProcessingException e) {
         throw jsonProcessingException(valueClass, any, e);
       } catch (IOException e) {
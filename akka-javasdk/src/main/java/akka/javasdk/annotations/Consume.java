@@ -148,4 +148,64 @@ public @interface Consume {
      **/
     boolean ignoreUnknown() default false;
   }
+
+  /**
+   * Annotation for a {@link akka.javasdk.consumer.Consumer} that should not handle messages that are delivered again.
+   * <p>
+   * Messages are delivered at least once, a message can be delivered again if the acknowledgement of an
+   * earlier delivery did not reach the runtime. With this annotation the consumer remembers the CloudEvent
+   * source, subject and id of the last {@link #maxEntries()} messages it has handled successfully, and
+   * acknowledges messages it has already handled with {@code ignore()}, without invoking the handler.
+   * <p>
+   * The handled messages are only remembered in memory, by each instance of the service. Deliveries of the
+   * same message that overlap in time, or that end up in another instance of the service, can still both
+   * be handled, so handlers must still tolerate duplicates.
+   * <p>
+   * Can not be combined with {@link Produce.ToTopic}. The runtime publishes the reply to the topic only after the
+   * consumer has responded, so a message is remembered as handled even if publishing its reply then fails, and
+   * the delivery of that message again would be ignored instead of publishing the reply.
+   */
+  @Target(ElementType.TYPE)
+  @Retention(RetentionPolicy.RUNTIME)
+  @Documented
+  @interface Deduplicate {
+    /**
+     * The maximum number of handled messages to remember, the least recently seen are forgotten first.
+     */
+    int maxEntries() default 10000;
+  }
+
+  /**
+   * Annotation for a {@link akka.javasdk.consumer.Consumer} method handling several messages in one invocation.
+   * <p>
+   * The underlying method must be declared to receive one {@code java.util.List<MessageEnvelope<T>>}
+   * parameter, where {@code T} is the consumed message type, and must be the only handler method
+   * of the consumer. A message is passed to the method right away if no batch is being handled.
+   * Only one batch is handled at a time. Messages delivered while a batch is being handled are
+   * collected into the next batch, which is closed once {@link #maxSize()} messages are collected,
+   * or once {@link #maxWaitMillis()} has passed since the first of them was delivered. The next
+   * batch is passed to the method once the batch being handled completes. How many messages are
+   * delivered concurrently is decided by the runtime, a batch may therefore contain a single message.
+   * <p>
+   * The returned effect applies to every message of the batch: all of them are acknowledged once
+   * it completes successfully, and all of them are delivered again if it fails. A batch handler can
+   * only return {@code done()} or {@code ignore()} effects, and the consumer can not be annotated
+   * with {@link Produce.ToTopic}. Use the metadata of each envelope rather than the message context
+   * of the consumer, which only refers to the last message of the batch.
+   */
+  @Target(ElementType.METHOD)
+  @Retention(RetentionPolicy.RUNTIME)
+  @Documented
+  @interface Batch {
+    /**
+     * The maximum number of messages passed to the method in one invocation.
+     */
+    int maxSize() default 100;
+
+    /**
+     * The maximum time in milliseconds that messages are collected into the same batch while a batch
+     * is being handled. Messages delivered after that go into a later batch.
+     */
+    long maxWaitMillis() default 100;
+  }
 }
@@ -30,4 +30,21 @@ public @interface Query {
    */
   boolean streamUpdates() default false;
 
+  /**
+   * For a query that returns a {@link akka.javasdk.view.View.QueryEffect}, cache the results of calls through the
+   * component client for this many milliseconds, per query parameter. The default, 0, disables caching.
+   * <p>
+   * Cached results of the view are dropped when this service instance applies an update to the view, updates applied
+   * by other instances of the service are not seen until the cached result expires. The runtime writes an update to
+   * the view after this service has handled it, so a query running in between can still cache the result from
+   * before the update, which is then returned until it expires or the view is updated again.
+   */
+  long cacheTtlMillis() default 0;
+
+  /**
+   * The maximum number of cached results of this query, the least recently used results are dropped first. Only
+   * used when {@link #cacheTtlMillis()} is set.
+   */
+  int cacheMaxEntries() default 1000;
+
 }
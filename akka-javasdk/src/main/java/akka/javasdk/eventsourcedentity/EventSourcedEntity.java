@@ -11,6 +11,7 @@ import akka.javasdk.impl.eventsourcedentity.EventSourcedEntityEffectImpl;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * The Event Sourced state model captures changes to data by storing events in a journal.
@@ -69,6 +70,7 @@ public abstract class EventSourcedEntity<S, E> {
   private Optional<CommandContext> commandContext = Optional.empty();
   private Optional<EventContext> eventContext = Optional.empty();
   private Optional<S> currentState = Optional.empty();
+  private Supplier<S> lazyCurrentState = null;
   private boolean handlingCommands = false;
 
   /**
@@ -131,9 +133,21 @@ public abstract class EventSourcedEntity<S, E> {
   @InternalApi
   public void _internalSetCurrentState(S state) {
     handlingCommands = true;
+    lazyCurrentState = null;
     currentState = Optional.ofNullable(state);
   }
 
+  /**
+   * INTERNAL API, the state is only requested from the supplier if accessed through {@link #currentState()}
+   * @hidden
+   */
+  @InternalApi
+  public void _internalSetLazyCurrentState(Supplier<S> state) {
+    handlingCommands = true;
+    lazyCurrentState = state;
+    currentState = Optional.empty();
+  }
+
   /**
    * This is the main event handler method. Whenever an event is persisted, this handler will be called.
    * It should return the new state of the entity.
@@ -188,8 +202,13 @@ public abstract class EventSourcedEntity<S, E> {
   protected final S currentState() {
     // user may call this method inside a command handler and get a null because it's legal
     // to have emptyState set to null.
-    if (handlingCommands) return currentState.orElse(null);
-    else
+    if (handlingCommands) {
+      if (lazyCurrentState != null) {
+        currentState = Optional.ofNullable(lazyCurrentState.get());
+        lazyCurrentState = null;
+      }
+      return currentState.orElse(null);
+    } else
       throw new IllegalStateException("Current state is only available when handling a command.");
   }
 
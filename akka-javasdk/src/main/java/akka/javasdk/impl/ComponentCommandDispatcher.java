@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl;
+
+import akka.annotation.InternalApi;
+
+/**
+ * INTERNAL API
+ *
+ * <p>Dispatches component client commands to the command handlers of a component with direct
+ * method calls. Implementations are generated at compile time by the Akka SDK annotation
+ * processor, when enabled, in the package of the component and named after the binary name of the
+ * component class with each {@code $} doubled, {@code Outer$$Inner_AkkaDispatcher} for a component
+ * {@code Outer.Inner}. They are used in place of reflective invocation when found at runtime.
+ *
+ * @hidden
+ */
+@InternalApi
+public interface ComponentCommandDispatcher<C> {
+
+  /** Returned from {@link #dispatch} when the component has no handler for the command name. */
+  Object NOT_HANDLED = new Object();
+
+  /**
+   * @param commandName the capitalized name of the command handler method
+   * @param command the deserialized command, or {@code null} for command handlers without parameter
+   * @return the effect returned by the command handler, or {@link #NOT_HANDLED}
+   */
+  Object dispatch(C component, String commandName, Object command);
+}
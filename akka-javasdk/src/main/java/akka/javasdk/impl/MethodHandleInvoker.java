@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl;
+
+import akka.annotation.InternalApi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * INTERNAL API
+ *
+ * <p>Invokes a component method through a {@link MethodHandle} adapted to an all-{@code Object}
+ * signature, so that calls can use {@code invokeExact} without going through {@code Method.invoke}.
+ * Methods with up to two parameters get a specialised variant that does not need an argument
+ * array. Exceptions thrown by the method are propagated as is, not wrapped in an {@link
+ * InvocationTargetException}. Arguments or a target of the wrong type are reported with an {@link
+ * IllegalArgumentException}, like reflection does.
+ *
+ * <p>If no method handle can be created for the method, invocation falls back to reflection.
+ *
+ * @hidden
+ */
+@InternalApi
+public abstract class MethodHandleInvoker {
+
+  private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+  // primitive types in the order of the widening primitive conversions between them
+  private static final List<Class<?>> numericTypes =
+      List.of(byte.class, short.class, int.class, long.class, float.class, double.class);
+
+  public static MethodHandleInvoker create(Method method) {
+    MethodHandle handle = unreflect(method);
+    if (handle == null) return new Reflective(method);
+
+    int arity = method.getParameterCount();
+    switch (arity) {
+      case 0:
+        return new Arity0(method, handle.asType(MethodType.genericMethodType(1)));
+      case 1:
+        return new Arity1(method, handle.asType(MethodType.genericMethodType(2)));
+      case 2:
+        return new Arity2(method, handle.asType(MethodType.genericMethodType(3)));
+      default:
+        return new Spreading(
+            method,
+            handle
+                .asSpreader(Object[].class, arity)
+                .asType(MethodType.methodType(Object.class, Object.class, Object[].class)),
+            arity);
+    }
+  }
+
+  private static MethodHandle unreflect(Method method) {
+    try {
+      return lookup.unreflect(method);
+    } catch (IllegalAccessException e) {
+      if (method.trySetAccessible()) {
+        try {
+          return lookup.unreflect(method);
+        } catch (IllegalAccessException ignored) {
+          return null;
+        }
+      } else {
+        return null;
+      }
+    }
+  }
+
+  private final Method method;
+
+  private MethodHandleInvoker(Method method) {
+    this.method = method;
+  }
+
+  public Object invoke0(Object target) throws Throwable {
+    return invokeN(target, new Object[0]);
+  }
+
+  public Object invoke1(Object target, Object arg) throws Throwable {
+    return invokeN(target, new Object[] {arg});
+  }
+
+  public Object invoke2(Object target, Object arg1, Object arg2) throws Throwable {
+    return invokeN(target, new Object[] {arg1, arg2});
+  }
+
+  public abstract Object invokeN(Object target, Object[] args) throws Throwable;
+
+  /**
+   * A ClassCastException or NullPointerException from invoking a method handle is either thrown by
+   * the method itself, or by the conversion of the target or the arguments, which reflection reports
+   * as IllegalArgumentException.
+   */
+  final Throwable invocationFailure(RuntimeException e, Object target, Object... args) {
+    if (target != null && !method.getDeclaringClass().isInstance(target))
+      return new IllegalArgumentException("object is not an instance of declaring class", e);
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (!isAssignable(parameterTypes[i], args[i]))
+        return new IllegalArgumentException("argument type mismatch", e);
+    }
+    return e;
+  }
+
+  private static boolean isAssignable(Class<?> type, Object arg) {
+    if (!type.isPrimitive()) return arg == null || type.isInstance(arg);
+    if (arg == null) return false;
+    Class<?> argType = MethodType.methodType(arg.getClass()).unwrap().returnType();
+    if (argType == type) return true;
+    if (argType == char.class)
+      return type == int.class || type == long.class || type == float.class || type == double.class;
+    int argIndex = numericTypes.indexOf(argType);
+    return argIndex >= 0 && numericTypes.indexOf(type) > argIndex;
+  }
+
+  private static IllegalArgumentException wrongNumberOfArguments(int expected, int actual) {
+    return new IllegalArgumentException(
+        "Wrong number of arguments, expected [" + expected + "] but got [" + actual + "]");
+  }
+
+  private static final class Arity0 extends MethodHandleInvoker {
+    private final MethodHandle handle;
+
+    Arity0(Method method, MethodHandle handle) {
+      super(method);
+      this.handle = handle;
+    }
+
+    @Override
+    public Object invoke0(Object target) throws Throwable {
+      try {
+        return (Object) handle.invokeExact(target);
+      } catch (ClassCastException | NullPointerException e) {
+        throw invocationFailure(e, target);
+      }
+    }
+
+    @Override
+    public Object invokeN(Object target, Object[] args) throws Throwable {
+      if (args.length != 0) throw wrongNumberOfArguments(0, args.length);
+      return invoke0(target);
+    }
+  }
+
+  private static final class Arity1 extends MethodHandleInvoker {
+    private final MethodHandle handle;
+
+    Arity1(Method method, MethodHandle handle) {
+      super(method);
+      this.handle = handle;
+    }
+
+    @Override
+    public Object invoke1(Object target, Object arg) throws Throwable {
+      try {
+        return (Object) handle.invokeExact(target, arg);
+      } catch (ClassCastException | NullPointerException e) {
+        throw invocationFailure(e, target, arg);
+      }
+    }
+
+    @Override
+    public Object invokeN(Object target, Object[] args) throws Throwable {
+      if (args.length != 1) throw wrongNumberOfArguments(1, args.length);
+      return invoke1(target, args[0]);
+    }
+  }
+
+  private static final class Arity2 extends MethodHandleInvoker {
+    private final MethodHandle handle;
+
+    Arity2(Method method, MethodHandle handle) {
+      super(method);
+      this.handle = handle;
+    }
+
+    @Override
+    public Object invoke2(Object target, Object arg1, Object arg2) throws Throwable {
+      try {
+        return (Object) handle.invokeExact(target, arg1, arg2);
+      } catch (ClassCastException | NullPointerException e) {
+        throw invocationFailure(e, target, arg1, arg2);
+      }
+    }
+
+    @Override
+    public Object invokeN(Object target, Object[] args) throws Throwable {
+      if (args.length != 2) throw wrongNumberOfArguments(2, args.length);
+      return invoke2(target, args[0], args[1]);
+    }
+  }
+
+  private static final class Spreading extends MethodHandleInvoker {
+    private final MethodHandle handle;
+    private final int arity;
+
+    Spreading(Method method, MethodHandle handle, int arity) {
+      super(method);
+      this.handle = handle;
+      this.arity = arity;
+    }
+
+    @Override
+    public Object invokeN(Object target, Object[] args) throws Throwable {
+      if (args.length != arity) throw wrongNumberOfArguments(arity, args.length);
+      try {
+        return (Object) handle.invokeExact(target, args);
+      } catch (ClassCastException | NullPointerException e) {
+        throw invocationFailure(e, target, args);
+      }
+    }
+  }
+
+  private static final class Reflective extends MethodHandleInvoker {
+    private final Method method;
+
+    Reflective(Method method) {
+      super(method);
+      this.method = method;
+    }
+
+    @Override
+    public Object invokeN(Object target, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause() != null ? e.getCause() : e;
+      }
+    }
+  }
+}
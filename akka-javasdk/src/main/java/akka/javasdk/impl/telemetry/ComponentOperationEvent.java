@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.telemetry;
+
+import akka.annotation.InternalApi;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * INTERNAL API
+ *
+ * <p>Java Flight Recorder event for a command, replayed event, workflow step, view update or
+ * consumer message handled by a component. Disabled by default, enable with {@code
+ * akka.javasdk.ComponentOperation#enabled=true} in the JFR settings of a recording. When no
+ * recording has the event enabled, creating, beginning and completing it is close to free.
+ *
+ * @hidden
+ */
+@InternalApi
+@Name("akka.javasdk.ComponentOperation")
+@Label("Component Operation")
+@Category("Akka SDK")
+@Description("Handling of a command, event, workflow step, view update or message by a component")
+@Enabled(false)
+@StackTrace(false)
+public final class ComponentOperationEvent extends Event {
+
+  @Label("Component Id")
+  public String componentId;
+
+  @Label("Operation")
+  public String operation;
+
+  @Label("Name")
+  @Description("Command name, step name or type of the event or message")
+  public String name;
+
+  @Label("Entity Id Hash")
+  public int entityIdHash;
+
+  @Label("Payload Size")
+  @DataAmount
+  public long payloadBytes;
+
+  /**
+   * Ends the event and commits it, if it is enabled and within the configured threshold. To be
+   * called on an event that was created and begun before the operation started.
+   *
+   * @param entityId the entity or workflow id or the subject, may be {@code null}
+   */
+  public void complete(
+      String componentId,
+      ComponentOperation operation,
+      String name,
+      String entityId,
+      long payloadBytes) {
+    end();
+    if (shouldCommit()) {
+      this.componentId = componentId;
+      this.operation = operation.name();
+      this.name = name;
+      this.entityIdHash = entityId == null ? 0 : entityId.hashCode();
+      this.payloadBytes = payloadBytes;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.telemetry;
+
+import akka.annotation.InternalApi;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * INTERNAL API
+ *
+ * <p>Java Flight Recorder event for encoding or decoding a JSON message. Disabled by default,
+ * enable with {@code akka.javasdk.Serialization#enabled=true} in the JFR settings of a recording.
+ *
+ * @hidden
+ */
+@InternalApi
+@Name("akka.javasdk.Serialization")
+@Label("Serialization")
+@Category("Akka SDK")
+@Description("Encoding or decoding of a JSON message")
+@Enabled(false)
+@StackTrace(false)
+public final class SerializationEvent extends Event {
+
+  @Label("Encode")
+  @Description("True when encoding, false when decoding")
+  public boolean encode;
+
+  @Label("Type")
+  public String type;
+
+  @Label("Payload Size")
+  @DataAmount
+  public long payloadBytes;
+
+  /**
+   * Ends the event and commits it, if it is enabled and within the configured threshold. To be
+   * called on an event that was created and begun before encoding or decoding started.
+   */
+  public void complete(boolean encode, String type, long payloadBytes) {
+    end();
+    if (shouldCommit()) {
+      this.encode = encode;
+      this.type = type;
+      this.payloadBytes = payloadBytes;
+      commit();
+    }
+  }
+}
@@ -9,6 +9,7 @@ import akka.javasdk.annotations.Table;
 import akka.javasdk.impl.view.ViewEffectImpl;
 
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Responsible for consuming events from a source and emit updates to one view table. Event subject (entity id
@@ -30,6 +31,8 @@ public abstract class TableUpdater<S> {
 
   private Optional<S> viewState = Optional.empty();
 
+  private Supplier<S> lazyViewState = null;
+
 
   private boolean handlingUpdates = false;
 
@@ -61,9 +64,21 @@ public abstract class TableUpdater<S> {
   @InternalApi
   public void _internalSetViewState(S state) {
     handlingUpdates = true;
+    lazyViewState = null;
     viewState = Optional.ofNullable(state);
   }
 
+  /**
+   * INTERNAL API, the state is only requested from the supplier if accessed through {@link #rowState()}
+   * @hidden
+   */
+  @InternalApi
+  public void _internalSetLazyViewState(Supplier<S> state) {
+    handlingUpdates = true;
+    lazyViewState = state;
+    viewState = Optional.empty();
+  }
+
   /**
    * Returns the current state of the row for the subject that is being updated.
    *
@@ -78,8 +93,13 @@ public abstract class TableUpdater<S> {
   protected final S rowState() {
     // user may call this method inside a command handler and get a null because it's legal
     // to have emptyState set to null.
-    if (handlingUpdates) return viewState.orElse(null);
-    else
+    if (handlingUpdates) {
+      if (lazyViewState != null) {
+        viewState = Optional.ofNullable(lazyViewState.get());
+        lazyViewState = null;
+      }
+      return viewState.orElse(null);
+    } else
       throw new IllegalStateException("Current state is only available when handling updates.");
   }
 
@@ -6,6 +6,7 @@ package akka.javasdk.impl
 
 import java.io.ByteArrayOutputStream
 import java.util.Locale
+import scala.annotation.tailrec
 import scala.collection.concurrent.TrieMap
 import scala.jdk.CollectionConverters._
 import scala.reflect.ClassTag
@@ -43,6 +44,10 @@ private[akka] object AnySupport {
   final val ProtobufEmptyTypeUrl = "type.googleapis.com/google.protobuf.Empty"
   val JsonTypeUrlPrefix: String = "json.akka.io/"
   private val KalixJsonTypeUrlPrefix: String = "json.kalix.io/"
+  // JSON compressed with deflate, followed by the same type name as uncompressed JSON
+  val DeflatedJsonTypeUrlPrefix: String = JsonTypeUrlPrefix + "deflate/"
+  // the same Jackson data model as JSON, encoded as CBOR, followed by the same type name as JSON
+  val CborTypeUrlPrefix: String = "cbor.akka.io/"
 
   private val log = LoggerFactory.getLogger(classOf[AnySupport])
 
@@ -50,14 +55,27 @@ private[akka] object AnySupport {
 
   def isJsonTypeUrl(typeUrl: String): Boolean =
     // check both new and old typeurl for compatibility, in case there are services with old type url stored in database
-    typeUrl.startsWith(JsonTypeUrlPrefix) || typeUrl.startsWith(KalixJsonTypeUrlPrefix)
+    typeUrl.startsWith(JsonTypeUrlPrefix) || typeUrl.startsWith(KalixJsonTypeUrlPrefix) || isCborTypeUrl(typeUrl)
+
+  def isCborTypeUrl(typeUrl: String): Boolean =
+    typeUrl.startsWith(CborTypeUrlPrefix)
 
   def replaceLegacyJsonPrefix(typeUrl: String): String =
     if (typeUrl.startsWith(KalixJsonTypeUrlPrefix)) JsonTypeUrlPrefix + typeUrl.stripPrefix(KalixJsonTypeUrlPrefix)
     else typeUrl
 
+  def isDeflatedJsonTypeUrl(typeUrl: String): Boolean =
+    typeUrl.startsWith(DeflatedJsonTypeUrlPrefix)
+
+  /** The plain JSON type url for compressed JSON or CBOR type urls, for looking up handlers by type */
+  def toPlainJsonTypeUrl(typeUrl: String): String =
+    if (isDeflatedJsonTypeUrl(typeUrl) || isCborTypeUrl(typeUrl)) JsonTypeUrlPrefix + stripJsonTypeUrlPrefix(typeUrl)
+    else typeUrl
+
   def stripJsonTypeUrlPrefix(typeUrl: String): String =
-    typeUrl.stripPrefix(AnySupport.JsonTypeUrlPrefix).stripPrefix(KalixJsonTypeUrlPrefix)
+    if (isDeflatedJsonTypeUrl(typeUrl)) typeUrl.substring(DeflatedJsonTypeUrlPrefix.length)
+    else if (isCborTypeUrl(typeUrl)) typeUrl.substring(CborTypeUrlPrefix.length)
+    else typeUrl.stripPrefix(AnySupport.JsonTypeUrlPrefix).stripPrefix(KalixJsonTypeUrlPrefix)
 
   sealed abstract class Primitive[T: ClassTag] {
     val name = fieldType.name().toLowerCase(Locale.ROOT)
@@ -145,6 +163,29 @@ private[akka] object AnySupport {
   private[akka] def decodePrimitiveBytes(bytes: ByteString): ByteString =
     bytesToPrimitive(BytesPrimitive, bytes)
 
+  /**
+   * Same as `decodePrimitiveBytes` but reads the length-delimited wrapper in place and returns a view over the wrapped
+   * bytes instead of copying them out.
+   *
+   * INTERNAL API
+   */
+  private[akka] def decodePrimitiveBytesInPlace(bytes: ByteString): ByteString = {
+    val stream = bytes.newCodedInput()
+    @tailrec
+    def loop(tag: Int): ByteString =
+      if (tag == 0) BytesPrimitive.defaultValue
+      else if (tag == BytesPrimitive.tag) {
+        val length = stream.readRawVarint32()
+        val start = stream.getTotalBytesRead
+        bytes.substring(start, start + length)
+      } else {
+        stream.skipField(tag)
+        loop(stream.readTag())
+      }
+
+    loop(stream.readTag())
+  }
+
   private def primitiveToBytes[T](primitive: Primitive[T], value: T): ByteString =
     if (value != primitive.defaultValue) {
       val baos = new ByteArrayOutputStream()
@@ -502,6 +543,16 @@ private[akka] object ByteStringEncoding {
   def decodePrimitiveBytes(bytes: ByteString): ByteString =
     AnySupport.decodePrimitiveBytes(bytes)
 
+  def decodePrimitiveBytesInPlace(bytes: ByteString): ByteString =
+    AnySupport.decodePrimitiveBytesInPlace(bytes)
+
+  /** The JSON, or CBOR, payload of a JSON type url any, inflated if it was stored compressed */
+  def decodeJsonBytes(typeUrl: String, bytes: ByteString): ByteString = {
+    val json = AnySupport.decodePrimitiveBytesInPlace(bytes)
+    if (AnySupport.isDeflatedJsonTypeUrl(typeUrl)) StateCompression.inflate(json)
+    else json
+  }
+
 }
 
 trait MessageCodec {
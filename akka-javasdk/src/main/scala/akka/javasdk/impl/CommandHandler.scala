@@ -6,11 +6,9 @@ package akka.javasdk.impl
 
 import akka.annotation.InternalApi
 import akka.javasdk.impl.reflection.ParameterExtractor
-import java.lang.reflect.InvocationTargetException
+import akka.javasdk.impl.reflection.Reflect
 import java.lang.reflect.Method
 
-import scala.util.control.Exception.Catcher
-
 import com.fasterxml.jackson.annotation.JsonSubTypes
 import com.google.protobuf.Descriptors
 import org.slf4j.LoggerFactory
@@ -36,7 +34,7 @@ private[impl] final case class CommandHandler(
    */
   private def lookupMethodAcceptingSubType(inputTypeUrl: String): Option[MethodInvoker] = {
     methodInvokers.values.find { javaMethod =>
-      val lastParam = javaMethod.method.getParameterTypes.last
+      val lastParam = Reflect.consumedType(javaMethod.method)
       if (lastParam.getAnnotation(classOf[JsonSubTypes]) != null) {
         lastParam.getAnnotation(classOf[JsonSubTypes]).value().exists { subType =>
           inputTypeUrl == messageCodec
@@ -48,10 +46,13 @@ private[impl] final case class CommandHandler(
 
   def isSingleNameInvoker: Boolean = methodInvokers.size == 1
 
-  def lookupInvoker(inputTypeUrl: String): Option[MethodInvoker] =
+  def lookupInvoker(inputTypeUrl: String): Option[MethodInvoker] = {
+    // compressed JSON and CBOR are handled by the same method as plain JSON
+    val typeUrl = AnySupport.toPlainJsonTypeUrl(inputTypeUrl)
     methodInvokers
-      .get(messageCodec.removeVersion(inputTypeUrl))
-      .orElse(lookupMethodAcceptingSubType(inputTypeUrl))
+      .get(messageCodec.removeVersion(typeUrl))
+      .orElse(lookupMethodAcceptingSubType(typeUrl))
+  }
 
   def getInvoker(inputTypeUrl: String): MethodInvoker =
     lookupInvoker(inputTypeUrl).getOrElse {
@@ -84,33 +85,34 @@ private[impl] final case class MethodInvoker(
     method: Method,
     parameterExtractors: Array[ParameterExtractor[InvocationContext, AnyRef]]) {
 
+  // method handle based invoker, created once per method when the component descriptor is created
+  private val invoker: MethodHandleInvoker = MethodHandleInvoker.create(method)
+
   /**
    * To invoke methods with parameters an InvocationContext is necessary extract them from the message.
    */
-  def invoke(componentInstance: AnyRef, invocationContext: InvocationContext): AnyRef = {
-    try method.invoke(componentInstance, parameterExtractors.map(e => e.extract(invocationContext)): _*)
-    catch unwrapInvocationTargetException()
-  }
+  def invoke(componentInstance: AnyRef, invocationContext: InvocationContext): AnyRef =
+    parameterExtractors.length match {
+      case 0 => invoker.invoke0(componentInstance)
+      case 1 => invoker.invoke1(componentInstance, parameterExtractors(0).extract(invocationContext))
+      case 2 =>
+        invoker.invoke2(
+          componentInstance,
+          parameterExtractors(0).extract(invocationContext),
+          parameterExtractors(1).extract(invocationContext))
+      case _ => invoker.invokeN(componentInstance, parameterExtractors.map(e => e.extract(invocationContext)))
+    }
 
   /**
    * To invoke methods with arity zero.
    */
-  def invoke(componentInstance: AnyRef): AnyRef = {
-    try method.invoke(componentInstance)
-    catch unwrapInvocationTargetException()
-  }
+  def invoke(componentInstance: AnyRef): AnyRef =
+    invoker.invoke0(componentInstance)
 
   /**
    * To invoke a methods with a deserialized payload
    */
-  def invokeDirectly(componentInstance: AnyRef, payload: AnyRef): AnyRef = {
-    try method.invoke(componentInstance, payload)
-    catch unwrapInvocationTargetException()
-  }
-
-  private def unwrapInvocationTargetException(): Catcher[AnyRef] = {
-    case exc: InvocationTargetException if exc.getCause != null =>
-      throw exc.getCause
-  }
+  def invokeDirectly(componentInstance: AnyRef, payload: AnyRef): AnyRef =
+    invoker.invoke1(componentInstance, payload)
 
 }
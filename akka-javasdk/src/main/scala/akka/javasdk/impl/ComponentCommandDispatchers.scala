@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl
+
+import scala.util.control.NonFatal
+
+import akka.annotation.InternalApi
+import org.slf4j.LoggerFactory
+
+/**
+ * Looks up the compile time generated [[ComponentCommandDispatcher]] for a component class, if the annotation
+ * processor was configured to generate them.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[impl] object ComponentCommandDispatchers {
+
+  type Dispatcher = ComponentCommandDispatcher[AnyRef]
+
+  private val log = LoggerFactory.getLogger(getClass)
+
+  private val dispatchers = new ClassValue[Option[Dispatcher]] {
+    override def computeValue(componentClass: Class[_]): Option[Dispatcher] = {
+      val dispatcherClassName = generatedClassName(componentClass)
+      try {
+        val dispatcherClass = Class.forName(dispatcherClassName, true, componentClass.getClassLoader)
+        val dispatcher = dispatcherClass.getConstructor().newInstance().asInstanceOf[Dispatcher]
+        log.debug("Using generated command dispatcher [{}]", dispatcherClassName)
+        Some(dispatcher)
+      } catch {
+        case _: ClassNotFoundException => None
+        case NonFatal(ex) =>
+          log.warn(s"Failed to create generated command dispatcher [$dispatcherClassName], using reflection", ex)
+          None
+      }
+    }
+  }
+
+  /** Must be kept in sync with the name the annotation processor generates */
+  def generatedClassName(componentClass: Class[_]): String = {
+    val packageName = componentClass.getPackageName
+    val nestedName =
+      if (packageName.isEmpty) componentClass.getName
+      else componentClass.getName.substring(packageName.length + 1)
+    val prefix = if (packageName.isEmpty) "" else packageName + "."
+    // '$' doubled, so that a nested Outer.Inner and a top level Outer_Inner do not get the same name
+    prefix + nestedName.replace("$", "$$") + "_AkkaDispatcher"
+  }
+
+  def lookup(componentClass: Class[_]): Option[Dispatcher] = dispatchers.get(componentClass)
+
+  /**
+   * Invoke a component client command through the generated dispatcher if there is one and it knows the command,
+   * falling back to the method invoker otherwise.
+   */
+  def dispatch(
+      dispatcher: Option[Dispatcher],
+      component: AnyRef,
+      commandName: String,
+      methodInvoker: MethodInvoker,
+      command: Option[AnyRef]): AnyRef = {
+    val dispatched = dispatcher match {
+      case Some(d) => d.dispatch(component, commandName, command.orNull)
+      case None    => ComponentCommandDispatcher.NOT_HANDLED
+    }
+    if (dispatched ne ComponentCommandDispatcher.NOT_HANDLED) dispatched
+    else
+      command match {
+        case None          => methodInvoker.invoke(component)
+        case Some(payload) => methodInvoker.invokeDirectly(component, payload)
+      }
+  }
+}
@@ -22,6 +22,7 @@ import akka.javasdk.impl.reflection.VirtualServiceMethod
 import java.lang.reflect.ParameterizedType
 import AnySupport.ProtobufEmptyTypeUrl
 import akka.annotation.InternalApi
+import akka.javasdk.JsonSupport
 import akka.javasdk.annotations.ComponentId
 import com.google.api.AnnotationsProto
 import com.google.api.HttpRule
@@ -206,6 +207,7 @@ private[impl] object ComponentDescriptor {
                 val parameterExtractors: ParameterExtractorsArray = {
                   meth.getParameterTypes.length match {
                     case 1 =>
+                      JsonSupport.getCodecRegistry.register(method.inputType)
                       Array(
                         new ParameterExtractors.BodyExtractor(messageDescriptor.findFieldByNumber(1), method.inputType))
                     case 0 =>
@@ -228,7 +230,7 @@ private[impl] object ComponentDescriptor {
               val parameterExtractors: ParameterExtractorsArray = {
                 meth.getParameterTypes.length match {
                   case 1 =>
-                    Array(new ParameterExtractors.AnyBodyExtractor[AnyRef](meth.getParameterTypes.head, messageCodec))
+                    Array(new ParameterExtractors.AnyBodyExtractor[AnyRef](Reflect.consumedType(meth), messageCodec))
                   case n =>
                     throw new IllegalStateException(
                       s"Update handler ${method} is expecting $n parameters, should be 1, the update")
@@ -277,10 +279,11 @@ private[impl] object ComponentDescriptor {
             serviceMethod.javaMethodOpt
               .map { meth =>
                 val parameterExtractors: ParameterExtractorsArray =
-                  if (meth.getParameterTypes.length == 1)
+                  if (meth.getParameterTypes.length == 1) {
+                    JsonSupport.getCodecRegistry.register(method.inputType)
                     Array(
                       new ParameterExtractors.BodyExtractor(messageDescriptor.findFieldByNumber(1), method.inputType))
-                  else
+                  } else
                     Array.empty // parameterless method, not extractor needed
 
                 Map(typeUrl -> MethodInvoker(meth, parameterExtractors))
@@ -371,9 +371,8 @@ private[impl] object ComponentDescriptorFactory {
       case (source, kMethods) if kMethods.size > 1 =>
         val methodsMap =
           kMethods.flatMap { k =>
-            val methodParameterTypes = k.serviceMethod.javaMethodOpt.get.getParameterTypes
             // it is safe to pick the last parameter. An action has one and View has two. In the View always the last is the event
-            val eventParameter = methodParameterTypes.last
+            val eventParameter = Reflect.consumedType(k.serviceMethod.javaMethodOpt.get)
 
             messageCodec.typeUrlsFor(eventParameter).map(typeUrl => (typeUrl, k.serviceMethod.javaMethodOpt.get))
           }.toMap
@@ -387,9 +386,9 @@ private[impl] object ComponentDescriptorFactory {
 
       case (source, kMethod +: Nil) =>
         //only here it makes sense to check if the input is sealed, since kMethod size is 1
-        if (kMethod.serviceMethod.javaMethodOpt.exists(_.getParameterTypes.last.isSealed)) {
+        if (kMethod.serviceMethod.javaMethodOpt.exists(Reflect.consumedType(_).isSealed)) {
           val javaMethod = kMethod.serviceMethod.javaMethodOpt.get
-          val methodsMap = javaMethod.getParameterTypes.last.getPermittedSubclasses.toList.flatMap { subClass =>
+          val methodsMap = Reflect.consumedType(javaMethod).getPermittedSubclasses.toList.flatMap { subClass =>
             messageCodec.typeUrlsFor(subClass).map(typeUrl => (typeUrl, javaMethod))
           }.toMap
           KalixMethod(
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import akka.annotation.InternalApi
+
+/**
+ * Pool of component instances, or routers wrapping them, that can be reused for processing one message at a time.
+ * Instances are only ever handed out to one user at a time, new instances are created when all existing are in use,
+ * so the pool grows up to the peak number of concurrently processed messages.
+ *
+ * When disabled, a new instance is created for every acquire and released instances are discarded.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[impl] final class InstancePool[T <: AnyRef](enabled: Boolean, create: () => T) {
+
+  private val idle = new ConcurrentLinkedQueue[T]()
+
+  def acquire(): T =
+    if (enabled) {
+      val instance = idle.poll()
+      if (instance ne null) instance else create()
+    } else create()
+
+  /**
+   * Return an instance once the message it was used for has been fully processed. Instances that failed processing
+   * a message should not be returned, since they may have been left in an inconsistent state.
+   */
+  def release(instance: T): Unit =
+    if (enabled) idle.offer(instance)
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+
+import scala.jdk.CollectionConverters._
+
+import akka.annotation.InternalApi
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.ObjectReader
+import com.fasterxml.jackson.databind.ObjectWriter
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory
+import org.slf4j.LoggerFactory
+
+/**
+ * Keeps a pre-built Jackson `ObjectReader` and `ObjectWriter` per class so that encoding and decoding does not need to
+ * resolve the (de)serializers through the `ObjectMapper` for every message.
+ *
+ * Types are registered up front when the message codec registers its type hints. Lookups for types that were not
+ * registered still succeed, but are counted as misses so that we can find out which types were not known at startup.
+ *
+ * Readers and writers are immutable snapshots of the `ObjectMapper` configuration at creation time, so the registry
+ * must be refreshed if the mapper is reconfigured, which is allowed from `ServiceSetup.onStartup`.
+ *
+ * The same is kept for CBOR, with a copy of the `ObjectMapper` configuration, for the types that are configured to be
+ * stored as CBOR.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] final class JsonCodecRegistry(objectMapper: ObjectMapper) {
+  import JsonCodecRegistry._
+
+  private val codecs = new ConcurrentHashMap[Class[_], TypeCodecs]()
+  private val registeredTypes = ConcurrentHashMap.newKeySet[Class[_]]()
+  private val missedTypes = ConcurrentHashMap.newKeySet[Class[_]]()
+  private val hits = new LongAdder
+  private val misses = new LongAdder
+
+  private val createCodecs: java.util.function.Function[Class[_], TypeCodecs] = clz =>
+    TypeCodecs(objectMapper.readerFor(clz), objectMapper.writerFor(clz))
+
+  @volatile private var _cborMapper: ObjectMapper = objectMapper.copyWith(new CBORFactory)
+  private val cborCodecs = new ConcurrentHashMap[Class[_], TypeCodecs]()
+  private val createCborCodecs: java.util.function.Function[Class[_], TypeCodecs] = clz =>
+    TypeCodecs(_cborMapper.readerFor(clz), _cborMapper.writerFor(clz))
+
+  def register(clz: Class[_]): Unit = {
+    registeredTypes.add(clz)
+    codecs.computeIfAbsent(clz, createCodecs)
+  }
+
+  def readerFor(clz: Class[_]): ObjectReader = lookup(clz).reader
+
+  def writerFor(clz: Class[_]): ObjectWriter = lookup(clz).writer
+
+  def cborMapper: ObjectMapper = _cborMapper
+
+  def cborReaderFor(clz: Class[_]): ObjectReader = cborCodecs.computeIfAbsent(clz, createCborCodecs).reader
+
+  def cborWriterFor(clz: Class[_]): ObjectWriter = cborCodecs.computeIfAbsent(clz, createCborCodecs).writer
+
+  private def lookup(clz: Class[_]): TypeCodecs = {
+    val existing = codecs.get(clz)
+    if (existing ne null) {
+      hits.increment()
+      existing
+    } else {
+      misses.increment()
+      if (missedTypes.add(clz))
+        log.debug("Type [{}] was not registered up front, creating JSON reader and writer on first use", clz.getName)
+      codecs.computeIfAbsent(clz, createCodecs)
+    }
+  }
+
+  /**
+   * Drops all pre-built readers and writers and re-creates them for the registered types, picking up any changes made
+   * to the `ObjectMapper` configuration since they were built.
+   */
+  def refresh(): Unit = {
+    codecs.clear()
+    registeredTypes.forEach(clz => codecs.computeIfAbsent(clz, createCodecs))
+    _cborMapper = objectMapper.copyWith(new CBORFactory)
+    cborCodecs.clear()
+  }
+
+  def hitCount: Long = hits.sum()
+
+  def missCount: Long = misses.sum()
+
+  /** Types that were looked up without having been registered first */
+  def missedTypeNames: Set[String] = missedTypes.asScala.map(_.getName).toSet
+
+  override def toString: String =
+    s"JsonCodecRegistry(${registeredTypes.size} registered types, hits: $hitCount, misses: $missCount)"
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object JsonCodecRegistry {
+  private val log = LoggerFactory.getLogger(classOf[JsonCodecRegistry])
+
+  private final case class TypeCodecs(reader: ObjectReader, writer: ObjectWriter)
+}
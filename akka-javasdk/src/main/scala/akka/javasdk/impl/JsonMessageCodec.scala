@@ -8,30 +8,40 @@ import java.lang
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ConcurrentMap
 
-import scala.jdk.CollectionConverters._
-
 import com.fasterxml.jackson.annotation.JsonSubTypes
+import com.fasterxml.jackson.core.JsonProcessingException
 import com.google.protobuf.ByteString
 import com.google.protobuf.BytesValue
+import com.google.protobuf.UnsafeByteOperations
 import com.google.protobuf.any.{ Any => ScalaPbAny }
 import com.google.protobuf.{ Any => JavaPbAny }
 import AnySupport.BytesPrimitive
 import akka.annotation.InternalApi
 import akka.javasdk.JsonSupport
-import akka.javasdk.annotations.Migration
 import akka.javasdk.annotations.TypeName
+import akka.javasdk.impl.telemetry.SerializationEvent
 
 /**
+ * @param cborTypeNames
+ *   class names of types, or super types of types, to store as CBOR rather than JSON
+ *
  * INTERNAL API
  */
 @InternalApi
-private[javasdk] class JsonMessageCodec extends MessageCodec {
+private[javasdk] class JsonMessageCodec(cborTypeNames: Set[String]) extends MessageCodec {
+
+  def this() = this(Set.empty)
 
   case class TypeHint(currenTypeHintWithVersion: String, allTypeHints: List[String])
 
   private val typeHints: ConcurrentMap[Class[_], TypeHint] = new ConcurrentHashMap()
   val reversedTypeHints: ConcurrentMap[String, Class[_]] = new ConcurrentHashMap()
 
+  // per class, if it is or extends one of the CBOR types
+  private val cborTypes: ConcurrentMap[Class[_], lang.Boolean] = new ConcurrentHashMap()
+  private val computeIsCborType: java.util.function.Function[Class[_], lang.Boolean] = clz =>
+    lang.Boolean.valueOf(isCborType(clz))
+
   override def toString: String = s"JsonMessageCodec: ${typeHints.keySet().size()} registered types"
 
   /**
@@ -43,14 +53,49 @@ private[javasdk] class JsonMessageCodec extends MessageCodec {
       case javaPbAny: JavaPbAny   => ScalaPbAny.fromJavaProto(javaPbAny)
       case scalaPbAny: ScalaPbAny => scalaPbAny
       case bytes: Array[Byte]     => ScalaPbAny.fromJavaProto(JavaPbAny.pack(BytesValue.of(ByteString.copyFrom(bytes))))
-      case other => ScalaPbAny.fromJavaProto(JsonSupport.encodeJson(other, lookupTypeHintWithVersion(other)))
+      case other                  => ScalaPbAny.fromJavaProto(encodeJson(other))
     }
   }
 
+  /**
+   * Encodes entity state and events, as CBOR if the type is configured for it, otherwise the same as `encodeScala`.
+   * Replies and commands are always JSON, since they are also parsed outside of the message codec.
+   */
+  def encodeStateOrEvent(value: Any): ScalaPbAny =
+    if (value != null && storesAsCbor(value.getClass)) encodeCbor(value)
+    else encodeScala(value)
+
+  /** True if state or events of the class are stored as CBOR */
+  def storesAsCbor(clz: Class[_]): Boolean =
+    cborTypeNames.nonEmpty && cborTypes.computeIfAbsent(clz, computeIsCborType)
+
+  private def isCborType(clz: Class[_]): Boolean =
+    (clz ne null) &&
+    (cborTypeNames.contains(clz.getName) || isCborType(clz.getSuperclass) || clz.getInterfaces.exists(isCborType))
+
+  private def encodeCbor(value: Any): ScalaPbAny = {
+    val jfrEvent = new SerializationEvent
+    jfrEvent.begin()
+    val typeUrl = AnySupport.CborTypeUrlPrefix + lookupTypeHintWithVersion(value)
+    val bytes =
+      try JsonSupport.getCodecRegistry.cborWriterFor(value.getClass).writeValueAsBytes(value)
+      catch {
+        case e: JsonProcessingException =>
+          throw new IllegalArgumentException(s"Could not encode [${value.getClass.getName}] as CBOR", e)
+      }
+    val encoded = ScalaPbAny(typeUrl, AnySupport.encodePrimitiveBytes(UnsafeByteOperations.unsafeWrap(bytes)))
+    jfrEvent.complete(true, typeUrl, encoded.value.size())
+    encoded
+  }
+
   def encodeJavaToBytes(value: Any): akka.util.ByteString = {
     if (value == null) throw NullSerializationException
-    val buf = JsonSupport.encodeToBytes(value, lookupTypeHintWithVersion(value)).asReadOnlyByteBuffer()
-    akka.util.ByteString.fromByteBuffer(buf)
+    val jfrEvent = new SerializationEvent
+    jfrEvent.begin()
+    val typeHint = lookupTypeHintWithVersion(value)
+    val bytes = JsonSupport.encodeToBytes(value, typeHint)
+    jfrEvent.complete(true, typeHint, bytes.size())
+    akka.util.ByteString.fromByteBuffer(bytes.asReadOnlyByteBuffer())
   }
 
   override def encodeJava(value: Any): JavaPbAny = {
@@ -58,10 +103,18 @@ private[javasdk] class JsonMessageCodec extends MessageCodec {
     value match {
       case javaPbAny: JavaPbAny   => javaPbAny
       case scalaPbAny: ScalaPbAny => ScalaPbAny.toJavaProto(scalaPbAny)
-      case other                  => JsonSupport.encodeJson(other, lookupTypeHintWithVersion(other))
+      case other                  => encodeJson(other)
     }
   }
 
+  private def encodeJson(value: Any): JavaPbAny = {
+    val jfrEvent = new SerializationEvent
+    jfrEvent.begin()
+    val encoded = JsonSupport.encodeJson(value, lookupTypeHintWithVersion(value))
+    jfrEvent.complete(true, encoded.getTypeUrl, encoded.getValue.size())
+    encoded
+  }
+
   private def lookupTypeHintWithVersion(value: Any): String =
     lookupTypeHint(value.getClass).currenTypeHintWithVersion
 
@@ -82,6 +135,8 @@ private[javasdk] class JsonMessageCodec extends MessageCodec {
   }
 
   private def computeTypeHint(clz: Class[_]): TypeHint = {
+    // type hints are computed once per class, pre-build the Jackson reader and writer at the same time
+    JsonSupport.getCodecRegistry.register(clz)
     if (clz.getName.contains("java.lang")) {
       val typeHint = if (clz.isAssignableFrom(classOf[String])) {
         TypeHint("string", List("string", "java.lang.String"))
@@ -137,11 +192,9 @@ private[javasdk] class JsonMessageCodec extends MessageCodec {
   }
 
   private def getVersionAndSupportedClassNames(clz: Class[_]): (Int, List[String]) = {
-    Option(clz.getAnnotation(classOf[Migration]))
-      .map(_.value())
-      .map(migrationClass => migrationClass.getConstructor().newInstance())
-      .map(migration =>
-        (migration.currentVersion(), migration.supportedClassNames().asScala.toList)) //TODO what about TypeName
+    JsonMigrationPlan
+      .lookup(clz)
+      .map(plan => (plan.currentVersion, plan.supportedClassNames)) //TODO what about TypeName
       .getOrElse((0, List.empty))
   }
 
@@ -166,8 +219,11 @@ private[javasdk] class JsonMessageCodec extends MessageCodec {
   }
 
   def decodeMessage[T](expectedType: Class[T], bytes: akka.util.ByteString): T = {
-    // FIXME could we avoid the copy?
-    JsonSupport.parseBytes(bytes.toArrayUnsafe(), expectedType)
+    val jfrEvent = new SerializationEvent
+    jfrEvent.begin()
+    val decoded = JsonSupport.parseBytes(bytes, expectedType)
+    jfrEvent.complete(false, expectedType.getName, bytes.length)
+    decoded
   }
 
   private[akka] def removeVersion(typeName: String) = {
@@ -193,7 +249,11 @@ private[javasdk] class StrictJsonMessageCodec(delegate: JsonMessageCodec) extend
       if (typeClass eq null) {
         throw new IllegalStateException(s"Cannot decode ${value.typeUrl} message type. Class mapping not found.")
       } else {
-        JsonSupport.decodeJson(typeClass, value)
+        val jfrEvent = new SerializationEvent
+        jfrEvent.begin()
+        val decoded = JsonSupport.decodeJson(typeClass, value)
+        jfrEvent.complete(false, value.typeUrl, value.value.size())
+        decoded
       }
     } else {
       value
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl
+
+import java.lang.reflect.InvocationTargetException
+import java.util.Optional
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.jdk.CollectionConverters._
+import scala.jdk.OptionConverters._
+import scala.util.control.NonFatal
+
+import akka.annotation.InternalApi
+import akka.javasdk.JsonMigration
+import akka.javasdk.annotations.Migration
+
+/**
+ * The migration setup for a class annotated with `@Migration`, resolved once per class so that decoding versioned
+ * payloads does not need any reflection.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] final class JsonMigrationPlan private (val migration: JsonMigration) {
+
+  val currentVersion: Int = migration.currentVersion()
+  val supportedForwardVersion: Int = migration.supportedForwardVersion()
+  val supportedClassNames: List[String] = migration.supportedClassNames().asScala.toList
+
+  // there is only a handful of distinct type urls per class (one per version and previous class name)
+  private val versionsByTypeUrl = new ConcurrentHashMap[String, Integer]()
+  private val parseVersion: java.util.function.Function[String, Integer] = typeUrl =>
+    JsonMigrationPlan.parseVersion(typeUrl)
+
+  /** The schema version encoded in the given type url, 0 if there is none */
+  def versionOf(typeUrl: String): Int = versionsByTypeUrl.computeIfAbsent(typeUrl, parseVersion)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object JsonMigrationPlan {
+
+  private val plans = new ClassValue[Option[JsonMigrationPlan]] {
+    override def computeValue(clz: Class[_]): Option[JsonMigrationPlan] =
+      Option(clz.getAnnotation(classOf[Migration])).map { annotation =>
+        val migration =
+          try annotation.value().getConstructor().newInstance()
+          catch {
+            case e: InvocationTargetException if e.getCause != null =>
+              throw new IllegalStateException(
+                s"Could not create migration [${annotation.value().getName}] for [${clz.getName}]",
+                e.getCause)
+            case NonFatal(e) =>
+              throw new IllegalStateException(
+                s"Could not create migration [${annotation.value().getName}] for [${clz.getName}], " +
+                "it must have a public no-arg constructor",
+                e)
+          }
+        new JsonMigrationPlan(migration)
+      }
+  }
+
+  def lookup(clz: Class[_]): Option[JsonMigrationPlan] = plans.get(clz)
+
+  /** Java API */
+  def forClass(clz: Class[_]): Optional[JsonMigrationPlan] = plans.get(clz).toJava
+
+  private def parseVersion(typeUrl: String): Int = {
+    val versionSeparatorIndex = typeUrl.lastIndexOf('#')
+    if (versionSeparatorIndex > 0) Integer.parseInt(typeUrl.substring(versionSeparatorIndex + 1))
+    else 0
+  }
+}
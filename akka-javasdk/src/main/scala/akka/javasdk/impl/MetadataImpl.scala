@@ -9,6 +9,7 @@ import java.nio.ByteBuffer
 import java.time.ZonedDateTime
 import java.time.format.DateTimeFormatter
 import java.util
+import java.util.Locale
 import java.util.Objects
 import java.util.Optional
 
@@ -32,17 +33,24 @@ import kalix.protocol.component.MetadataEntry
  * INTERNAL API
  */
 @InternalApi
-private[javasdk] class MetadataImpl private (val entries: Seq[MetadataEntry]) extends Metadata with CloudEvent {
+private[javasdk] class MetadataImpl private (val entries: Vector[MetadataEntry]) extends Metadata with CloudEvent {
 
-  override def has(key: String): Boolean = entries.exists(_.key.equalsIgnoreCase(key))
+  // entries by lower case key, in their original order, only built once a lookup by key is done, so metadata that is
+  // just passed along is never indexed
+  private lazy val entriesByKey: Map[String, Seq[MetadataEntry]] =
+    entries.groupBy(entry => MetadataImpl.normalizeKey(entry.key))
+
+  private def entriesFor(key: String): Seq[MetadataEntry] =
+    entriesByKey.getOrElse(MetadataImpl.normalizeKey(key), Nil)
+
+  override def has(key: String): Boolean = entriesByKey.contains(MetadataImpl.normalizeKey(key))
 
   override def get(key: String): Optional[String] =
     getScala(key).toJava
 
   private[akka] def getScala(key: String): Option[String] =
-    entries.collectFirst {
-      case MetadataEntry(k, MetadataEntry.Value.StringValue(value), _) if key.equalsIgnoreCase(k) =>
-        value
+    entriesFor(key).collectFirst { case MetadataEntry(_, MetadataEntry.Value.StringValue(value), _) =>
+      value
     }
 
   def withTracing(spanContext: SpanContext): Metadata = {
@@ -64,27 +72,24 @@ private[javasdk] class MetadataImpl private (val entries: Seq[MetadataEntry]) ex
     getAllScala(key).asJava
 
   private[akka] def getAllScala(key: String): Seq[String] =
-    entries.collect {
-      case MetadataEntry(k, MetadataEntry.Value.StringValue(value), _) if key.equalsIgnoreCase(k) =>
-        value
+    entriesFor(key).collect { case MetadataEntry(_, MetadataEntry.Value.StringValue(value), _) =>
+      value
     }
 
   override def getBinary(key: String): Optional[ByteBuffer] =
     getBinaryScala(key).toJava
 
   private[akka] def getBinaryScala(key: String): Option[ByteBuffer] =
-    entries.collectFirst {
-      case MetadataEntry(k, MetadataEntry.Value.BytesValue(value), _) if key.equalsIgnoreCase(k) =>
-        value.asReadOnlyByteBuffer()
+    entriesFor(key).collectFirst { case MetadataEntry(_, MetadataEntry.Value.BytesValue(value), _) =>
+      value.asReadOnlyByteBuffer()
     }
 
   override def getBinaryAll(key: String): util.List[ByteBuffer] =
     getBinaryAllScala(key).asJava
 
   private[akka] def getBinaryAllScala(key: String): Seq[ByteBuffer] =
-    entries.collect {
-      case MetadataEntry(k, MetadataEntry.Value.BytesValue(value), _) if key.equalsIgnoreCase(k) =>
-        value.asReadOnlyByteBuffer()
+    entriesFor(key).collect { case MetadataEntry(_, MetadataEntry.Value.BytesValue(value), _) =>
+      value.asReadOnlyByteBuffer()
     }
 
   override def getAllKeys: util.List[String] = getAllKeysScala.asJava
@@ -93,28 +98,29 @@ private[javasdk] class MetadataImpl private (val entries: Seq[MetadataEntry]) ex
   override def set(key: String, value: String): MetadataImpl = {
     Objects.requireNonNull(key, "Key must not be null")
     Objects.requireNonNull(value, "Value must not be null")
-    MetadataImpl.of(removeKey(key) :+ MetadataEntry(key, MetadataEntry.Value.StringValue(value)))
+    withEntry(removeKey(key), MetadataEntry(key, MetadataEntry.Value.StringValue(value)))
   }
 
   override def setBinary(key: String, value: ByteBuffer): MetadataImpl = {
     Objects.requireNonNull(key, "Key must not be null")
     Objects.requireNonNull(value, "Value must not be null")
-    MetadataImpl.of(removeKey(key) :+ MetadataEntry(key, MetadataEntry.Value.BytesValue(ByteString.copyFrom(value))))
+    withEntry(removeKey(key), MetadataEntry(key, MetadataEntry.Value.BytesValue(ByteString.copyFrom(value))))
   }
 
   override def add(key: String, value: String): MetadataImpl = {
     Objects.requireNonNull(key, "Key must not be null")
     Objects.requireNonNull(value, "Value must not be null")
-    MetadataImpl.of(entries :+ MetadataEntry(key, MetadataEntry.Value.StringValue(value)))
+    withEntry(entries, MetadataEntry(key, MetadataEntry.Value.StringValue(value)))
   }
 
   override def addBinary(key: String, value: ByteBuffer): MetadataImpl = {
     Objects.requireNonNull(key, "Key must not be null")
     Objects.requireNonNull(value, "Value must not be null")
-    MetadataImpl.of(entries :+ MetadataEntry(key, MetadataEntry.Value.BytesValue(ByteString.copyFrom(value))))
+    withEntry(entries, MetadataEntry(key, MetadataEntry.Value.BytesValue(ByteString.copyFrom(value))))
   }
 
-  override def remove(key: String): MetadataImpl = MetadataImpl.of(removeKey(key))
+  override def remove(key: String): MetadataImpl =
+    if (has(key)) MetadataImpl.of(removeKey(key)) else this
 
   override def clear(): MetadataImpl = MetadataImpl.Empty
 
@@ -131,7 +137,13 @@ private[javasdk] class MetadataImpl private (val entries: Seq[MetadataEntry]) ex
         override def isBinary: Boolean = entry.value.isBytesValue
       }).asJava
 
-  private def removeKey(key: String) = entries.filterNot(_.key.equalsIgnoreCase(key))
+  private def removeKey(key: String): Vector[MetadataEntry] =
+    if (has(key)) entries.filterNot(_.key.equalsIgnoreCase(key)) else entries
+
+  // appending to the vector shares its structure with the existing entries, so metadata built up one entry at a time
+  // does not copy all previous entries for each one, and only the new entry needs its key format checked
+  private def withEntry(existing: Vector[MetadataEntry], entry: MetadataEntry): MetadataImpl =
+    new MetadataImpl(existing :+ MetadataImpl.toDefaultKeyFormat(entry))
 
   def isCloudEvent: Boolean = MetadataImpl.CeRequired.forall(h => has(h))
 
@@ -150,11 +162,7 @@ private[javasdk] class MetadataImpl private (val entries: Seq[MetadataEntry]) ex
         MetadataEntry(MetadataImpl.CeType, MetadataEntry.Value.StringValue(`type`))))
 
   private def getRequiredCloudEventField(key: String) =
-    entries
-      .collectFirst {
-        case MetadataEntry(k, MetadataEntry.Value.StringValue(value), _) if key.equalsIgnoreCase(k) =>
-          value
-      }
+    getScala(key)
       .getOrElse {
         throw new IllegalStateException(s"Metadata is not a CloudEvent because it does not have required field $key")
       }
@@ -206,17 +214,19 @@ private[javasdk] class MetadataImpl private (val entries: Seq[MetadataEntry]) ex
 
   override def asMetadata(): Metadata = this
 
-  lazy val traceId: Option[String] = {
-    val otelContext = W3CTraceContextPropagator
-      .getInstance()
-      .extract(OtelContext.current(), asMetadata(), metadataGetter)
-
-    Span.fromContext(otelContext).getSpanContext.getTraceId match {
-      case "00000000000000000000000000000000" =>
-        None // when no traceId returns io.opentelemetry.api.trace.TraceId.INVALID
-      case traceId => Some(traceId)
+  lazy val traceId: Option[String] =
+    if (!has(Telemetry.TRACE_PARENT_KEY)) None // nothing to extract, skip the propagator
+    else {
+      val otelContext = W3CTraceContextPropagator
+        .getInstance()
+        .extract(OtelContext.current(), asMetadata(), metadataGetter)
+
+      Span.fromContext(otelContext).getSpanContext.getTraceId match {
+        case "00000000000000000000000000000000" =>
+          None // when no traceId returns io.opentelemetry.api.trace.TraceId.INVALID
+        case traceId => Some(traceId)
+      }
     }
-  }
 
   override def merge(other: Metadata): Metadata = {
     val otherImpl = other.asInstanceOf[MetadataImpl]
@@ -250,6 +260,8 @@ object MetadataImpl {
 
   val Empty = MetadataImpl.of(Vector.empty)
 
+  private def normalizeKey(key: String): String = key.toLowerCase(Locale.ROOT)
+
   def toProtocol(metadata: Metadata): Option[component.Metadata] =
     metadata match {
       case impl: MetadataImpl if impl.entries.nonEmpty =>
@@ -259,16 +271,21 @@ object MetadataImpl {
         throw new RuntimeException(s"Unknown metadata implementation: ${other.getClass}, cannot send")
     }
 
+  // is incoming ce key in one of the alternative formats?
+  // if so, convert key to our internal default key format
+  private def toDefaultKeyFormat(entry: MetadataEntry): MetadataEntry =
+    alternativeKeyFormats.get(entry.key) match {
+      case Some(defaultKey) => MetadataEntry(defaultKey, entry.value)
+      case _                => entry
+    }
+
   def of(entries: Seq[MetadataEntry]): MetadataImpl = {
+    // protocol entries already are a vector, which toVector returns as is
+    val vector = entries.toVector
+    // only copy the entries if there is anything to transform
     val transformedEntries =
-      entries.map { entry =>
-        // is incoming ce key in one of the alternative formats?
-        // if so, convert key to our internal default key format
-        alternativeKeyFormats.get(entry.key) match {
-          case Some(defaultKey) => MetadataEntry(defaultKey, entry.value)
-          case _                => entry
-        }
-      }
+      if (!vector.exists(entry => alternativeKeyFormats.contains(entry.key))) vector
+      else vector.map(toDefaultKeyFormat)
 
     new MetadataImpl(transformedEntries)
   }
@@ -19,6 +19,7 @@ import akka.annotation.InternalApi
 import akka.http.scaladsl.model.headers.RawHeader
 import akka.javasdk.BuildInfo
 import akka.javasdk.DependencyProvider
+import akka.javasdk.JsonSupport
 import akka.javasdk.Principals
 import akka.javasdk.ServiceSetup
 import akka.javasdk.annotations.ComponentId
@@ -46,6 +47,7 @@ import akka.javasdk.impl.reflection.Reflect
 import akka.javasdk.impl.reflection.Reflect.Syntax.AnnotatedElementOps
 import akka.javasdk.impl.timedaction.TimedActionService
 import akka.javasdk.impl.timer.TimerSchedulerImpl
+import akka.javasdk.impl.view.ViewQueryCache
 import akka.javasdk.impl.view.ViewService
 import akka.javasdk.impl.view.ViewsImpl
 import akka.javasdk.impl.workflow.WorkflowImpl
@@ -61,8 +63,11 @@ import akka.javasdk.JwtClaims
 import akka.javasdk.http.AbstractHttpEndpoint
 import akka.javasdk.Tracing
 import akka.javasdk.impl.http.JwtClaimsImpl
+import akka.javasdk.impl.telemetry.SdkMetrics
+import akka.javasdk.impl.telemetry.SpanSampler
 import akka.javasdk.impl.telemetry.SpanTracingImpl
 import akka.javasdk.impl.telemetry.TraceInstrumentation
+import akka.javasdk.impl.telemetry.ViewCategory
 import akka.runtime.sdk.spi.ComponentClients
 import akka.runtime.sdk.spi.HttpEndpointConstructionContext
 import akka.runtime.sdk.spi.HttpEndpointDescriptor
@@ -77,6 +82,7 @@ import akka.stream.Materializer
 import com.google.protobuf.Descriptors
 import com.typesafe.config.Config
 import com.typesafe.config.ConfigFactory
+import io.opentelemetry.api.GlobalOpenTelemetry
 import io.opentelemetry.api.trace.Span
 import io.opentelemetry.api.trace.Tracer
 import io.opentelemetry.context.{ Context => OtelContext }
@@ -265,16 +271,27 @@ private final class Sdk(
     startedPromise: Promise[StartupContext],
     serviceNameOverride: Option[String]) {
   private val logger = LoggerFactory.getLogger(getClass)
-  private val messageCodec = new JsonMessageCodec
   private val ComponentLocator.LocatedClasses(componentClasses, maybeServiceClass) =
     ComponentLocator.locateUserComponents(system)
   @volatile private var dependencyProviderOpt: Option[DependencyProvider] = dependencyProviderOverride
 
   private val applicationConfig = ApplicationConfig(system).getConfig
   private val sdkSettings = Settings(applicationConfig.getConfig("akka.javasdk"))
+  private val messageCodec = new JsonMessageCodec(sdkSettings.cborTypes)
 
   private val sdkTracerFactory = () => tracerFactory(TraceInstrumentation.InstrumentationScopeName)
 
+  // the runtime only provides a tracer factory, metrics are recorded through the globally registered OpenTelemetry
+  private val sdkMetrics = SdkMetrics(
+    sdkSettings.metricsEnabled,
+    () => GlobalOpenTelemetry.getMeter(TraceInstrumentation.InstrumentationScopeName))
+
+  // shared by the component clients and the views of the service, so that view updates invalidate cached query results
+  private val viewQueryCache =
+    new ViewQueryCache.Enabled(componentId => sdkMetrics.forComponent(ViewCategory, componentId))
+
+  private val spanSampler = SpanSampler(sdkSettings.tracingSamplingRatio, sdkSettings.tracingMaxSpansPerSecond)
+
   private val httpClientProvider = new HttpClientProviderImpl(
     system,
     None,
@@ -292,7 +309,11 @@ private final class Sdk(
 
   // validate service classes before instantiating
   private val validation = componentClasses.foldLeft(Valid: Validation) { case (validations, cls) =>
-    validations ++ Validations.validate(cls)
+    validations ++ Validations.validate(cls) ++
+    Validations.validateStateCompression(
+      cls,
+      componentId => sdkSettings.keyValueStateCompressionFor(componentId) != StateCompression.Disabled) ++
+    Validations.validateCborState(cls, messageCodec.storesAsCbor)
   }
   validation match { // if any invalid component, log and throw
     case Valid => ()
@@ -387,7 +408,10 @@ private final class Sdk(
           actionAndConsumerServices,
           runtimeComponentClients.timerClient,
           sdkExecutionContext,
-          sdkTracerFactory))
+          sdkTracerFactory,
+          sdkMetrics,
+          spanSampler,
+          sdkSettings.consumerOrderBySubject))
     }
 
     services.groupBy(_._2.getClass).foreach {
@@ -400,13 +424,22 @@ private final class Sdk(
             eventSourcedServices,
             sdkSettings,
             sdkDispatcherName,
-            sdkTracerFactory)
+            sdkTracerFactory,
+            sdkMetrics,
+            spanSampler)
         eventSourcedEntitiesEndpoint = Some(eventSourcedImpl)
 
       case (serviceClass, entityServices: Map[String, KeyValueEntityService[_, _]] @unchecked)
           if serviceClass == classOf[KeyValueEntityService[_, _]] =>
         valueEntitiesEndpoint = Some(
-          new KeyValueEntitiesImpl(classicSystem, entityServices, sdkSettings, sdkDispatcherName, sdkTracerFactory))
+          new KeyValueEntitiesImpl(
+            classicSystem,
+            entityServices,
+            sdkSettings,
+            sdkDispatcherName,
+            sdkTracerFactory,
+            sdkMetrics,
+            spanSampler))
 
       case (serviceClass, workflowServices: Map[String, WorkflowService[_, _]] @unchecked)
           if serviceClass == classOf[WorkflowService[_, _]] =>
@@ -416,7 +449,8 @@ private final class Sdk(
             runtimeComponentClients.timerClient,
             sdkExecutionContext,
             sdkDispatcherName,
-            sdkTracerFactory))
+            sdkTracerFactory,
+            sdkMetrics))
 
       case (serviceClass, _: Map[String, TimedActionService[_]] @unchecked)
           if serviceClass == classOf[TimedActionService[_]] =>
@@ -428,7 +462,7 @@ private final class Sdk(
 
       case (serviceClass, viewServices: Map[String, ViewService[_]] @unchecked)
           if serviceClass == classOf[ViewService[_]] =>
-        viewsEndpoint = Some(new ViewsImpl(viewServices, sdkDispatcherName))
+        viewsEndpoint = Some(new ViewsImpl(viewServices, sdkDispatcherName, sdkMetrics, viewQueryCache))
 
       case (serviceClass, _) =>
         sys.error(s"Unknown service type: $serviceClass")
@@ -479,6 +513,8 @@ private final class Sdk(
           case Some(setup) =>
             logger.debug("Running onStart lifecycle hook")
             setup.onStartup()
+            // the object mapper may have been reconfigured by the user, readers and writers must be re-created
+            JsonSupport.getCodecRegistry.refresh()
             Future.successful(Done)
         }
       }
@@ -495,10 +531,18 @@ private final class Sdk(
   }
 
   private def timedActionService[A <: TimedAction](clz: Class[A]): TimedActionService[A] =
-    new TimedActionService[A](clz, messageCodec, () => wiredInstance(clz)(sideEffectingComponentInjects(None)))
+    new TimedActionService[A](
+      clz,
+      messageCodec,
+      () => wiredInstance(clz)(sideEffectingComponentInjects(None)),
+      sdkSettings.reuseTimedActionInstances)
 
   private def consumerService[A <: Consumer](clz: Class[A]): ConsumerService[A] =
-    new ConsumerService[A](clz, messageCodec, () => wiredInstance(clz)(sideEffectingComponentInjects(None)))
+    new ConsumerService[A](
+      clz,
+      messageCodec,
+      () => wiredInstance(clz)(sideEffectingComponentInjects(None)),
+      sdkSettings.reuseConsumerInstances)
 
   private def workflowService[S, W <: Workflow[S]](clz: Class[W]): WorkflowService[S, W] = {
     new WorkflowService[S, W](
@@ -559,7 +603,8 @@ private final class Sdk(
       clz,
       messageCodec,
       // remember to update component type API doc and docs if changing the set of injectables
-      wiredInstance(_)(PartialFunction.empty))
+      wiredInstance(_)(PartialFunction.empty),
+      sdkSettings.reuseViewTableUpdaters)
 
   private def httpEndpointFactory[E](httpEndpointClass: Class[E]): HttpEndpointConstructionContext => E = {
     (context: HttpEndpointConstructionContext) =>
@@ -652,7 +697,7 @@ private final class Sdk(
   }
 
   private def componentClient(openTelemetrySpan: Option[Span]): ComponentClient = {
-    ComponentClientImpl(runtimeComponentClients, openTelemetrySpan)(sdkExecutionContext)
+    ComponentClientImpl(runtimeComponentClients, openTelemetrySpan, viewQueryCache)(sdkExecutionContext)
   }
 
   private def timerScheduler(openTelemetrySpan: Option[Span]): TimerScheduler = {
@@ -27,4 +27,6 @@ private[akka] abstract class Service(
   val componentDescriptor = ComponentDescriptor.descriptorFor(componentClass, messageCodec)
   val descriptor: Descriptors.ServiceDescriptor = componentDescriptor.serviceDescriptor
   val additionalDescriptors: Array[Descriptors.FileDescriptor] = Array(componentDescriptor.fileDescriptor)
+  // generated by the annotation processor when enabled, preferred over reflective invocation of command handlers
+  val commandDispatcher: Option[ComponentCommandDispatcher[AnyRef]] = ComponentCommandDispatchers.lookup(componentClass)
 }
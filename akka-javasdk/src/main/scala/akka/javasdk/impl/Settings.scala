@@ -6,8 +6,11 @@ package akka.javasdk.impl
 
 import java.time.Duration
 
+import scala.jdk.CollectionConverters._
+
 import akka.annotation.InternalApi
 import Settings.DevModeSettings
+import akka.javasdk.impl.eventsourcedentity.SnapshotPolicy
 import com.typesafe.config.Config
 
 /**
@@ -17,10 +20,28 @@ import com.typesafe.config.Config
 private[impl] object Settings {
 
   def apply(sdkConfig: Config): Settings = {
+    val (snapshotPolicy, snapshotPolicyPerEntity) =
+      SnapshotPolicy.fromConfig(sdkConfig.getConfig("event-sourced-entity"))
     Settings(
-      snapshotEvery = sdkConfig.getInt("event-sourced-entity.snapshot-every"),
+      snapshotPolicy = snapshotPolicy,
+      snapshotPolicyPerEntity = snapshotPolicyPerEntity,
+      replayDecodeParallelism = sdkConfig.getInt("event-sourced-entity.replay-decode-parallelism"),
+      snapshotCompression =
+        StateCompression.fromConfig(sdkConfig.getConfig("event-sourced-entity.snapshot-compression")),
       cleanupDeletedEventSourcedEntityAfter = sdkConfig.getDuration("event-sourced-entity.cleanup-deleted-after"),
       cleanupDeletedKeyValueEntityAfter = sdkConfig.getDuration("key-value-entity.cleanup-deleted-after"),
+      keyValueStateCompression = StateCompression.fromConfig(sdkConfig.getConfig("key-value-entity.state-compression")),
+      keyValueStateCompressionPerEntity = StateCompression.perEntityFromConfig(
+        sdkConfig.getConfig("key-value-entity.state-compression"),
+        sdkConfig.getConfig("key-value-entity.state-compression-per-entity")),
+      reuseViewTableUpdaters = sdkConfig.getBoolean("view.reuse-table-updaters"),
+      reuseConsumerInstances = sdkConfig.getBoolean("consumer.reuse-instances"),
+      consumerOrderBySubject = sdkConfig.getBoolean("consumer.order-by-subject"),
+      reuseTimedActionInstances = sdkConfig.getBoolean("timed-action.reuse-instances"),
+      metricsEnabled = sdkConfig.getBoolean("telemetry.metrics.enabled"),
+      tracingSamplingRatio = sdkConfig.getDouble("telemetry.tracing.sampling-ratio"),
+      tracingMaxSpansPerSecond = sdkConfig.getInt("telemetry.tracing.max-spans-per-second"),
+      cborTypes = sdkConfig.getStringList("serialization.cbor-types").asScala.toSet,
       devModeSettings = Option.when(sdkConfig.getBoolean("dev-mode.enabled"))(
         DevModeSettings(
           serviceName = sdkConfig.getString("dev-mode.service-name"),
@@ -35,7 +56,24 @@ private[impl] object Settings {
  */
 @InternalApi
 private[impl] final case class Settings(
-    snapshotEvery: Int,
+    snapshotPolicy: SnapshotPolicy,
+    snapshotPolicyPerEntity: Map[String, SnapshotPolicy],
+    replayDecodeParallelism: Int,
+    snapshotCompression: StateCompression,
     cleanupDeletedEventSourcedEntityAfter: Duration,
     cleanupDeletedKeyValueEntityAfter: Duration,
-    devModeSettings: Option[DevModeSettings])
+    keyValueStateCompression: StateCompression,
+    keyValueStateCompressionPerEntity: Map[String, StateCompression],
+    reuseViewTableUpdaters: Boolean,
+    reuseConsumerInstances: Boolean,
+    consumerOrderBySubject: Boolean,
+    reuseTimedActionInstances: Boolean,
+    metricsEnabled: Boolean,
+    tracingSamplingRatio: Double,
+    tracingMaxSpansPerSecond: Int,
+    cborTypes: Set[String],
+    devModeSettings: Option[DevModeSettings]) {
+
+  def keyValueStateCompressionFor(componentId: String): StateCompression =
+    keyValueStateCompressionPerEntity.getOrElse(componentId, keyValueStateCompression)
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl
+
+import java.util.zip.Deflater
+import java.util.zip.InflaterInputStream
+
+import scala.jdk.CollectionConverters._
+
+import akka.annotation.InternalApi
+import com.google.protobuf.ByteString
+import com.google.protobuf.CodedOutputStream
+import com.google.protobuf.UnsafeByteOperations
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigUtil
+
+/**
+ * Compresses JSON encoded entity state that is larger than a threshold. Compressed state keeps the JSON type name, with
+ * the [[AnySupport.DeflatedJsonTypeUrlPrefix]] type url prefix, and is transparently inflated when decoded, so state
+ * written before compression was enabled, or after it was disabled, can always be read.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[impl] sealed trait StateCompression {
+
+  /** @return the state compressed if it is JSON and at least the threshold size, otherwise the state as is */
+  def compress(state: ScalaPbAny): ScalaPbAny
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[impl] object StateCompression {
+
+  object Disabled extends StateCompression {
+    override def compress(state: ScalaPbAny): ScalaPbAny = state
+  }
+
+  final case class Deflate(thresholdBytes: Long) extends StateCompression {
+    override def compress(state: ScalaPbAny): ScalaPbAny = {
+      val typeUrl = state.typeUrl
+      // CBOR is not compressed, the type url can only mark one of them
+      if (state.value.size() >= thresholdBytes && AnySupport.isJsonTypeUrl(typeUrl) &&
+        !AnySupport.isDeflatedJsonTypeUrl(typeUrl) && !AnySupport.isCborTypeUrl(typeUrl)) {
+        val json = AnySupport.decodePrimitiveBytesInPlace(state.value)
+        ScalaPbAny(
+          AnySupport.DeflatedJsonTypeUrlPrefix + AnySupport.stripJsonTypeUrlPrefix(typeUrl),
+          AnySupport.encodePrimitiveBytes(deflate(json)))
+      } else state
+    }
+  }
+
+  /**
+   * @param config
+   *   the compression config of an entity type, with `enabled` and `threshold`
+   */
+  def fromConfig(config: Config): StateCompression =
+    if (config.getBoolean("enabled")) Deflate(config.getBytes("threshold"))
+    else Disabled
+
+  /**
+   * @param config
+   *   the compression config of an entity type
+   * @param perEntityConfig
+   *   overrides of the compression config for individual entities, by component id
+   * @return
+   *   the compression of the individual entities, by component id
+   */
+  def perEntityFromConfig(config: Config, perEntityConfig: Config): Map[String, StateCompression] =
+    perEntityConfig.root().keySet().asScala.map { componentId =>
+      // quoted so that component ids containing dots are taken as one key
+      componentId -> fromConfig(perEntityConfig.getConfig(ConfigUtil.joinPath(componentId)).withFallback(config))
+    }.toMap
+
+  /**
+   * @return
+   *   the size of the state as it was before it was compressed, or the size of the state as is if it is not compressed.
+   *   Compressed state is inflated to count its size, without keeping the inflated bytes.
+   */
+  def uncompressedSize(state: ScalaPbAny): Long =
+    if (!AnySupport.isDeflatedJsonTypeUrl(state.typeUrl)) state.value.size()
+    else {
+      val jsonLength = inflatedLength(AnySupport.decodePrimitiveBytesInPlace(state.value))
+      // the JSON wrapped as a bytes primitive, the same as the state that was compressed
+      CodedOutputStream.computeUInt32SizeNoTag(AnySupport.BytesPrimitive.tag) +
+      CodedOutputStream.computeUInt32SizeNoTag(jsonLength) + jsonLength
+    }
+
+  private def deflate(bytes: ByteString): ByteString = {
+    val deflater = new Deflater(Deflater.BEST_SPEED)
+    try {
+      deflater.setInput(bytes.asReadOnlyByteBuffer())
+      deflater.finish()
+      val output = ByteString.newOutput(math.max(bytes.size() / 4, 64))
+      val buffer = new Array[Byte](8192)
+      while (!deflater.finished()) {
+        val length = deflater.deflate(buffer)
+        output.write(buffer, 0, length)
+      }
+      output.toByteString
+    } finally deflater.end()
+  }
+
+  private def inflatedLength(bytes: ByteString): Int = {
+    val input = new InflaterInputStream(bytes.newInput())
+    try {
+      val buffer = new Array[Byte](8192)
+      var length = 0
+      var read = input.read(buffer)
+      while (read >= 0) {
+        length += read
+        read = input.read(buffer)
+      }
+      length
+    } finally input.close()
+  }
+
+  private[akka] def inflate(bytes: ByteString): ByteString = {
+    val input = new InflaterInputStream(bytes.newInput())
+    try UnsafeByteOperations.unsafeWrap(input.readAllBytes())
+    finally input.close()
+  }
+}
@@ -10,6 +10,7 @@ import java.lang.reflect.ParameterizedType
 import scala.reflect.ClassTag
 import akka.annotation.InternalApi
 import akka.javasdk.annotations.ComponentId
+import akka.javasdk.annotations.Consume
 import akka.javasdk.annotations.Consume.FromKeyValueEntity
 import akka.javasdk.annotations.Produce.ServiceStream
 import akka.javasdk.annotations.Query
@@ -125,6 +126,52 @@ private[javasdk] object Validations {
     validateValueEntity(component) ++
     validateWorkflow(component)
 
+  /**
+   * A table updater without update handlers for a key value entity has the runtime store the entity state as is, which
+   * can not be indexed if the state is compressed.
+   *
+   * @param stateCompressed
+   *   if state compression is enabled for the key value entity with the component id
+   */
+  def validateStateCompression(component: Class[_], stateCompressed: String => Boolean): Validation =
+    tableUpdatersStoringStateAsIs(component).foldLeft(Valid: Validation) { case (validation, (tableUpdater, entity)) =>
+      val entityId = Option(entity.getAnnotation(classOf[ComponentId])).map(_.value())
+      validation ++ when(entityId.exists(stateCompressed)) {
+        Validation(errorMessage(
+          tableUpdater,
+          s"State compression is enabled for key value entity [${entityId.get}], which this table updater " +
+          "stores as is. Disable akka.javasdk.key-value-entity.state-compression for the entity, or add an " +
+          "update handler to the table updater."))
+      }
+    }
+
+  /**
+   * A table updater without update handlers stores the key value entity state as is, which the view can not index if
+   * the state is stored as CBOR.
+   */
+  def validateCborState(component: Class[_], storedAsCbor: Class[_] => Boolean): Validation =
+    tableUpdatersStoringStateAsIs(component).foldLeft(Valid: Validation) { case (validation, (tableUpdater, entity)) =>
+      val stateType = Reflect.keyValueEntityStateType(entity)
+      validation ++ when(storedAsCbor(stateType)) {
+        Validation(errorMessage(
+          tableUpdater,
+          s"The state type [${stateType.getName}] of key value entity [${entity.getName}], which this table " +
+          "updater stores as is, is stored as CBOR. Remove it from akka.javasdk.serialization.cbor-types, or add an " +
+          "update handler to the table updater."))
+      }
+    }
+
+  // the table updaters of a view that store the state of a key value entity as is, with the entity class
+  private def tableUpdatersStoringStateAsIs(component: Class[_]): Seq[(Class[_], Class[_])] =
+    if (!Reflect.isView(component)) Nil
+    else
+      component.getDeclaredClasses.toSeq
+        .filter(clz => Reflect.isViewTableUpdater(clz) && hasValueEntitySubscription(clz))
+        .map(tableUpdater => tableUpdater -> tableUpdater.getAnnotation(classOf[FromKeyValueEntity]).value())
+        .filter { case (tableUpdater, entity) =>
+          Reflect.keyValueEntityStateType(entity) == Reflect.tableTypeForTableUpdater(tableUpdater)
+        }
+
   private def validateEventSourcedEntity(component: Class[_]) =
     when[EventSourcedEntity[_, _]](component) {
       eventSourcedEntityEventMustBeSealed(component) ++
@@ -204,11 +251,69 @@ private[javasdk] object Validations {
     when[Consumer](component) {
       hasConsumeAnnotation(component, "Consumer") ++
       commonSubscriptionValidation(component, hasConsumerOutput) ++
+      consumerBatchHandlerValidations(component) ++
+      consumerDeduplicationValidation(component) ++
       actionValidation(component) ++
       mustHaveValidComponentId(component)
     }
   }
 
+  private def consumerBatchHandlerValidations(component: Class[_]): Validation = {
+    val handlers = component.getMethods.toIndexedSeq.filter(hasConsumerOutput).sorted
+    val batchHandlers = handlers.filter(Reflect.isBatchHandler)
+
+    when(batchHandlers.nonEmpty) {
+      val batchHandlerMustBeOnlyHandler = when(handlers.size > 1) {
+        Validation(errorMessage(
+          component,
+          s"A Consumer with a @Consume.Batch method must not have other handler methods, found [${handlers.map(_.getName).mkString(", ")}]."))
+      }
+
+      val batchHandlerMustNotProduce = when(hasTopicPublication(component)) {
+        Validation(
+          errorMessage(
+            component,
+            "A Consumer with a @Consume.Batch method can not be annotated with @Produce.ToTopic."))
+      }
+
+      val batchHandlerSignatures = batchHandlers.foldLeft(Valid: Validation) { (validation, method) =>
+        val batch = method.getAnnotation(classOf[Consume.Batch])
+        validation ++
+        when(Reflect.batchMessageType(method).isEmpty) {
+          Validation(
+            errorMessage(
+              method,
+              "Method annotated with @Consume.Batch must have a single List<MessageEnvelope<T>> parameter."))
+        } ++
+        when(batch.maxSize() < 1 || batch.maxWaitMillis() < 0) {
+          Validation(
+            errorMessage(
+              method,
+              "@Consume.Batch maxSize must be at least 1 and maxWaitMillis must not be negative."))
+        }
+      }
+
+      batchHandlerMustBeOnlyHandler ++ batchHandlerMustNotProduce ++ batchHandlerSignatures
+    }
+  }
+
+  private def consumerDeduplicationValidation(component: Class[_]): Validation =
+    Option(component.getAnnotation(classOf[Consume.Deduplicate]))
+      .map { deduplicate =>
+        when(deduplicate.maxEntries() < 1) {
+          Validation(errorMessage(component, "@Consume.Deduplicate maxEntries must be at least 1."))
+        } ++
+        // the runtime publishes the reply to the topic after the response, a message remembered as handled
+        // would be ignored when delivered again after a failed publish
+        when(hasTopicPublication(component)) {
+          Validation(
+            errorMessage(
+              component,
+              "A Consumer annotated with @Consume.Deduplicate can not be annotated with @Produce.ToTopic."))
+        }
+      }
+      .getOrElse(Valid)
+
   private def hasConsumeAnnotation(component: Class[_], componentName: String): Validation = {
     when(!hasSubscription(component)) {
       Invalid(errorMessage(component, s"A $componentName must be annotated with `@Consume` annotation."))
@@ -230,6 +335,7 @@ private[javasdk] object Validations {
       viewMustHaveAtLeastOneQueryMethod(component) ++
       validateQueryResultTypes(component) ++
       viewQueriesWithStreamUpdatesMustBeStreaming(component) ++
+      viewQueryCacheValidation(component) ++
       commandHandlerArityShouldBeZeroOrOne(component, hasQueryEffectOutput) ++
       viewMultipleTableUpdatersMustHaveTableAnnotations(tableUpdaters) ++
       tableUpdaters
@@ -338,6 +444,19 @@ private[javasdk] object Validations {
           s"Query methods marked with streamUpdates must return View.QueryStreamEffect<RowType>")))
   }
 
+  private def viewQueryCacheValidation(component: Class[_]): Validation =
+    component.getMethods.toIndexedSeq
+      .flatMap(m => Option(m.getAnnotation(classOf[Query])).filter(_.cacheTtlMillis() != 0).map(m -> _))
+      .foldLeft(Valid: Validation) { case (validation, (method, query)) =>
+        val errors =
+          Seq(
+            Option.when(query.cacheTtlMillis() < 0)("Query cacheTtlMillis must not be negative."),
+            Option.when(query.cacheMaxEntries() < 1)("Query cacheMaxEntries must be at least 1."),
+            Option.when(method.getReturnType != classOf[View.QueryEffect[_]])(
+              "Only query methods returning View.QueryEffect<RowType> can be cached.")).flatten
+        validation ++ Validation(errors.map(errorMessage(method, _)))
+      }
+
   private def viewMultipleTableUpdatersMustHaveTableAnnotations(tableUpdaters: Seq[Class[_]]): Validation =
     if (tableUpdaters.size > 1) {
       tableUpdaters.find(_.getAnnotation(classOf[Table]) eq null) match {
@@ -422,7 +541,7 @@ private[javasdk] object Validations {
         if (!classLevel.ignoreUnknown() && eventType.isSealed) {
           val effectMethodsInputParams: Seq[Class[_]] = methods
             .filter(updateMethodPredicate)
-            .map(_.getParameterTypes.last) //last because it could be a view update methods with 2 params
+            .map(Reflect.consumedType) //last parameter because it could be a view update methods with 2 params
           missingEventHandler(effectMethodsInputParams, eventType, component)
         } else {
           Valid
@@ -19,10 +19,17 @@ import akka.javasdk.impl.ErrorHandling.BadRequestException
 import akka.javasdk.impl.MessageCodec
 import akka.javasdk.impl.MetadataImpl
 import akka.javasdk.impl.Service
+import akka.javasdk.impl.consumer.ConsumerBatcher
 import akka.javasdk.impl.consumer.ConsumerService
+import akka.javasdk.impl.consumer.SubjectOrdering
 import akka.javasdk.impl.consumer.MessageContextImpl
 import akka.javasdk.impl.telemetry.ActionCategory
+import akka.javasdk.impl.telemetry.ComponentMetrics
+import akka.javasdk.impl.telemetry.ComponentOperation
+import akka.javasdk.impl.telemetry.ComponentOperationEvent
 import akka.javasdk.impl.telemetry.ConsumerCategory
+import akka.javasdk.impl.telemetry.SdkMetrics
+import akka.javasdk.impl.telemetry.SpanSampler
 import akka.javasdk.impl.telemetry.Telemetry
 import akka.javasdk.impl.telemetry.TraceInstrumentation
 import akka.javasdk.impl.telemetry.SpanTracingImpl
@@ -47,6 +54,9 @@ import org.slf4j.MDC
 
 import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
+import scala.concurrent.duration._
+import scala.util.Success
+import scala.util.Try
 import scala.util.control.NonFatal
 
 /**
@@ -97,7 +107,10 @@ private[akka] final class ActionsImpl(
     services: Map[String, Service],
     timerClient: TimerClient,
     sdkExecutionContext: ExecutionContext,
-    tracerFactory: () => Tracer)
+    tracerFactory: () => Tracer,
+    sdkMetrics: SdkMetrics = SdkMetrics.Disabled,
+    spanSampler: SpanSampler = SpanSampler.AlwaysOn,
+    consumerOrderBySubject: Boolean = false)
     extends Actions {
 
   import ActionsImpl._
@@ -108,11 +121,39 @@ private[akka] final class ActionsImpl(
   private val telemetries: Map[String, TraceInstrumentation] =
     services.values.map {
       case s: TimedActionService[_] =>
-        (s.componentId, new TraceInstrumentation(s.componentId, ActionCategory, tracerFactory))
+        (s.componentId, new TraceInstrumentation(s.componentId, ActionCategory, tracerFactory, spanSampler))
       case s: ConsumerService[_] =>
-        (s.componentId, new TraceInstrumentation(s.componentId, ConsumerCategory, tracerFactory))
+        (s.componentId, new TraceInstrumentation(s.componentId, ConsumerCategory, tracerFactory, spanSampler))
+    }.toMap
+
+  private val metrics: Map[String, ComponentMetrics] =
+    services.values.map {
+      case s: TimedActionService[_] => (s.componentId, sdkMetrics.forComponent(ActionCategory, s.componentId))
+      case s: ConsumerService[_]    => (s.componentId, sdkMetrics.forComponent(ConsumerCategory, s.componentId))
     }.toMap
 
+  // consumers with a batch handler collect the messages delivered while a batch is handled into the next batch
+  private val consumerBatchers: Map[String, ConsumerBatcher[(ActionCommand, MessageContext), ActionResponse]] =
+    services.flatMap {
+      case (serviceName, service: ConsumerService[_]) =>
+        service.batchSettings.map { batch =>
+          serviceName -> new ConsumerBatcher[(ActionCommand, MessageContext), ActionResponse](
+            batch.maxSize(),
+            batch.maxWaitMillis().millis,
+            system.scheduler,
+            handleConsumerBatch(service, _))
+        }
+      case _ => None
+    }
+
+  // messages of other consumers are handled in order for the same subject, concurrently for different subjects
+  private val consumerSubjectOrderings: Map[String, SubjectOrdering] =
+    if (consumerOrderBySubject)
+      services.collect { case (serviceName, service: ConsumerService[_]) if service.batchSettings.isEmpty =>
+        serviceName -> new SubjectOrdering
+      }
+    else Map.empty
+
   private def effectToResponse(
       service: TimedActionService[_],
       command: ActionCommand,
@@ -169,6 +210,12 @@ private[akka] final class ActionsImpl(
   override def handleUnary(in: ActionCommand): Future[ActionResponse] =
     services.get(in.serviceName) match {
       case Some(service: TimedActionService[_]) =>
+        val componentMetrics = metrics(service.componentId)
+        val startTime = componentMetrics.startTimer()
+        val jfrEvent = new ComponentOperationEvent
+        jfrEvent.begin()
+        val payloadBytes = in.payload.fold(0)(_.value.size())
+        componentMetrics.recordPayloadSize(ComponentOperation.Command, payloadBytes)
         val span = telemetries(service.componentId).buildSpan(service, in)
 
         span.foreach(s => MDC.put(Telemetry.TRACE_ID, s.getSpanContext.getTraceId))
@@ -178,23 +225,34 @@ private[akka] final class ActionsImpl(
               createMessageContext(in, service.messageCodec, span, service.componentId)
             val decodedPayload = service.messageCodec.decodeMessage(
               in.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
-            val effect = service
-              .createRouter()
-              .handleUnary(in.name, CommandEnvelope.of(decodedPayload, messageContext.metadata()), messageContext)
-            effectToResponse(service, in, effect, service.messageCodec)
+            val router = service.routerPool.acquire()
+            val effect =
+              router.handleUnary(in.name, CommandEnvelope.of(decodedPayload, messageContext.metadata()), messageContext)
+            effectToResponse(service, in, effect, service.messageCodec).andThen { case Success(_) =>
+              service.routerPool.release(router)
+            }
           } catch {
             case NonFatal(ex) =>
               // command handler threw an "unexpected" error
               span.foreach(_.end())
               Future.successful(handleUnexpectedException(service, in, ex))
           } finally {
-            MDC.remove(Telemetry.TRACE_ID)
+            if (span.isDefined) MDC.remove(Telemetry.TRACE_ID)
           }
-        fut.andThen { case _ =>
+        fut.andThen { case result =>
           span.foreach(_.end())
+          recordMetrics(componentMetrics, ComponentOperation.Command, startTime, result)
+          if (jfrEvent.isEnabled)
+            jfrEvent.complete(service.componentId, ComponentOperation.Command, in.name, subjectOf(in), payloadBytes)
         }
 
       case Some(service: ConsumerService[_]) =>
+        val componentMetrics = metrics(service.componentId)
+        val startTime = componentMetrics.startTimer()
+        val jfrEvent = new ComponentOperationEvent
+        jfrEvent.begin()
+        val payloadBytes = in.payload.fold(0)(_.value.size())
+        componentMetrics.recordPayloadSize(ComponentOperation.Message, payloadBytes)
         val span = telemetries(service.componentId).buildSpan(service, in)
 
         span.foreach(s => MDC.put(Telemetry.TRACE_ID, s.getSpanContext.getTraceId))
@@ -202,34 +260,116 @@ private[akka] final class ActionsImpl(
           try {
             val messageContext =
               createConsumerMessageContext(in, service.messageCodec, span, service.componentId)
-            val decodedPayload = service.messageCodec.decodeMessage(
-              in.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
-            val effect = service
-              .createRouter()
-              .handleUnary(in.name, MessageEnvelope.of(decodedPayload, messageContext.metadata()), messageContext)
-            consumerEffectToResponse(service, in, effect, service.messageCodec)
+            consumerBatchers.get(in.serviceName) match {
+              case Some(batcher) =>
+                batcher.add((in, messageContext))
+              case None =>
+                consumerSubjectOrderings.get(in.serviceName) match {
+                  case Some(ordering) =>
+                    ordering
+                      .submit(subjectOf(in)) { () =>
+                        span.foreach(s => MDC.put(Telemetry.TRACE_ID, s.getSpanContext.getTraceId))
+                        try handleConsumerMessage(service, in, messageContext)
+                        finally if (span.isDefined) MDC.remove(Telemetry.TRACE_ID)
+                      }
+                      .recover { case NonFatal(ex) =>
+                        handleUnexpectedExceptionInConsumer(service, in, ex)
+                      }
+                  case None =>
+                    handleConsumerMessage(service, in, messageContext)
+                }
+            }
           } catch {
             case NonFatal(ex) =>
               // command handler threw an "unexpected" error
               span.foreach(_.end())
               Future.successful(handleUnexpectedExceptionInConsumer(service, in, ex))
           } finally {
-            MDC.remove(Telemetry.TRACE_ID)
+            if (span.isDefined) MDC.remove(Telemetry.TRACE_ID)
           }
-        fut.andThen { case _ =>
+        fut.andThen { case result =>
           span.foreach(_.end())
+          recordMetrics(componentMetrics, ComponentOperation.Message, startTime, result)
+          if (jfrEvent.isEnabled)
+            jfrEvent.complete(service.componentId, ComponentOperation.Message, in.name, subjectOf(in), payloadBytes)
         }
       case _ =>
         Future.successful(
           ActionResponse(ActionResponse.Response.Failure(Failure(0, "Unknown service: " + in.serviceName))))
     }
 
+  private def handleConsumerMessage(
+      service: ConsumerService[_],
+      in: ActionCommand,
+      messageContext: MessageContext): Future[ActionResponse] = {
+    val decodedPayload = service.messageCodec.decodeMessage(
+      in.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
+    val router = service.routerPool.acquire()
+    val effect =
+      router.handleUnary(in.name, MessageEnvelope.of(decodedPayload, messageContext.metadata()), messageContext)
+    consumerEffectToResponse(service, in, effect, service.messageCodec).andThen { case Success(response) =>
+      service.routerPool.release(router)
+      if (!response.response.isFailure) service.markHandled(Seq(messageContext.metadata()))
+    }
+  }
+
+  /**
+   * Handles a batch of messages with the batch handler of a consumer, all messages of the batch get the response of
+   * the batch.
+   */
+  private def handleConsumerBatch(
+      service: ConsumerService[_],
+      batch: Seq[(ActionCommand, MessageContext)]): Future[ActionResponse] = {
+    val (lastCommand, lastMessageContext) = batch.last
+    try {
+      val messages = batch.map { case (in, messageContext) =>
+        val decodedPayload = service.messageCodec.decodeMessage(
+          in.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
+        MessageEnvelope.of(decodedPayload, messageContext.metadata())
+      }
+      val router = service.routerPool.acquire()
+      val effect = router.handleBatch(lastCommand.name, messages, lastMessageContext)
+      consumerEffectToResponse(service, lastCommand, effect, service.messageCodec).andThen { case Success(response) =>
+        service.routerPool.release(router)
+        if (!response.response.isFailure) service.markHandled(messages.map(_.metadata()))
+      }
+    } catch {
+      case NonFatal(ex) =>
+        // batch handler threw an "unexpected" error
+        Future.successful(handleUnexpectedExceptionInConsumer(service, lastCommand, ex))
+    }
+  }
+
+  // looked up like the message context does, ignoring the case of the key and also accepting the ce_subject key
+  private def subjectOf(in: ActionCommand): String =
+    MetadataImpl.of(in.metadata.map(_.entries).getOrElse(Nil)).subjectScala.orNull
+
+  private def recordMetrics(
+      componentMetrics: ComponentMetrics,
+      operation: ComponentOperation,
+      startTime: Long,
+      result: Try[ActionResponse]): Unit =
+    if (componentMetrics.enabled) result match {
+      case Success(response) =>
+        response.response match {
+          case ActionResponse.Response.Failure(failure) =>
+            val code =
+              if (failure.grpcStatusCode == 0) Status.Code.UNKNOWN
+              else Status.fromCodeValue(failure.grpcStatusCode).getCode
+            componentMetrics.recordFailed(operation, startTime, code)
+          case _ =>
+            componentMetrics.recordHandled(operation, startTime)
+        }
+      case _ =>
+        componentMetrics.recordFailed(operation, startTime, Status.Code.INTERNAL)
+    }
+
   private def createMessageContext(
       in: ActionCommand,
       messageCodec: MessageCodec,
       span: Option[Span],
       serviceName: String): CommandContext = {
-    val metadata = MetadataImpl.of(in.metadata.map(_.entries.toVector).getOrElse(Nil))
+    val metadata = MetadataImpl.of(in.metadata.map(_.entries).getOrElse(Nil))
     val updatedMetadata = span.map(metadata.withTracing).getOrElse(metadata)
     new CommandContextImpl(updatedMetadata, messageCodec, system, timerClient, tracerFactory, span)
   }
@@ -239,7 +379,7 @@ private[akka] final class ActionsImpl(
       messageCodec: MessageCodec,
       span: Option[Span],
       serviceName: String): MessageContext = {
-    val metadata = MetadataImpl.of(in.metadata.map(_.entries.toVector).getOrElse(Nil))
+    val metadata = MetadataImpl.of(in.metadata.map(_.entries).getOrElse(Nil))
     val updatedMetadata = span.map(metadata.withTracing).getOrElse(metadata)
     new MessageContextImpl(updatedMetadata, messageCodec, timerClient, tracerFactory, span)
   }
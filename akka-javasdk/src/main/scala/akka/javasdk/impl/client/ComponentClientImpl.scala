@@ -13,6 +13,7 @@ import akka.javasdk.client.TimedActionClient
 import akka.javasdk.client.ViewClient
 import akka.javasdk.client.WorkflowClient
 import akka.javasdk.impl.MetadataImpl
+import akka.javasdk.impl.view.ViewQueryCache
 import akka.runtime.sdk.spi.{ ComponentClients => RuntimeComponentClients }
 
 import scala.concurrent.ExecutionContext
@@ -26,9 +27,14 @@ import io.opentelemetry.api.trace.Span
 @InternalApi
 private[javasdk] final case class ComponentClientImpl(
     runtimeComponentClients: RuntimeComponentClients,
-    openTelemetrySpan: Option[Span])(implicit ec: ExecutionContext)
+    openTelemetrySpan: Option[Span],
+    viewQueryCache: ViewQueryCache = ViewQueryCache.Disabled)(implicit ec: ExecutionContext)
     extends ComponentClient {
 
+  // for Java callers, without view query caching
+  def this(runtimeComponentClients: RuntimeComponentClients, openTelemetrySpan: Option[Span], ec: ExecutionContext) =
+    this(runtimeComponentClients, openTelemetrySpan, ViewQueryCache.Disabled)(ec)
+
   // Volatile since the component client could be accessed in nested/composed futures and is mutated by the reflective action router
   @volatile var callMetadata: Option[Metadata] = openTelemetrySpan.map { span =>
     MetadataImpl.Empty.withTracing(span)
@@ -54,6 +60,7 @@ private[javasdk] final case class ComponentClientImpl(
     else if (workflowId.isEmpty) throw new IllegalArgumentException("Empty workflow id now allowed")
     else WorkflowClientImpl(runtimeComponentClients.workFlowClient, callMetadata, workflowId)
 
-  override def forView(): ViewClient = ViewClientImpl(runtimeComponentClients.viewClient, callMetadata)
+  override def forView(): ViewClient =
+    ViewClientImpl(runtimeComponentClients.viewClient, callMetadata, viewQueryCache)
 
 }
@@ -18,7 +18,6 @@ import akka.javasdk.client.KeyValueEntityClient
 import akka.javasdk.client.TimedActionClient
 import akka.javasdk.client.WorkflowClient
 import akka.javasdk.eventsourcedentity.EventSourcedEntity
-import akka.javasdk.impl.ComponentDescriptorFactory
 import akka.javasdk.impl.MetadataImpl
 import akka.javasdk.impl.MetadataImpl.toProtocol
 import akka.javasdk.impl.reflection.Reflect
@@ -61,13 +60,13 @@ private[impl] sealed abstract class EntityClientImpl(
     createMethodRefForEitherArity[Nothing, R](lambda)
 
   private def createMethodRefForEitherArity[A1, R](lambda: AnyRef): ComponentMethodRefImpl[A1, R] = {
-    val method = MethodRefResolver.resolveMethodRef(lambda)
-    val declaringClass = method.getDeclaringClass
+    val methodRef = MethodRefResolver.resolve(lambda)
+    val declaringClass = methodRef.declaringClass
     if (!expectedComponentSuperclass.isAssignableFrom(declaringClass)) {
       throw new IllegalArgumentException(s"$declaringClass is not a subclass of $expectedComponentSuperclass")
     }
-    val componentId = ComponentDescriptorFactory.readComponentIdIdValue(declaringClass)
-    val methodName = method.getName.capitalize
+    val componentId = methodRef.componentId
+    val methodName = methodRef.methodName
 
     // FIXME push some of this logic into the NativeomponentMethodRef
     //       will be easier to follow to do that instead of creating a lambda here and injecting into that
@@ -103,8 +102,7 @@ private[impl] sealed abstract class EntityClientImpl(
                     kalix.protocol.component.Metadata.defaultInstance)))
               .map { reply =>
                 // Note: not Kalix JSON encoded here, regular/normal utf8 bytes
-                val returnType = Reflect.getReturnType[R](declaringClass, method)
-                JsonSupport.parseBytes[R](reply.payload.toArrayUnsafe(), returnType)
+                JsonSupport.parseBytes[R](reply.payload, methodRef.returnType.asInstanceOf[Class[R]])
               }
               .asJava
           })
@@ -190,14 +188,14 @@ private[javasdk] final case class TimedActionClientImpl(
     createMethodRefForEitherArity(methodRef)
 
   private def createMethodRefForEitherArity[A1, R](lambda: AnyRef): ComponentMethodRefImpl[A1, R] = {
-    val method = MethodRefResolver.resolveMethodRef(lambda)
-    val declaringClass = method.getDeclaringClass
+    val methodRef = MethodRefResolver.resolve(lambda)
+    val declaringClass = methodRef.declaringClass
     if (!Reflect.isAction(declaringClass))
       throw new IllegalArgumentException(
         "Use dedicated builder for calling " + declaringClass.getSuperclass.getSimpleName
-        + " component method " + declaringClass.getSimpleName + "::" + method.getName + ". This builder is meant for Action component calls.")
-    val componentId = ComponentDescriptorFactory.readComponentIdIdValue(declaringClass)
-    val methodName = method.getName.capitalize
+        + " component method " + declaringClass.getSimpleName + "::" + methodRef.method.getName + ". This builder is meant for Action component calls.")
+    val componentId = methodRef.componentId
+    val methodName = methodRef.methodName
 
     new ComponentMethodRefImpl[AnyRef, R](
       None,
@@ -231,9 +229,8 @@ private[javasdk] final case class TimedActionClientImpl(
               .transform {
                 case Success(reply) =>
                   // Note: not Kalix JSON encoded here, regular/normal utf8 bytes
-                  val returnType = Reflect.getReturnType(declaringClass, method)
                   if (reply.payload.isEmpty) Success(null.asInstanceOf[R])
-                  else Try(JsonSupport.parseBytes[R](reply.payload.toArrayUnsafe(), returnType.asInstanceOf[Class[R]]))
+                  else Try(JsonSupport.parseBytes[R](reply.payload, methodRef.returnType.asInstanceOf[Class[R]]))
                 case Failure(ex) => Failure(ex)
               }
               .asJava
@@ -6,9 +6,52 @@ package akka.javasdk.impl.client
 
 import java.lang.invoke.SerializedLambda
 import java.lang.reflect.Method
+import java.util.concurrent.atomic.AtomicReference
+
+import akka.javasdk.JsonSupport
+import akka.javasdk.impl.ComponentDescriptorFactory
+import akka.javasdk.impl.reflection.Reflect
+
+/**
+ * A method reference resolved to the component method it points to, together with what the component clients need
+ * for each call to it. Properties that only some of the clients need are computed on first use.
+ */
+private[impl] final class ResolvedMethodRef(val method: Method) {
+  val declaringClass: Class[_] = method.getDeclaringClass
+  val methodName: String = method.getName.capitalize
+
+  lazy val componentId: String = ComponentDescriptorFactory.readComponentIdIdValue(declaringClass)
+
+  /** The type of the reply, unwrapped from the effect type */
+  lazy val returnType: Class[_] = {
+    val returnType = Reflect.getReturnType[AnyRef](declaringClass, method)
+    JsonSupport.getCodecRegistry.register(returnType)
+    returnType
+  }
+}
 
 private[impl] object MethodRefResolver {
 
+  // a method reference expression is compiled into one lambda class per call site, so once resolved, the result can be
+  // re-used for all later calls from the same call site
+  private val resolvedByLambdaClass = new ClassValue[AtomicReference[ResolvedMethodRef]] {
+    override def computeValue(lambdaClass: Class[_]): AtomicReference[ResolvedMethodRef] = new AtomicReference()
+  }
+
+  /**
+   * Resolve the method ref for a lambda, cached per lambda class.
+   */
+  def resolve(lambda: AnyRef): ResolvedMethodRef = {
+    val cached = resolvedByLambdaClass.get(lambda.getClass)
+    val existing = cached.get()
+    if (existing ne null) existing
+    else {
+      // concurrent first calls may both resolve, but will end up with the same instance
+      cached.compareAndSet(null, new ResolvedMethodRef(resolveMethodRef(lambda)))
+      cached.get()
+    }
+  }
+
   /**
    * Resolve the method ref for a lambda.
    */
@@ -9,16 +9,17 @@ import akka.http.scaladsl.model.ContentTypes
 import akka.japi.function
 import akka.javasdk.JsonSupport
 import akka.javasdk.Metadata
+import akka.javasdk.annotations.Query
 import akka.javasdk.client.ComponentInvokeOnlyMethodRef
 import akka.javasdk.client.ComponentInvokeOnlyMethodRef1
 import akka.javasdk.client.ComponentStreamMethodRef
 import akka.javasdk.client.ComponentStreamMethodRef1
 import akka.javasdk.client.NoEntryFoundException
 import akka.javasdk.client.ViewClient
-import akka.javasdk.impl.ComponentDescriptorFactory
 import akka.javasdk.impl.MetadataImpl
 import akka.javasdk.impl.MetadataImpl.toProtocol
 import akka.javasdk.impl.reflection.Reflect
+import akka.javasdk.impl.view.ViewQueryCache
 import akka.javasdk.view.View
 import akka.runtime.sdk.spi.ViewRequest
 import akka.runtime.sdk.spi.ViewType
@@ -28,6 +29,7 @@ import akka.util.ByteString
 import java.lang.reflect.Method
 import java.lang.reflect.ParameterizedType
 import java.util.Optional
+import java.util.concurrent.ConcurrentHashMap
 import scala.concurrent.ExecutionContext
 import scala.jdk.FutureConverters.FutureOps
 
@@ -52,22 +54,45 @@ private[javasdk] object ViewClientImpl {
   /**
    * @param queryReturnType
    *   Un-nested return type, so would be T1 for `QueryEffect[Optional[T1]]` or T2 for `QueryEffect[T2]`
+   * @param cacheTtlMillis
+   *   from `@Query`, 0 if the query results are not cached
    */
   private case class ViewMethodProperties(
       componentId: String,
       method: Method,
       methodName: String,
       declaringClass: Class[_],
-      queryReturnType: Class[_])
+      queryReturnType: Class[_],
+      returnTypeOptional: Boolean,
+      cacheTtlMillis: Long,
+      cacheMaxEntries: Int)
+
+  // validated once per query method, a failed validation is not cached and fails again on the next call
+  private val viewMethodPropertiesCache = new ConcurrentHashMap[Method, ViewMethodProperties]()
+
   private def validateAndExtractViewMethodProperties[R](lambda: AnyRef): ViewMethodProperties = {
-    val method = MethodRefResolver.resolveMethodRef(lambda)
-    ViewCallValidator.validate(method)
-    // extract view id
-    val declaringClass = method.getDeclaringClass
-    val componentId = ComponentDescriptorFactory.readComponentIdIdValue(declaringClass)
-    val methodName = method.getName.capitalize
-    val queryReturnType = getViewQueryReturnType(method)
-    ViewMethodProperties(componentId, method, methodName, declaringClass, queryReturnType)
+    val methodRef = MethodRefResolver.resolve(lambda)
+    val existing = viewMethodPropertiesCache.get(methodRef.method)
+    if (existing ne null) existing
+    else {
+      val method = methodRef.method
+      ViewCallValidator.validate(method)
+      // extract view id
+      val queryReturnType = getViewQueryReturnType(method)
+      JsonSupport.getCodecRegistry.register(queryReturnType)
+      val query = method.getAnnotation(classOf[Query])
+      val properties = ViewMethodProperties(
+        methodRef.componentId,
+        method,
+        methodRef.methodName,
+        methodRef.declaringClass,
+        queryReturnType,
+        Reflect.isReturnTypeOptional(method),
+        if (query eq null) 0L else query.cacheTtlMillis(),
+        if (query eq null) 0 else query.cacheMaxEntries())
+      viewMethodPropertiesCache.putIfAbsent(method, properties)
+      properties
+    }
   }
 
   private def getViewQueryReturnType(method: Method): Class[_] = {
@@ -110,8 +135,10 @@ private[javasdk] object ViewClientImpl {
  * INTERNAL API
  */
 @InternalApi
-private[javasdk] final case class ViewClientImpl(viewClient: RuntimeViewClient, callMetadata: Option[Metadata])(implicit
-    val executionContext: ExecutionContext)
+private[javasdk] final case class ViewClientImpl(
+    viewClient: RuntimeViewClient,
+    callMetadata: Option[Metadata],
+    viewQueryCache: ViewQueryCache = ViewQueryCache.Disabled)(implicit val executionContext: ExecutionContext)
     extends ViewClient {
   import ViewClientImpl._
 
@@ -124,7 +151,7 @@ private[javasdk] final case class ViewClientImpl(viewClient: RuntimeViewClient,
 
   private def createMethodRefForEitherArity[A1, R](lambda: AnyRef): ComponentMethodRefImpl[A1, R] = {
     val viewMethodProperties = validateAndExtractViewMethodProperties[R](lambda)
-    val returnTypeOptional = Reflect.isReturnTypeOptional(viewMethodProperties.method)
+    val returnTypeOptional = viewMethodProperties.returnTypeOptional
 
     new ComponentMethodRefImpl[AnyRef, R](
       None,
@@ -140,25 +167,34 @@ private[javasdk] final case class ViewClientImpl(viewClient: RuntimeViewClient,
           viewMethodProperties.methodName,
           None,
           { metadata =>
-            viewClient
+            viewQueryCache
               .query(
-                new ViewRequest(
-                  viewMethodProperties.componentId,
-                  viewMethodProperties.methodName,
-                  ContentTypes.`application/json`,
-                  serializedPayload,
-                  toProtocol(metadata.asInstanceOf[MetadataImpl]).getOrElse(
-                    kalix.protocol.component.Metadata.defaultInstance)))
-              .map { result =>
+                viewMethodProperties.componentId,
+                viewMethodProperties.methodName,
+                viewMethodProperties.cacheTtlMillis,
+                viewMethodProperties.cacheMaxEntries,
+                serializedPayload) { () =>
+                viewClient
+                  .query(
+                    new ViewRequest(
+                      viewMethodProperties.componentId,
+                      viewMethodProperties.methodName,
+                      ContentTypes.`application/json`,
+                      serializedPayload,
+                      toProtocol(metadata.asInstanceOf[MetadataImpl]).getOrElse(
+                        kalix.protocol.component.Metadata.defaultInstance)))
+                  .map(_.payload)
+              }
+              .map { payload =>
                 val deserializedReWrapped =
-                  if (result.payload.isEmpty) {
+                  if (payload.isEmpty) {
                     if (returnTypeOptional) Optional.empty().asInstanceOf[R]
                     else
                       throw new NoEntryFoundException(
                         s"No matching entry found when calling ${viewMethodProperties.declaringClass}.${viewMethodProperties.methodName}")
                   } else {
                     val deserialized =
-                      JsonSupport.parseBytes(result.payload.toArrayUnsafe(), viewMethodProperties.queryReturnType)
+                      JsonSupport.parseBytes(payload, viewMethodProperties.queryReturnType)
                     if (returnTypeOptional) Optional.of(deserialized)
                     else deserialized
                   }
@@ -188,7 +224,7 @@ private[javasdk] final case class ViewClientImpl(viewClient: RuntimeViewClient,
         .map { viewResult =>
           // Note: not Kalix JSON encoded here, regular/normal utf8 bytes
           JsonSupport.parseBytes[R](
-            viewResult.payload.toArrayUnsafe(),
+            viewResult.payload,
             viewMethodProperties.queryReturnType.asInstanceOf[Class[R]])
         }
         .asJava
@@ -210,7 +246,7 @@ private[javasdk] final case class ViewClientImpl(viewClient: RuntimeViewClient,
         .map { viewResult =>
           // Note: not Kalix JSON encoded here, regular/normal utf8 bytes
           JsonSupport.parseBytes[R](
-            viewResult.payload.toArrayUnsafe(),
+            viewResult.payload,
             viewMethodProperties.queryReturnType.asInstanceOf[Class[R]])
         }
         .asJava
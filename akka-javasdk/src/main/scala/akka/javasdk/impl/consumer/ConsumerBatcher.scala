@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.consumer
+
+import akka.actor.Cancellable
+import akka.actor.Scheduler
+import akka.annotation.InternalApi
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration.FiniteDuration
+import scala.util.control.NonFatal
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object ConsumerBatcher {
+  private final case class Entry[M, R](message: M, response: Promise[R])
+}
+
+/**
+ * Collects the messages for the batch handler of a consumer. A message is passed to `handleBatch` right away, as a
+ * batch of one, if no batch is being handled. At most one batch is handled at a time. Messages that arrive while a
+ * batch is being handled are collected into the next batch, which is closed once there are `maxSize` of them, or once
+ * `maxWait` has passed since the first of them arrived. Closed batches, and otherwise the collected messages, are
+ * passed to `handleBatch` one at a time, in order, each once the batch before it completes. Every message of a batch
+ * gets the response of the batch, so that each message is still acknowledged on its own.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] final class ConsumerBatcher[M, R](
+    maxSize: Int,
+    maxWait: FiniteDuration,
+    scheduler: Scheduler,
+    handleBatch: Seq[M] => Future[R])(implicit ec: ExecutionContext) {
+  import ConsumerBatcher.Entry
+
+  // guarded by this
+  private var batchInProgress = false
+  // batches that reached maxSize or maxWait while a batch was in progress, in arrival order
+  private var closedBatches = Vector.empty[Vector[Entry[M, R]]]
+  private var pending = Vector.empty[Entry[M, R]]
+  private var scheduledFlush: Option[Cancellable] = None
+
+  def add(message: M): Future[R] = {
+    val response = Promise[R]()
+    val batch = synchronized {
+      pending :+= Entry(message, response)
+      if (!batchInProgress) takeNext()
+      else {
+        if (pending.size >= maxSize) closePending()
+        else if (scheduledFlush.isEmpty) scheduledFlush = Some(scheduler.scheduleOnce(maxWait)(flush()))
+        Vector.empty
+      }
+    }
+    if (batch.nonEmpty) run(batch)
+    response.future
+  }
+
+  // only closes the batch, it is started once the batches before it have completed
+  private def flush(): Unit = synchronized(closePending())
+
+  private def run(batch: Vector[Entry[M, R]]): Unit = {
+    val response =
+      try handleBatch(batch.map(_.message))
+      catch {
+        case NonFatal(ex) => Future.failed(ex)
+      }
+    batch.foreach(_.response.completeWith(response))
+    response.onComplete { _ =>
+      val next = synchronized(takeNext())
+      if (next.nonEmpty) run(next)
+    }
+  }
+
+  // must be called while holding the lock
+  private def closePending(): Unit = {
+    cancelScheduledFlush()
+    if (pending.nonEmpty) {
+      closedBatches :+= pending
+      pending = Vector.empty
+    }
+  }
+
+  // must be called while holding the lock, the taken batch is in progress if there is one
+  private def takeNext(): Vector[Entry[M, R]] = {
+    val batch =
+      if (closedBatches.nonEmpty) {
+        val closed = closedBatches.head
+        closedBatches = closedBatches.tail
+        closed
+      } else {
+        cancelScheduledFlush()
+        val collected = pending
+        pending = Vector.empty
+        collected
+      }
+    batchInProgress = batch.nonEmpty
+    batch
+  }
+
+  private def cancelScheduledFlush(): Unit = {
+    scheduledFlush.foreach(_.cancel())
+    scheduledFlush = None
+  }
+}
@@ -54,6 +54,38 @@ private[impl] abstract class ConsumerRouter[A <: Consumer](protected val consume
    */
   def handleUnary(commandName: String, message: MessageEnvelope[Any]): Consumer.Effect
 
+  /**
+   * Handle a batch of messages with the batch handler of the consumer.
+   *
+   * @param commandName
+   *   The name of the command the messages are for.
+   * @param messages
+   *   The message envelopes of the messages, in the order they were delivered.
+   * @param context
+   *   The message context of the last message of the batch.
+   * @return
+   *   The effect for all messages of the batch.
+   */
+  final def handleBatch(
+      commandName: String,
+      messages: Seq[MessageEnvelope[Any]],
+      context: MessageContext): Consumer.Effect =
+    callWithContext(context) { () =>
+      handleBatch(commandName, messages)
+    }
+
+  /**
+   * Handle a batch of messages with the batch handler of the consumer.
+   *
+   * @param commandName
+   *   The name of the command the messages are for.
+   * @param messages
+   *   The message envelopes of the messages, in the order they were delivered.
+   * @return
+   *   The effect for all messages of the batch.
+   */
+  def handleBatch(commandName: String, messages: Seq[MessageEnvelope[Any]]): Consumer.Effect
+
   //TODO rethink this part
   private def callWithContext[T](context: MessageContext)(func: () => T) = {
     // only set, never cleared, to allow access from other threads in async callbacks in the consumer
@@ -7,15 +7,19 @@ package akka.javasdk.impl.consumer
 import akka.annotation.InternalApi
 import akka.javasdk.Metadata
 import akka.javasdk.Tracing
+import akka.javasdk.annotations.Consume
 import akka.javasdk.consumer.Consumer
 import akka.javasdk.consumer.MessageContext
 import akka.javasdk.consumer.MessageEnvelope
 import akka.javasdk.impl.AbstractContext
 import akka.javasdk.impl.ComponentDescriptorFactory
+import akka.javasdk.impl.ComponentDescriptorFactory.hasConsumerOutput
+import akka.javasdk.impl.InstancePool
 import akka.javasdk.impl.JsonMessageCodec
 import akka.javasdk.impl.MessageCodec
 import akka.javasdk.impl.MetadataImpl
 import akka.javasdk.impl.Service
+import akka.javasdk.impl.reflection.Reflect
 import akka.javasdk.impl.telemetry.SpanTracingImpl
 import akka.javasdk.impl.telemetry.Telemetry
 import akka.javasdk.impl.timer.TimerSchedulerImpl
@@ -37,17 +41,40 @@ import java.util.Optional
 private[impl] class ConsumerService[A <: Consumer](
     consumerClass: Class[_],
     messageCodec: JsonMessageCodec,
-    factory: () => A)
+    factory: () => A,
+    reuseInstances: Boolean = false)
     extends Service(consumerClass, Actions.name, messageCodec) {
 
   lazy val log: Logger = LoggerFactory.getLogger(consumerClass)
 
+  // shared by all router instances, handled messages are remembered across instances
+  private val deduplication: Option[DeduplicationCache] =
+    Option(consumerClass.getAnnotation(classOf[Consume.Deduplicate]))
+      .map(deduplicate => new DeduplicationCache(deduplicate.maxEntries()))
+
   def createRouter(): ConsumerRouter[A] =
     new ReflectiveConsumerRouter[A](
       factory(),
       componentDescriptor.commandHandlers,
-      ComponentDescriptorFactory.findIgnore(consumerClass))
+      ComponentDescriptorFactory.findIgnore(consumerClass),
+      deduplication)
+
+  /**
+   * Remembers the messages as handled, if the consumer deduplicates messages. Must only be called once the response
+   * for the messages has completed successfully.
+   */
+  private[impl] def markHandled(metadata: Seq[Metadata]): Unit =
+    deduplication.foreach(cache => metadata.foreach(cache.markHandled))
+
+  private[impl] val routerPool = new InstancePool[ConsumerRouter[A]](reuseInstances, () => createRouter())
 
+  /**
+   * The batch settings of the consumer, if its handler is annotated with `@Consume.Batch`.
+   */
+  private[impl] val batchSettings: Option[Consume.Batch] =
+    consumerClass.getMethods
+      .find(method => hasConsumerOutput(method) && Reflect.isBatchHandler(method))
+      .map(_.getAnnotation(classOf[Consume.Batch]))
 }
 
 /**
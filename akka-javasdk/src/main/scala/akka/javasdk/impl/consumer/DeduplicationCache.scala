@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.consumer
+
+import java.util
+
+import akka.annotation.InternalApi
+import akka.javasdk.Metadata
+import akka.javasdk.impl.MetadataImpl
+
+import scala.jdk.OptionConverters.RichOptional
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[impl] object DeduplicationCache {
+
+  /** The CloudEvent id is unique within its source, the subject is included for sources reusing ids per subject */
+  final case class Key(source: String, subject: String, id: String)
+
+  def keyOf(metadata: Metadata): Option[Key] =
+    for {
+      source <- metadata.get(MetadataImpl.CeSource).toScala
+      id <- metadata.get(MetadataImpl.CeId).toScala
+    } yield Key(source, metadata.get(MetadataImpl.CeSubject).orElse(""), id)
+}
+
+/**
+ * Remembers the messages a consumer has handled, by CloudEvent source, subject and id, so that redelivered messages
+ * can be acknowledged without handling them again. Keeps at most `maxEntries` messages, and evicts the least recently
+ * seen first, since redeliveries follow the original delivery closely. Messages without CloudEvent id are never
+ * considered handled.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[impl] final class DeduplicationCache(maxEntries: Int) {
+  import DeduplicationCache._
+
+  // guarded by this, access ordered for the eviction
+  private val handled = new util.LinkedHashMap[Key, java.lang.Boolean](16, 0.75f, true) {
+    override def removeEldestEntry(eldest: util.Map.Entry[Key, java.lang.Boolean]): Boolean =
+      size() > maxEntries
+  }
+
+  def isHandled(metadata: Metadata): Boolean =
+    keyOf(metadata).exists(key => synchronized(handled.get(key) ne null))
+
+  def markHandled(metadata: Metadata): Unit =
+    keyOf(metadata).foreach(key => synchronized(handled.put(key, java.lang.Boolean.TRUE)))
+}
@@ -14,6 +14,8 @@ import akka.javasdk.impl.InvocationContext
 import akka.javasdk.impl.reflection.Reflect
 import com.google.protobuf.any.{ Any => ScalaPbAny }
 
+import scala.jdk.CollectionConverters._
+
 /**
  * INTERNAL API
  */
@@ -21,7 +23,8 @@ import com.google.protobuf.any.{ Any => ScalaPbAny }
 private[impl] class ReflectiveConsumerRouter[A <: Consumer](
     consumer: A,
     commandHandlers: Map[String, CommandHandler],
-    ignoreUnknown: Boolean)
+    ignoreUnknown: Boolean,
+    deduplication: Option[DeduplicationCache])
     extends ConsumerRouter[A](consumer) {
 
   private def commandHandlerLookup(commandName: String) =
@@ -31,7 +34,28 @@ private[impl] class ReflectiveConsumerRouter[A <: Consumer](
         s"no matching method for '$commandName' on [${consumer.getClass}], existing are [${commandHandlers.keySet
           .mkString(", ")}]"))
 
-  override def handleUnary(commandName: String, message: MessageEnvelope[Any]): Consumer.Effect = {
+  override def handleUnary(commandName: String, message: MessageEnvelope[Any]): Consumer.Effect =
+    deduplicated(Seq(message))(messages => invokeHandler(commandName, messages.head))
+
+  override def handleBatch(commandName: String, messages: Seq[MessageEnvelope[Any]]): Consumer.Effect =
+    deduplicated(messages)(invokeBatchHandler(commandName, _))
+
+  /**
+   * Already handled messages are left out, and if none are left the effect is ignore. The rest are remembered as
+   * handled by the consumer service, once the response for them has completed successfully.
+   */
+  private def deduplicated(messages: Seq[MessageEnvelope[Any]])(
+      handle: Seq[MessageEnvelope[Any]] => Consumer.Effect): Consumer.Effect =
+    deduplication match {
+      case Some(cache) =>
+        val notHandled = messages.filterNot(message => cache.isHandled(message.metadata()))
+        if (notHandled.isEmpty) ConsumerEffectImpl.Builder.ignore()
+        else handle(notHandled)
+      case None =>
+        handle(messages)
+    }
+
+  private def invokeHandler(commandName: String, message: MessageEnvelope[Any]): Consumer.Effect = {
 
     val commandHandler = commandHandlerLookup(commandName)
 
@@ -66,4 +90,40 @@ private[impl] class ReflectiveConsumerRouter[A <: Consumer](
           s"Couldn't find any method with input type [$inputTypeUrl] in Consumer [$consumer].")
     }
   }
+
+  private def invokeBatchHandler(commandName: String, messages: Seq[MessageEnvelope[Any]]): Consumer.Effect = {
+
+    val commandHandler = commandHandlerLookup(commandName)
+
+    val componentClients = Reflect.lookupComponentClientFields(consumer)
+
+    componentClients.foreach(_.callMetadata = messages.lastOption.map(_.metadata()))
+
+    val decodedMessages = messages.flatMap { message =>
+      val scalaPbAnyCommand = message.payload().asInstanceOf[ScalaPbAny]
+      val inputTypeUrl = AnySupport.replaceLegacyJsonPrefix(scalaPbAnyCommand.typeUrl)
+
+      commandHandler.lookupInvoker(inputTypeUrl) match {
+        case Some(invoker) =>
+          val invocationContext =
+            InvocationContext(scalaPbAnyCommand, commandHandler.requestMessageDescriptor, message.metadata())
+          val payload = invoker.parameterExtractors.head.extract(invocationContext)
+          Some(invoker -> MessageEnvelope.of(payload, message.metadata()))
+        // left out of the batch, but acknowledged with it
+        case None if ignoreUnknown => None
+        case None =>
+          throw new NoSuchElementException(
+            s"Couldn't find any method with input type [$inputTypeUrl] in Consumer [$consumer].")
+      }
+    }
+
+    decodedMessages.lastOption match {
+      case Some((batchHandler, _)) =>
+        batchHandler
+          .invokeDirectly(consumer, decodedMessages.map(_._2).asJava)
+          .asInstanceOf[Consumer.Effect]
+      case None =>
+        ConsumerEffectImpl.Builder.ignore()
+    }
+  }
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.consumer
+
+import java.util.concurrent.ConcurrentHashMap
+
+import akka.annotation.InternalApi
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+
+/**
+ * Orders the handling of consumer messages by their subject. Messages for the same subject are handled one at a time,
+ * in the order they were submitted, while messages for different subjects never wait for each other. Messages without
+ * a subject are not ordered, and are handled right away.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] final class SubjectOrdering(implicit ec: ExecutionContext) {
+
+  // completes when the last submitted message for the subject has been handled, removed once nothing else is submitted
+  private val lastHandled = new ConcurrentHashMap[String, Future[Unit]]()
+
+  /**
+   * @param handle
+   *   starts handling the message, invoked once all earlier messages for the subject have been handled
+   */
+  def submit[T](subject: String)(handle: () => Future[T]): Future[T] =
+    if (subject eq null) Future.delegate(handle())
+    else {
+      val handled = Promise[Unit]()
+      val previous = Option(lastHandled.put(subject, handled.future)).getOrElse(Future.unit)
+      val result = previous.flatMap(_ => handle())
+      result.onComplete { _ =>
+        handled.success(())
+        lastHandled.remove(subject, handled.future)
+      }
+      result
+    }
+
+  /** Number of subjects with messages that are being handled or waiting to be handled. */
+  def subjectsInProgress: Int = lastHandled.size
+}
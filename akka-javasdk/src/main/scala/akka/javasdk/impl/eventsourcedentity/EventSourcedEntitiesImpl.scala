@@ -4,6 +4,8 @@
 
 package akka.javasdk.impl.eventsourcedentity
 
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
 import scala.util.control.NonFatal
 import akka.NotUsed
 import akka.actor.ActorSystem
@@ -29,10 +31,16 @@ import akka.javasdk.impl.ErrorHandling
 import akka.javasdk.impl.JsonMessageCodec
 import akka.javasdk.impl.MetadataImpl
 import akka.javasdk.impl.Service
+import akka.javasdk.impl.StateCompression
 import akka.javasdk.impl.effect.ErrorReplyImpl
 import akka.javasdk.impl.effect.MessageReplyImpl
 import akka.javasdk.impl.effect.SecondaryEffectImpl
+import akka.javasdk.impl.telemetry.ComponentMetrics
+import akka.javasdk.impl.telemetry.ComponentOperation
+import akka.javasdk.impl.telemetry.ComponentOperationEvent
 import akka.javasdk.impl.telemetry.EventSourcedEntityCategory
+import akka.javasdk.impl.telemetry.SdkMetrics
+import akka.javasdk.impl.telemetry.SpanSampler
 import akka.javasdk.impl.telemetry.SpanTracingImpl
 import akka.javasdk.impl.telemetry.Telemetry
 import akka.javasdk.impl.telemetry.TraceInstrumentation
@@ -58,19 +66,33 @@ import org.slf4j.MDC
 private[impl] final case class EventSourcedEntityService[S, E, ES <: EventSourcedEntity[S, E]](
     eventSourcedEntityClass: Class[_],
     _messageCodec: JsonMessageCodec,
-    factory: EventSourcedEntityContext => ES,
-    snapshotEvery: Int = 0)
+    factory: EventSourcedEntityContext => ES)
     extends Service(eventSourcedEntityClass, EventSourcedEntities.name, _messageCodec) {
 
-  def withSnapshotEvery(snapshotEvery: Int): EventSourcedEntityService[S, E, ES] =
-    if (snapshotEvery != this.snapshotEvery) copy(snapshotEvery = snapshotEvery)
-    else this
-
   def createRouter(context: EventSourcedEntityContext) =
     new ReflectiveEventSourcedEntityRouter[S, E, ES](
       factory(context),
       componentDescriptor.commandHandlers,
-      messageCodec)
+      messageCodec,
+      commandDispatcher)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[impl] object EventSourcedEntitiesImpl {
+
+  /**
+   * A replayed event decoded ahead of applying it, with the time it took to decode it, 0 if the time is not measured.
+   */
+  final case class DecodedEvent(event: Any, decodeNanos: Long) {
+    def isDecoded: Boolean = event != null
+  }
+
+  object DecodedEvent {
+    val NotDecoded: DecodedEvent = DecodedEvent(null, 0L)
+  }
 }
 
 /**
@@ -82,22 +104,35 @@ private[impl] final class EventSourcedEntitiesImpl(
     _services: Map[String, EventSourcedEntityService[_, _, _]],
     configuration: Settings,
     sdkDispatcherName: String,
-    tracerFactory: () => Tracer)
+    tracerFactory: () => Tracer,
+    sdkMetrics: SdkMetrics = SdkMetrics.Disabled,
+    spanSampler: SpanSampler = SpanSampler.AlwaysOn)
     extends EventSourcedEntities {
   import akka.javasdk.impl.EntityExceptions._
+  import EventSourcedEntitiesImpl.DecodedEvent
 
   private val log = LoggerFactory.getLogger(this.getClass)
-  private final val services = _services.iterator.map { case (name, service) =>
-    if (service.snapshotEvery < 0)
-      log.warn("Snapshotting disabled for entity [{}], this is not recommended.", service.componentId)
-    // FIXME overlay configuration provided by _system
-    (name, if (service.snapshotEvery == 0) service.withSnapshotEvery(configuration.snapshotEvery) else service)
-  }.toMap
+  private final val services = _services.iterator.toMap
 
   private val instrumentations: Map[String, TraceInstrumentation] = services.values.map { s =>
-    (s.componentId, new TraceInstrumentation(s.componentId, EventSourcedEntityCategory, tracerFactory))
+    (s.componentId, new TraceInstrumentation(s.componentId, EventSourcedEntityCategory, tracerFactory, spanSampler))
   }.toMap
 
+  private val metrics: Map[String, ComponentMetrics] = services.values.map { s =>
+    (s.componentId, sdkMetrics.forComponent(EventSourcedEntityCategory, s.componentId))
+  }.toMap
+
+  private val snapshotPolicies: Map[String, SnapshotPolicy] = services.values.map { s =>
+    val policy = configuration.snapshotPolicyPerEntity.getOrElse(s.componentId, configuration.snapshotPolicy)
+    if (policy.disablesSnapshots)
+      log.warn("Snapshotting disabled for entity [{}], this is not recommended.", s.componentId)
+    (s.componentId, policy)
+  }.toMap
+
+  private val replayDecodeParallelism = configuration.replayDecodeParallelism
+  private val snapshotCompression = configuration.snapshotCompression
+  private lazy val decodeExecutionContext: ExecutionContext = system.dispatchers.lookup(sdkDispatcherName)
+
   private val pbCleanupDeletedEventSourcedEntityAfter =
     Some(com.google.protobuf.duration.Duration(configuration.cleanupDeletedEventSourcedEntityAfter))
 
@@ -155,30 +190,73 @@ private[impl] final class EventSourcedEntitiesImpl(
       .createRouter(new EventSourcedEntityContextImpl(init.entityId))
       .asInstanceOf[EventSourcedEntityRouter[Any, Any, EventSourcedEntity[Any, Any]]]
     val thisEntityId = init.entityId
+    val componentMetrics = metrics(service.componentId)
+    val snapshotPolicy = snapshotPolicies(service.componentId)
+    val snapshotStats = new SnapshotStats
 
     val startingSequenceNumber = (for {
       snapshot <- init.snapshot
       any <- snapshot.snapshot
     } yield {
       val snapshotSequence = snapshot.snapshotSequence
-      router._internalHandleSnapshot(service.messageCodec.decodeMessage(any))
+      // the policies compare to the size of the events, which are not compressed
+      if (snapshotPolicy.measuresSnapshotSize) snapshotStats.snapshotLoaded(StateCompression.uncompressedSize(any))
+      router._internalHandleSnapshot(any)
       snapshotSequence
     }).getOrElse(0L)
-    Flow[EventSourcedStreamIn]
-      .map(_.message)
+    def decodeEvent(event: EventSourcedEvent): Any =
+      router._internalDecodeEvent(event.payload.get) // FIXME empty?
+
+    // Events only come on replay, with pipelined decoding they are decoded ahead on the sdk dispatcher, in order,
+    // while the previous events are applied. Other messages pass through without decoding. The time it took to decode
+    // an event ahead is passed along, so that it is counted in the replay time like an event decoded when applied.
+    val messages = Flow[EventSourcedStreamIn].map(_.message)
+    val messagesWithDecodedEvents: Flow[EventSourcedStreamIn, (EventSourcedStreamIn.Message, DecodedEvent), NotUsed] =
+      if (replayDecodeParallelism > 1)
+        messages.mapAsync(replayDecodeParallelism) {
+          case message @ InEvent(event) =>
+            Future {
+              val decodeStartTime = if (snapshotPolicy.measuresReplayTime) System.nanoTime() else 0L
+              val decoded = decodeEvent(event)
+              val decodeNanos = if (snapshotPolicy.measuresReplayTime) System.nanoTime() - decodeStartTime else 0L
+              (message, DecodedEvent(decoded, decodeNanos))
+            }(decodeExecutionContext)
+          case message => Future.successful((message, DecodedEvent.NotDecoded))
+        }
+      else messages.map(message => (message, DecodedEvent.NotDecoded))
+
+    messagesWithDecodedEvents
       .scan[(Long, Option[EventSourcedStreamOut.Message])]((startingSequenceNumber, None)) {
-        case (_, InEvent(event)) =>
+        case (_, (InEvent(event), decodedEvent)) =>
           // Note that these only come on replay
+          val startTime = componentMetrics.startTimer()
+          val jfrEvent = new ComponentOperationEvent
+          jfrEvent.begin()
+          val replayStartTime = if (snapshotPolicy.measuresReplayTime) System.nanoTime() else 0L
           val context = new EventContextImpl(thisEntityId, event.sequence)
-          val ev =
-            service.messageCodec
-              .decodeMessage(event.payload.get)
-              .asInstanceOf[AnyRef] // FIXME empty?
+          val ev = if (decodedEvent.isDecoded) decodedEvent.event else decodeEvent(event)
           router._internalHandleEvent(ev, context)
+          val eventBytes = event.payload.fold(0)(_.value.size())
+          snapshotStats.eventReplayed(
+            eventBytes,
+            if (snapshotPolicy.measuresReplayTime) System.nanoTime() - replayStartTime + decodedEvent.decodeNanos
+            else 0L)
+          componentMetrics.recordHandled(ComponentOperation.Event, startTime)
+          jfrEvent.complete(
+            service.componentId,
+            ComponentOperation.Event,
+            event.payload.fold("")(_.typeUrl),
+            thisEntityId,
+            eventBytes)
           (event.sequence, None)
-        case ((sequence, _), InCommand(command)) =>
+        case ((sequence, _), (InCommand(command), _)) =>
           if (thisEntityId != command.entityId)
             throw ProtocolException(command, "Receiving entity is not the intended recipient of command")
+          val startTime = componentMetrics.startTimer()
+          val jfrEvent = new ComponentOperationEvent
+          jfrEvent.begin()
+          val payloadBytes = command.payload.fold(0)(_.value.size())
+          componentMetrics.recordPayloadSize(ComponentOperation.Command, payloadBytes)
           val span = instrumentations(service.componentId).buildSpan(service, command)
           span.foreach(s => MDC.put(Telemetry.TRACE_ID, s.getSpanContext.getTraceId))
           try {
@@ -187,14 +265,14 @@ private[impl] final class EventSourcedEntitiesImpl(
                 command.payload.getOrElse(
                   // FIXME smuggling 0 arity method called from component client through here
                   ScalaPbAny.defaultInstance.withTypeUrl(AnySupport.JsonTypeUrlPrefix).withValue(ByteString.empty())))
-            val metadata = MetadataImpl.of(command.metadata.map(_.entries.toVector).getOrElse(Nil))
+            val metadata = MetadataImpl.of(command.metadata.map(_.entries).getOrElse(Nil))
             val context =
               new CommandContextImpl(thisEntityId, sequence, command.name, command.id, metadata, span, tracerFactory)
 
             val CommandResult(
               events: Vector[Any],
               secondaryEffect: SecondaryEffectImpl,
-              snapshot: Option[Any],
+              stateAfterEvents: Option[Any],
               endSequenceNumber,
               deleteEntity) =
               try {
@@ -202,7 +280,6 @@ private[impl] final class EventSourcedEntitiesImpl(
                   command.name,
                   cmd,
                   context,
-                  service.snapshotEvery,
                   seqNr => new EventContextImpl(thisEntityId, seqNr))
               } catch {
                 case BadRequestException(msg) =>
@@ -228,15 +305,28 @@ private[impl] final class EventSourcedEntitiesImpl(
             )
 
             serializedSecondaryEffect match {
-              case _: ErrorReplyImpl[_] => // error
+              case error: ErrorReplyImpl[_] => // error
+                componentMetrics.recordFailed(
+                  ComponentOperation.Command,
+                  startTime,
+                  error.status.getOrElse(Status.Code.UNKNOWN))
                 (
                   endSequenceNumber,
                   Some(OutReply(EventSourcedReply(commandId = command.id, clientAction = clientAction))))
               case _ => // non-error
+                val serializationStartTime = componentMetrics.startTimer()
                 val serializedEvents =
-                  events.map(event => ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(event)))
+                  events.map(event => service.messageCodec.encodeStateOrEvent(event))
+                snapshotStats.eventsAdded(serializedEvents.size, serializedEvents.foldLeft(0L)(_ + _.value.size()))
                 val serializedSnapshot =
-                  snapshot.map(state => ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(state)))
+                  stateAfterEvents.filter(_ => snapshotPolicy.shouldSnapshot(snapshotStats)).map { state =>
+                    val serialized = service.messageCodec.encodeStateOrEvent(state)
+                    // the policies compare to the size of the events, which are not compressed
+                    snapshotStats.snapshotStored(serialized.value.size())
+                    snapshotCompression.compress(serialized)
+                  }
+                componentMetrics.recordSerialization(serializationStartTime)
+                componentMetrics.recordHandled(ComponentOperation.Command, startTime)
                 val delete = if (deleteEntity) pbCleanupDeletedEventSourcedEntityAfter else None
                 (
                   endSequenceNumber,
@@ -250,19 +340,24 @@ private[impl] final class EventSourcedEntitiesImpl(
                         serializedSnapshot,
                         delete))))
             }
+          } catch {
+            case NonFatal(error) =>
+              componentMetrics.recordFailed(ComponentOperation.Command, startTime, Status.Code.INTERNAL)
+              throw error
           } finally {
+            jfrEvent.complete(service.componentId, ComponentOperation.Command, command.name, thisEntityId, payloadBytes)
             span.foreach { s =>
               MDC.remove(Telemetry.TRACE_ID)
               s.end()
             }
           }
-        case ((sequence, _), InSnapshotRequest(request)) =>
-          val reply =
-            EventSourcedSnapshotReply(request.requestId, Some(service.messageCodec.encodeScala(router._stateOrEmpty())))
+        case ((sequence, _), (InSnapshotRequest(request), _)) =>
+          val snapshot = snapshotCompression.compress(service.messageCodec.encodeStateOrEvent(router._stateOrEmpty()))
+          val reply = EventSourcedSnapshotReply(request.requestId, Some(snapshot))
           (sequence, Some(OutSnapshotReply(reply)))
-        case (_, InInit(_)) =>
+        case (_, (InInit(_), _)) =>
           throw ProtocolException(init, "Entity already initiated")
-        case (_, InEmpty) =>
+        case (_, (InEmpty, _)) =>
           throw ProtocolException(init, "Received empty/unknown message")
       }
       .collect { case (_, Some(message)) =>
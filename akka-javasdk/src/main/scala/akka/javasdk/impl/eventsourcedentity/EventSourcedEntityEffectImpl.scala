@@ -47,14 +47,15 @@ private[javasdk] class EventSourcedEntityEffectImpl[S, E]
   private var _primaryEffect: PrimaryEffectImpl = NoPrimaryEffect
   private var _secondaryEffect: SecondaryEffectImpl = NoSecondaryEffectImpl
 
-  private var _functionSecondaryEffect: Function[S, SecondaryEffectImpl] = _ => NoSecondaryEffectImpl
+  private var _functionSecondaryEffect: Option[Function[S, SecondaryEffectImpl]] = None
 
   def primaryEffect: PrimaryEffectImpl = _primaryEffect
 
-  def secondaryEffect(state: S): SecondaryEffectImpl =
-    _functionSecondaryEffect(state) match {
-      case NoSecondaryEffectImpl => _secondaryEffect
-      case newSecondary          => newSecondary
+  /** The state is only evaluated if the reply is created from it */
+  def secondaryEffect(state: => S): SecondaryEffectImpl =
+    _functionSecondaryEffect match {
+      case Some(replyFromState) => replyFromState(state)
+      case None                 => _secondaryEffect
     }
 
   override def persist(event: E): EventSourcedEntityEffectImpl[S, E] =
@@ -101,7 +102,7 @@ private[javasdk] class EventSourcedEntityEffectImpl[S, E]
     thenReply(replyMessage, Metadata.EMPTY)
 
   override def thenReply[T](replyMessage: JFunction[S, T], metadata: Metadata): EventSourcedEntityEffectImpl[T, E] = {
-    _functionSecondaryEffect = state => MessageReplyImpl(replyMessage.apply(state), metadata)
+    _functionSecondaryEffect = Some(state => MessageReplyImpl(replyMessage.apply(state), metadata))
     this.asInstanceOf[EventSourcedEntityEffectImpl[T, E]]
   }
 
@@ -14,6 +14,9 @@ import akka.javasdk.impl.EntityExceptions
 import akka.javasdk.impl.effect.SecondaryEffectImpl
 
 import java.util.Optional
+import java.util.function.Supplier
+
+import com.google.protobuf.any.{ Any => ScalaPbAny }
 
 /**
  * INTERNAL API
@@ -21,10 +24,15 @@ import java.util.Optional
 @InternalApi
 private[impl] object EventSourcedEntityRouter {
 
+  /**
+   * @param stateAfterEvents
+   *   the state after applying the emitted events, for the snapshot policy to decide if it should be stored as a
+   *   snapshot, None if no events were emitted
+   */
   final case class CommandResult(
       events: Vector[Any],
       secondaryEffect: SecondaryEffectImpl,
-      snapshot: Option[Any],
+      stateAfterEvents: Option[Any],
       endSequenceNumber: Long,
       deleteEntity: Boolean)
 
@@ -47,15 +55,24 @@ private[impl] abstract class EventSourcedEntityRouter[S, E, ES <: EventSourcedEn
   import EventSourcedEntityRouter._
 
   private var state: Option[S] = None
+  // a snapshot from the runtime is kept serialized until the state is first needed, and then decoded only once
+  private var serializedSnapshot: Option[ScalaPbAny] = None
+  private val lazyState: Supplier[S] = () => _stateOrEmpty()
 
   /** INTERNAL API */
   // "public" api against the impl/testkit
   def _stateOrEmpty(): S = state match {
     case None =>
-      val emptyState = entity.emptyState()
-      // null is allowed as emptyState
-      state = Some(emptyState)
-      emptyState
+      val initialState = serializedSnapshot match {
+        case Some(snapshot) =>
+          serializedSnapshot = None
+          decodeSnapshot(snapshot)
+        case None =>
+          // null is allowed as emptyState
+          entity.emptyState()
+      }
+      state = Some(initialState)
+      initialState
     case Some(state) => state
   }
 
@@ -64,7 +81,16 @@ private[impl] abstract class EventSourcedEntityRouter[S, E, ES <: EventSourcedEn
 
   /** INTERNAL API */
   // "public" api against the impl/testkit
-  final def _internalHandleSnapshot(snapshot: S): Unit = setState(snapshot)
+  final def _internalHandleSnapshot(snapshot: ScalaPbAny): Unit = {
+    state = None
+    serializedSnapshot = Some(snapshot)
+  }
+
+  /**
+   * INTERNAL API "public" api against the impl, may be called ahead of and concurrently with applying earlier events
+   * when replay decoding is pipelined
+   */
+  def _internalDecodeEvent(event: ScalaPbAny): Any = event
 
   /** INTERNAL API */
   // "public" api against the impl/testkit
@@ -88,14 +114,14 @@ private[impl] abstract class EventSourcedEntityRouter[S, E, ES <: EventSourcedEn
       commandName: String,
       command: Any,
       context: CommandContext,
-      snapshotEvery: Int,
       eventContextFactory: Long => EventContext): CommandResult = {
 
     val commandEffect =
       try {
         entity._internalSetCommandContext(Optional.of(context))
-        entity._internalSetCurrentState(_stateOrEmpty())
-        handleCommand(commandName, _stateOrEmpty(), command, context).asInstanceOf[EventSourcedEntityEffectImpl[Any, E]]
+        // commands that never look at the state don't pay for decoding a snapshot
+        entity._internalSetLazyCurrentState(lazyState)
+        handleCommand(commandName, command, context).asInstanceOf[EventSourcedEntityEffectImpl[Any, E]]
       } catch {
         case CommandHandlerNotFound(name) =>
           throw new EntityExceptions.EntityException(
@@ -109,7 +135,6 @@ private[impl] abstract class EventSourcedEntityRouter[S, E, ES <: EventSourcedEn
     var currentSequence = context.sequenceNumber()
     commandEffect.primaryEffect match {
       case EmitEvents(events, deleteEntity) =>
-        var shouldSnapshot = false
         events.foreach { event =>
           try {
             entity._internalSetEventContext(Optional.of(eventContextFactory(currentSequence)))
@@ -124,14 +149,12 @@ private[impl] abstract class EventSourcedEntityRouter[S, E, ES <: EventSourcedEn
             entity._internalSetEventContext(Optional.empty())
           }
           currentSequence += 1
-          shouldSnapshot = shouldSnapshot || (snapshotEvery > 0 && currentSequence % snapshotEvery == 0)
         }
         // snapshotting final state since that is the "atomic" write
         // emptyState can be null but null snapshot should not be stored, but that can't even
         // happen since event handler is not allowed to return null as newState
-        val endState = _stateOrEmpty()
-        val snapshot =
-          if (shouldSnapshot) Option(endState)
+        val stateAfterEvents =
+          if (events.nonEmpty) Option(_stateOrEmpty())
           else None
 
         try {
@@ -139,8 +162,8 @@ private[impl] abstract class EventSourcedEntityRouter[S, E, ES <: EventSourcedEn
           entity._internalSetCommandContext(Optional.of(context))
           CommandResult(
             events.toVector,
-            commandEffect.secondaryEffect(endState),
-            snapshot,
+            commandEffect.secondaryEffect(_stateOrEmpty()),
+            stateAfterEvents,
             currentSequence,
             deleteEntity)
         } finally {
@@ -164,7 +187,14 @@ private[impl] abstract class EventSourcedEntityRouter[S, E, ES <: EventSourcedEn
 
   def handleEvent(state: S, event: E): S
 
-  def handleCommand(commandName: String, state: S, command: Any, context: CommandContext): EventSourcedEntity.Effect[_]
+  /**
+   * The current state is available to the entity through `currentState()`, or `_stateOrEmpty()`, and is only decoded
+   * from a snapshot if accessed.
+   */
+  def handleCommand(commandName: String, command: Any, context: CommandContext): EventSourcedEntity.Effect[_]
+
+  /** Decode the state from a snapshot received from the runtime */
+  protected def decodeSnapshot(snapshot: ScalaPbAny): S
 
   def entityClass: Class[_] = entity.getClass
 }
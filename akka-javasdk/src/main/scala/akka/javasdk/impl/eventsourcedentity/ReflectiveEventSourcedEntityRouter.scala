@@ -11,6 +11,8 @@ import akka.javasdk.eventsourcedentity.EventSourcedEntity
 import akka.javasdk.impl.AnySupport
 import akka.javasdk.impl.CommandHandler
 import akka.javasdk.impl.CommandSerialization
+import akka.javasdk.impl.ComponentCommandDispatcher
+import akka.javasdk.impl.ComponentCommandDispatchers
 import akka.javasdk.impl.InvocationContext
 import akka.javasdk.impl.JsonMessageCodec
 import akka.javasdk.impl.StrictJsonMessageCodec
@@ -24,13 +26,18 @@ import com.google.protobuf.any.{ Any => ScalaPbAny }
 private[impl] class ReflectiveEventSourcedEntityRouter[S, E, ES <: EventSourcedEntity[S, E]](
     override protected val entity: ES,
     commandHandlers: Map[String, CommandHandler],
-    messageCodec: JsonMessageCodec)
+    messageCodec: JsonMessageCodec,
+    commandDispatcher: Option[ComponentCommandDispatcher[AnyRef]] = None)
     extends EventSourcedEntityRouter[S, E, ES](entity) {
 
   private val strictCodec = new StrictJsonMessageCodec(messageCodec)
 
+  // resolved once per entity class and shared by all router instances
+  private val entityTypes = Reflect.eventSourcedEntityTypes(entity.getClass)
+  private val entityStateType: Class[S] = entityTypes.stateType.asInstanceOf[Class[S]]
+
   // similar to workflow, we preemptively register the events type to the message codec
-  Reflect.allKnownEventTypes[S, E, ES](entity).foreach(messageCodec.registerTypeHints)
+  entityTypes.knownEventTypes.foreach(messageCodec.registerTypeHints)
 
   private def commandHandlerLookup(commandName: String) =
     commandHandlers.getOrElse(
@@ -39,7 +46,9 @@ private[impl] class ReflectiveEventSourcedEntityRouter[S, E, ES <: EventSourcedE
 
   override def handleEvent(state: S, event: E): S = {
 
-    _extractAndSetCurrentState(state)
+    // note that we set the state even if null, this is needed in order to
+    // be able to call currentState() later
+    entity._internalSetCurrentState(state)
 
     event match {
       case anyPb: ScalaPbAny => // replaying event coming from runtime
@@ -56,12 +65,9 @@ private[impl] class ReflectiveEventSourcedEntityRouter[S, E, ES <: EventSourcedE
 
   override def handleCommand(
       commandName: String,
-      state: S,
       command: Any,
       commandContext: CommandContext): EventSourcedEntity.Effect[_] = {
 
-    _extractAndSetCurrentState(state)
-
     val commandHandler = commandHandlerLookup(commandName)
 
     val scalaPbAnyCommand = command.asInstanceOf[ScalaPbAny]
@@ -70,10 +76,8 @@ private[impl] class ReflectiveEventSourcedEntityRouter[S, E, ES <: EventSourcedE
       val methodInvoker = commandHandler.getSingleNameInvoker()
       val deserializedCommand =
         CommandSerialization.deserializeComponentClientCommand(methodInvoker.method, scalaPbAnyCommand)
-      val result = deserializedCommand match {
-        case None          => methodInvoker.invoke(entity)
-        case Some(command) => methodInvoker.invokeDirectly(entity, command)
-      }
+      val result =
+        ComponentCommandDispatchers.dispatch(commandDispatcher, entity, commandName, methodInvoker, deserializedCommand)
       result.asInstanceOf[EventSourcedEntity.Effect[_]]
     } else {
       // this is the old path, needed until we remove the http-grpc-handling of the static es endpoints
@@ -90,22 +94,11 @@ private[impl] class ReflectiveEventSourcedEntityRouter[S, E, ES <: EventSourcedE
     }
   }
 
-  private def _extractAndSetCurrentState(state: S): Unit = {
-    val entityStateType: Class[S] = Reflect.eventSourcedEntityStateType(this.entity.getClass).asInstanceOf[Class[S]]
-
-    // the state: S received can either be of the entity "state" type (if coming from emptyState/memory)
-    // or PB Any type (if coming from the runtime)
-    state match {
-      case s if s == null || state.getClass == entityStateType =>
-        // note that we set the state even if null, this is needed in order to
-        // be able to call currentState() later
-        entity._internalSetCurrentState(s)
-      case s =>
-        val deserializedState =
-          JsonSupport.decodeJson(entityStateType, ScalaPbAny.toJavaProto(s.asInstanceOf[ScalaPbAny]))
-        entity._internalSetCurrentState(deserializedState)
-    }
-  }
+  override def _internalDecodeEvent(event: ScalaPbAny): Any =
+    strictCodec.decodeMessage(event)
+
+  override protected def decodeSnapshot(snapshot: ScalaPbAny): S =
+    JsonSupport.decodeJson(entityStateType, ScalaPbAny.toJavaProto(snapshot))
 }
 
 /**
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.eventsourcedentity
+
+import java.time.Duration
+
+import scala.jdk.CollectionConverters._
+
+import akka.annotation.InternalApi
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigUtil
+
+/**
+ * Decides when an event sourced entity should store a snapshot of its state, based on what has happened to the entity
+ * instance since the last snapshot.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[impl] sealed trait SnapshotPolicy {
+
+  def shouldSnapshot(stats: SnapshotStats): Boolean
+
+  /** Only policies that need it pay for timing the replay of events during recovery */
+  def measuresReplayTime: Boolean = false
+
+  /** Only policies that need it pay for inflating a compressed snapshot to get its size during recovery */
+  def measuresSnapshotSize: Boolean = false
+
+  /** True if the policy never stores a snapshot */
+  def disablesSnapshots: Boolean = false
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[impl] object SnapshotPolicy {
+
+  /** Snapshot every `events` events, snapshotting is disabled if 0 or less */
+  final case class EventsSinceSnapshot(events: Int) extends SnapshotPolicy {
+    override def shouldSnapshot(stats: SnapshotStats): Boolean =
+      events > 0 && stats.eventsSinceSnapshot >= events
+
+    override def disablesSnapshots: Boolean = events <= 0
+  }
+
+  /** Snapshot once the serialized events since the last snapshot add up to `bytes` */
+  final case class EventBytesSinceSnapshot(bytes: Long) extends SnapshotPolicy {
+    override def shouldSnapshot(stats: SnapshotStats): Boolean =
+      stats.eventBytesSinceSnapshot >= bytes
+  }
+
+  /**
+   * Snapshot once replaying the events since the last snapshot would take longer than `budget`, estimated from the time
+   * it took to replay each event during the last recovery of the entity. Until there is a measurement, falls back to
+   * snapshotting every `fallbackEvents` events.
+   */
+  final case class ReplayTimeBudget(budget: Duration, fallbackEvents: Int) extends SnapshotPolicy {
+    private val budgetNanos = budget.toNanos
+
+    override def shouldSnapshot(stats: SnapshotStats): Boolean = {
+      val nanosPerEvent = stats.replayNanosPerEvent
+      if (nanosPerEvent > 0) stats.eventsSinceSnapshot * nanosPerEvent >= budgetNanos
+      else fallbackEvents > 0 && stats.eventsSinceSnapshot >= fallbackEvents
+    }
+
+    override def measuresReplayTime: Boolean = true
+  }
+
+  /**
+   * Snapshot once the serialized events since the last snapshot are `ratio` times larger than the last snapshot. Until
+   * the size of a snapshot is known, falls back to snapshotting every `fallbackEvents` events.
+   */
+  final case class StateSizeRatio(ratio: Double, fallbackEvents: Int) extends SnapshotPolicy {
+    override def shouldSnapshot(stats: SnapshotStats): Boolean =
+      if (stats.lastSnapshotBytes > 0) stats.eventBytesSinceSnapshot >= ratio * stats.lastSnapshotBytes
+      else fallbackEvents > 0 && stats.eventsSinceSnapshot >= fallbackEvents
+
+    override def measuresSnapshotSize: Boolean = true
+  }
+
+  /**
+   * @param config
+   *   the `akka.javasdk.event-sourced-entity` config
+   */
+  def fromConfig(config: Config): (SnapshotPolicy, Map[String, SnapshotPolicy]) = {
+    val snapshotEvery = config.getInt("snapshot-every")
+    val defaultPolicyConfig = config.getConfig("snapshot-policy")
+    val perEntityConfig = config.getConfig("snapshot-policy-per-entity")
+    val perEntity = perEntityConfig.root().keySet().asScala.map { componentId =>
+      // quoted so that component ids containing dots are taken as one key
+      val entityConfig = perEntityConfig.getConfig(ConfigUtil.joinPath(componentId)).withFallback(defaultPolicyConfig)
+      componentId -> policy(entityConfig, snapshotEvery)
+    }.toMap
+    (policy(defaultPolicyConfig, snapshotEvery), perEntity)
+  }
+
+  private def policy(config: Config, snapshotEvery: Int): SnapshotPolicy =
+    config.getString("type") match {
+      case "events"           => EventsSinceSnapshot(snapshotEvery)
+      case "event-bytes"      => EventBytesSinceSnapshot(config.getBytes("event-bytes"))
+      case "replay-time"      => ReplayTimeBudget(config.getDuration("replay-time"), snapshotEvery)
+      case "state-size-ratio" => StateSizeRatio(config.getDouble("state-size-ratio"), snapshotEvery)
+      case other =>
+        throw new IllegalArgumentException(
+          s"Unknown snapshot policy type [$other], must be one of [events, event-bytes, replay-time, state-size-ratio]")
+    }
+}
+
+/**
+ * What has happened to one event sourced entity instance since its last snapshot. Only accessed from the stream of the
+ * entity instance.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[impl] final class SnapshotStats {
+  private var _eventsSinceSnapshot = 0L
+  private var _eventBytesSinceSnapshot = 0L
+  private var _lastSnapshotBytes = 0L
+  private var replayedEvents = 0L
+  private var replayNanos = 0L
+
+  def eventsSinceSnapshot: Long = _eventsSinceSnapshot
+  def eventBytesSinceSnapshot: Long = _eventBytesSinceSnapshot
+  def lastSnapshotBytes: Long = _lastSnapshotBytes
+
+  def replayNanosPerEvent: Long =
+    if (replayedEvents == 0) 0L else replayNanos / replayedEvents
+
+  def snapshotLoaded(bytes: Long): Unit =
+    _lastSnapshotBytes = bytes
+
+  def eventReplayed(bytes: Long, nanos: Long): Unit = {
+    eventsAdded(1, bytes)
+    replayedEvents += 1
+    replayNanos += nanos
+  }
+
+  def eventsAdded(count: Int, bytes: Long): Unit = {
+    _eventsSinceSnapshot += count
+    _eventBytesSinceSnapshot += bytes
+  }
+
+  def snapshotStored(bytes: Long): Unit = {
+    _eventsSinceSnapshot = 0
+    _eventBytesSinceSnapshot = 0
+    _lastSnapshotBytes = bytes
+  }
+}
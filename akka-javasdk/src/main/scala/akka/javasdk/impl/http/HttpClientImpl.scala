@@ -167,7 +167,7 @@ private[akka] final case class RequestBuilderImpl[R](
             throw new RuntimeException(errorString + ": " + bytes.utf8String)
         }
       } else if (res.entity.getContentType == ContentTypes.APPLICATION_JSON)
-        new StrictResponse[T](res, JsonSupport.parseBytes(bytes.toArrayUnsafe(), `type`))
+        new StrictResponse[T](res, JsonSupport.parseBytes(bytes, `type`))
       else if (!res.entity.getContentType.binary && (`type` eq classOf[String]))
         new StrictResponse[T](
           res,
@@ -15,9 +15,14 @@ import akka.javasdk.impl.JsonMessageCodec
 import akka.javasdk.impl.MetadataImpl
 import akka.javasdk.impl.Service
 import akka.javasdk.impl.Settings
+import akka.javasdk.impl.StateCompression
 import akka.javasdk.impl.effect.ErrorReplyImpl
 import akka.javasdk.impl.keyvalueentity.KeyValueEntityEffectImpl.DeleteEntity
+import akka.javasdk.impl.telemetry.ComponentMetrics
+import akka.javasdk.impl.telemetry.ComponentOperation
 import akka.javasdk.impl.telemetry.KeyValueEntityCategory
+import akka.javasdk.impl.telemetry.SdkMetrics
+import akka.javasdk.impl.telemetry.SpanSampler
 import akka.javasdk.impl.telemetry.Telemetry
 import akka.javasdk.impl.telemetry.TraceInstrumentation
 import akka.javasdk.keyvalueentity.CommandContext
@@ -62,7 +67,7 @@ private[impl] final class KeyValueEntityService[S, E <: KeyValueEntity[S]](
     factory: KeyValueEntityContext => E)
     extends Service(entityClass, ValueEntities.name, messageCodec) {
   def createRouter(context: KeyValueEntityContext) =
-    new ReflectiveKeyValueEntityRouter[S, E](factory(context), componentDescriptor.commandHandlers)
+    new ReflectiveKeyValueEntityRouter[S, E](factory(context), componentDescriptor.commandHandlers, commandDispatcher)
 }
 
 /**
@@ -74,7 +79,9 @@ private[impl] final class KeyValueEntitiesImpl(
     val services: Map[String, KeyValueEntityService[_, _]],
     configuration: Settings,
     sdkDispatcherName: String,
-    tracerFactory: () => Tracer)
+    tracerFactory: () => Tracer,
+    sdkMetrics: SdkMetrics = SdkMetrics.Disabled,
+    spanSampler: SpanSampler = SpanSampler.AlwaysOn)
     extends ValueEntities {
 
   import akka.javasdk.impl.EntityExceptions._
@@ -82,7 +89,15 @@ private[impl] final class KeyValueEntitiesImpl(
   private final val log = LoggerFactory.getLogger(this.getClass)
 
   private val instrumentations: Map[String, TraceInstrumentation] = services.values.map { s =>
-    (s.componentId, new TraceInstrumentation(s.componentId, KeyValueEntityCategory, tracerFactory))
+    (s.componentId, new TraceInstrumentation(s.componentId, KeyValueEntityCategory, tracerFactory, spanSampler))
+  }.toMap
+
+  private val metrics: Map[String, ComponentMetrics] = services.values.map { s =>
+    (s.componentId, sdkMetrics.forComponent(KeyValueEntityCategory, s.componentId))
+  }.toMap
+
+  private val stateCompressions: Map[String, StateCompression] = services.values.map { s =>
+    (s.componentId, configuration.keyValueStateCompressionFor(s.componentId))
   }.toMap
 
   private val pbCleanupDeletedKeyValueEntityAfter =
@@ -137,6 +152,8 @@ private[impl] final class KeyValueEntitiesImpl(
     val router =
       service.createRouter(new KeyValueEntityContextImpl(init.entityId, system))
     val thisEntityId = init.entityId
+    val componentMetrics = metrics(service.componentId)
+    val stateCompression = stateCompressions(service.componentId)
 
     init.state match {
       case Some(ValueEntityInitState(stateOpt, _)) =>
@@ -157,7 +174,10 @@ private[impl] final class KeyValueEntitiesImpl(
           throw ProtocolException(command, "Receiving Value entity is not the intended recipient of command")
 
         case InCommand(command) =>
-          val metadata = MetadataImpl.of(command.metadata.map(_.entries.toVector).getOrElse(Nil))
+          val startTime = componentMetrics.startTimer()
+          if (componentMetrics.enabled)
+            componentMetrics.recordPayloadSize(ComponentOperation.Command, command.payload.fold(0)(_.value.size()))
+          val metadata = MetadataImpl.of(command.metadata.map(_.entries).getOrElse(Nil))
           val instrumentation = instrumentations(service.componentId)
           if (log.isTraceEnabled) log.trace("Metadata entries [{}].", metadata.entries)
           val span = instrumentation.buildSpan(service, command)
@@ -198,7 +218,11 @@ private[impl] final class KeyValueEntitiesImpl(
               )
 
             serializedSecondaryEffect match {
-              case _: ErrorReplyImpl[_] =>
+              case error: ErrorReplyImpl[_] =>
+                componentMetrics.recordFailed(
+                  ComponentOperation.Command,
+                  startTime,
+                  error.status.orElse(errorCode).getOrElse(Status.Code.UNKNOWN))
                 ValueEntityStreamOut(OutReply(ValueEntityReply(commandId = command.id, clientAction = clientAction)))
 
               case _ => // non-error
@@ -206,14 +230,22 @@ private[impl] final class KeyValueEntitiesImpl(
                   case DeleteEntity =>
                     Some(ValueEntityAction(Delete(ValueEntityDelete(pbCleanupDeletedKeyValueEntityAfter))))
                   case UpdateState(newState) =>
-                    val newStateScalaPbAny = service.messageCodec.encodeScala(newState)
+                    val serializationStartTime = componentMetrics.startTimer()
+                    val newStateScalaPbAny =
+                      stateCompression.compress(service.messageCodec.encodeStateOrEvent(newState))
+                    componentMetrics.recordSerialization(serializationStartTime)
                     Some(ValueEntityAction(Update(ValueEntityUpdate(Some(newStateScalaPbAny)))))
                   case _ =>
                     None
                 }
 
+                componentMetrics.recordHandled(ComponentOperation.Command, startTime)
                 ValueEntityStreamOut(OutReply(ValueEntityReply(command.id, clientAction, Seq.empty, action)))
             }
+          } catch {
+            case NonFatal(error) =>
+              componentMetrics.recordFailed(ComponentOperation.Command, startTime, Status.Code.INTERNAL)
+              throw error
           } finally {
             span.foreach { s =>
               MDC.remove(Telemetry.TRACE_ID)
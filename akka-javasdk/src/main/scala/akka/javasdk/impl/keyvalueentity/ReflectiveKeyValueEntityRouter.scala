@@ -9,6 +9,8 @@ import akka.javasdk.JsonSupport
 import akka.javasdk.impl.AnySupport
 import akka.javasdk.impl.CommandHandler
 import akka.javasdk.impl.CommandSerialization
+import akka.javasdk.impl.ComponentCommandDispatcher
+import akka.javasdk.impl.ComponentCommandDispatchers
 import akka.javasdk.impl.InvocationContext
 import akka.javasdk.impl.reflection.Reflect
 import akka.javasdk.keyvalueentity.CommandContext
@@ -21,7 +23,8 @@ import com.google.protobuf.any.{ Any => ScalaPbAny }
 @InternalApi
 private[impl] final class ReflectiveKeyValueEntityRouter[S, E <: KeyValueEntity[S]](
     override protected val entity: E,
-    commandHandlers: Map[String, CommandHandler])
+    commandHandlers: Map[String, CommandHandler],
+    commandDispatcher: Option[ComponentCommandDispatcher[AnyRef]] = None)
     extends KeyValueEntityRouter[S, E](entity) {
 
   private def commandHandlerLookup(commandName: String) =
@@ -43,10 +46,8 @@ private[impl] final class ReflectiveKeyValueEntityRouter[S, E <: KeyValueEntity[
       val methodInvoker = commandHandler.getSingleNameInvoker()
       val deserializedCommand =
         CommandSerialization.deserializeComponentClientCommand(methodInvoker.method, scalaPbAnyCommand)
-      val result = deserializedCommand match {
-        case None          => methodInvoker.invoke(entity)
-        case Some(command) => methodInvoker.invokeDirectly(entity, command)
-      }
+      val result =
+        ComponentCommandDispatchers.dispatch(commandDispatcher, entity, commandName, methodInvoker, deserializedCommand)
       result.asInstanceOf[KeyValueEntity.Effect[_]]
     } else {
       val invocationContext =
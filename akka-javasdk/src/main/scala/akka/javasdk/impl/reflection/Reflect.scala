@@ -5,9 +5,11 @@
 package akka.javasdk.impl.reflection
 
 import akka.annotation.InternalApi
+import akka.javasdk.annotations.Consume
 import akka.javasdk.annotations.http.HttpEndpoint
 import akka.javasdk.client.ComponentClient
 import akka.javasdk.consumer.Consumer
+import akka.javasdk.consumer.MessageEnvelope
 import akka.javasdk.eventsourcedentity.EventSourcedEntity
 import akka.javasdk.impl.client.ComponentClientImpl
 import akka.javasdk.keyvalueentity.KeyValueEntity
@@ -17,9 +19,11 @@ import akka.javasdk.view.View
 import akka.javasdk.workflow.Workflow
 import java.lang.annotation.Annotation
 import java.lang.reflect.AnnotatedElement
+import java.lang.reflect.Field
 import java.lang.reflect.Method
 import java.lang.reflect.Modifier
 import java.lang.reflect.ParameterizedType
+import java.lang.reflect.Type
 import java.util
 import java.util.Optional
 
@@ -130,11 +134,46 @@ private[impl] object Reflect {
     Modifier.isStatic(component.getModifiers) &&
     Modifier.isPublic(component.getModifiers)
 
-  def allKnownEventTypes[S, E, ES <: EventSourcedEntity[S, E]](entity: ES): Seq[Class[_]] = {
-    val eventType = eventSourcedEntityEventType(entity.getClass)
-    eventType.getPermittedSubclasses.toSeq
+  def isBatchHandler(method: Method): Boolean =
+    method.getAnnotation(classOf[Consume.Batch]) != null
+
+  /**
+   * The message type of a batch handler, `T` for a `List<MessageEnvelope<T>>` parameter, if the handler is declared
+   * with such a parameter.
+   */
+  def batchMessageType(method: Method): Option[Class[_]] = {
+    def rawClass(tpe: Type): Option[Class[_]] =
+      tpe match {
+        case clazz: Class[_]                  => Some(clazz)
+        case parameterized: ParameterizedType => rawClass(parameterized.getRawType)
+        case _                                => None
+      }
+    def typeArgument(tpe: Type, of: Class[_]): Option[Type] =
+      tpe match {
+        case parameterized: ParameterizedType if parameterized.getRawType == of =>
+          parameterized.getActualTypeArguments.headOption
+        case _ => None
+      }
+
+    method.getGenericParameterTypes match {
+      case Array(param) =>
+        typeArgument(param, classOf[util.List[_]])
+          .flatMap(typeArgument(_, classOf[MessageEnvelope[_]]))
+          .flatMap(rawClass)
+      case _ => None
+    }
   }
 
+  /**
+   * The type of the messages consumed by a subscription method, the message type of a batch handler or else the last
+   * parameter.
+   */
+  def consumedType(method: Method): Class[_] =
+    (if (isBatchHandler(method)) batchMessageType(method) else None).getOrElse(method.getParameterTypes.last)
+
+  def allKnownEventTypes[S, E, ES <: EventSourcedEntity[S, E]](entity: ES): Seq[Class[_]] =
+    eventSourcedEntityTypes(entity.getClass).knownEventTypes
+
   def workflowStateType[S, W <: Workflow[S]](workflow: W): Class[S] = {
     @tailrec
     def loop(current: Class[_]): Class[_] =
@@ -156,11 +195,30 @@ private[impl] object Reflect {
     loop(workflow.getClass).asInstanceOf[Class[S]]
   }
 
+  /**
+   * The state and event types of an event sourced entity class, resolved once per class.
+   */
+  final case class EventSourcedEntityTypes(stateType: Class[_], eventType: Class[_]) {
+    // the permitted subclasses of the sealed event interface
+    lazy val knownEventTypes: Seq[Class[_]] =
+      Option(eventType.getPermittedSubclasses).map(_.toSeq).getOrElse(Seq.empty)
+  }
+
+  private val esEntityTypes = new ClassValue[EventSourcedEntityTypes] {
+    override def computeValue(component: Class[_]): EventSourcedEntityTypes = {
+      val applyEvent = concreteEsApplyEventMethod(component)
+      EventSourcedEntityTypes(applyEvent.getReturnType, applyEvent.getParameterTypes.head)
+    }
+  }
+
+  def eventSourcedEntityTypes(component: Class[_]): EventSourcedEntityTypes =
+    esEntityTypes.get(component)
+
   def eventSourcedEntityEventType(component: Class[_]): Class[_] =
-    concreteEsApplyEventMethod(component).getParameterTypes.head
+    eventSourcedEntityTypes(component).eventType
 
   def eventSourcedEntityStateType(component: Class[_]): Class[_] =
-    concreteEsApplyEventMethod(component).getReturnType
+    eventSourcedEntityTypes(component).stateType
 
   private def concreteEsApplyEventMethod(component: Class[_]): Method = {
     component.getMethods
@@ -179,36 +237,46 @@ private[impl] object Reflect {
   implicit val methodOrdering: Ordering[Method] =
     Ordering.by((m: Method) => (m.getName, m.getReturnType.getName, m.getParameterTypes.map(_.getName)))
 
-  def lookupComponentClientFields(instance: Any): List[ComponentClientImpl] = {
-    // collect all ComponentClients in passed clz
-    // also scan superclasses as declaredFields only return fields declared in current class
-    // Note: although unlikely, we can't be certain that a user will inject the component client only once
-    // nor can we account for single inheritance. ComponentClients can be defined on passed instance or on superclass
-    // and users can define different fields for ComponentClient
-    @tailrec
-    def collectAll(currentClz: Class[_], acc: List[ComponentClientImpl]): List[ComponentClientImpl] = {
-      if (currentClz == classOf[Any]) acc // return when reach Object/Any
-      else {
-        val fields = currentClz.getDeclaredFields
-        val clients = // all client instances found in current class definition
-          fields
-            .collect { case field if field.getType == classOf[ComponentClient] => field }
-            .map { field =>
-              field.setAccessible(true)
-              field.get(instance).asInstanceOf[ComponentClientImpl]
-            }
-        collectAll(currentClz.getSuperclass, acc ++ clients)
+  // the component client fields are resolved and made accessible once per component class
+  private val componentClientFields = new ClassValue[List[Field]] {
+    override def computeValue(clz: Class[_]): List[Field] = {
+      // collect all ComponentClients in passed clz
+      // also scan superclasses as declaredFields only return fields declared in current class
+      // Note: although unlikely, we can't be certain that a user will inject the component client only once
+      // nor can we account for single inheritance. ComponentClients can be defined on passed instance or on superclass
+      // and users can define different fields for ComponentClient
+      @tailrec
+      def collectAll(currentClz: Class[_], acc: List[Field]): List[Field] = {
+        if (currentClz == classOf[Any]) acc // return when reach Object/Any
+        else {
+          val fields = // all client fields found in current class definition
+            currentClz.getDeclaredFields
+              .collect { case field if field.getType == classOf[ComponentClient] => field }
+          fields.foreach(_.setAccessible(true))
+          collectAll(currentClz.getSuperclass, acc ++ fields)
+        }
       }
+
+      collectAll(clz, List.empty)
+    }
+  }
+
+  def lookupComponentClientFields(instance: Any): List[ComponentClientImpl] =
+    componentClientFields.get(instance.getClass) match {
+      case Nil    => Nil
+      case fields => fields.map(_.get(instance).asInstanceOf[ComponentClientImpl])
     }
 
-    collectAll(instance.getClass, List.empty)
+  private val tableUpdaterTableTypes = new ClassValue[Class[_]] {
+    override def computeValue(tableUpdater: Class[_]): Class[_] =
+      tableUpdater.getGenericSuperclass
+        .asInstanceOf[ParameterizedType]
+        .getActualTypeArguments
+        .head
+        .asInstanceOf[Class[_]]
   }
 
   def tableTypeForTableUpdater(tableUpdater: Class[_]): Class[_] =
-    tableUpdater.getGenericSuperclass
-      .asInstanceOf[ParameterizedType]
-      .getActualTypeArguments
-      .head
-      .asInstanceOf[Class[_]]
+    tableUpdaterTableTypes.get(tableUpdater)
 
 }
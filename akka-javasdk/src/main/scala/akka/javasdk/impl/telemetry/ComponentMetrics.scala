@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.telemetry
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+import akka.annotation.InternalApi
+import io.grpc.Status
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.common.Attributes
+import io.opentelemetry.api.metrics.DoubleHistogram
+import io.opentelemetry.api.metrics.LongCounter
+import io.opentelemetry.api.metrics.LongHistogram
+import io.opentelemetry.api.metrics.Meter
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+sealed abstract class ComponentOperation(val name: String, val index: Int)
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+object ComponentOperation {
+  case object Command extends ComponentOperation("command", 0)
+  case object Event extends ComponentOperation("event", 1)
+  case object Step extends ComponentOperation("step", 2)
+  case object Update extends ComponentOperation("update", 3)
+  case object Message extends ComponentOperation("message", 4)
+
+  val values: Vector[ComponentOperation] = Vector(Command, Event, Step, Update, Message)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+object SdkMetrics {
+
+  val Disabled: SdkMetrics = new SdkMetrics(None)
+
+  def apply(enabled: Boolean, meterFactory: () => Meter): SdkMetrics =
+    if (enabled) new SdkMetrics(Some(new Instruments(meterFactory())))
+    else Disabled
+
+  private[telemetry] final class Instruments(meter: Meter) {
+    val operations: LongCounter =
+      meter
+        .counterBuilder("akka.javasdk.component.operations")
+        .setDescription("Number of commands, events, steps, view updates and messages handled by components")
+        .build()
+    val operationDuration: DoubleHistogram =
+      meter
+        .histogramBuilder("akka.javasdk.component.operation.duration")
+        .setDescription("Time spent in the component handler, including decoding and encoding")
+        .setUnit("s")
+        .build()
+    val serializationDuration: DoubleHistogram =
+      meter
+        .histogramBuilder("akka.javasdk.component.serialization.duration")
+        .setDescription("Time spent encoding replies, events and state")
+        .setUnit("s")
+        .build()
+    val errors: LongCounter =
+      meter
+        .counterBuilder("akka.javasdk.component.errors")
+        .setDescription("Number of operations that failed or replied with an error")
+        .build()
+    val payloadSize: LongHistogram =
+      meter
+        .histogramBuilder("akka.javasdk.component.payload.size")
+        .setDescription("Size of incoming payloads")
+        .setUnit("By")
+        .ofLongs()
+        .build()
+    val queryCacheLookups: LongCounter =
+      meter
+        .counterBuilder("akka.javasdk.view.query.cache.lookups")
+        .setDescription("Number of view query results looked up in the query cache, by whether they were cached")
+        .build()
+    val queryCacheEntryAge: DoubleHistogram =
+      meter
+        .histogramBuilder("akka.javasdk.view.query.cache.entry.age")
+        .setDescription("Age of the cached view query results served from the query cache")
+        .setUnit("s")
+        .build()
+  }
+}
+
+/**
+ * Creates the metrics for each component, instruments are shared between all components.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+final class SdkMetrics private (instruments: Option[SdkMetrics.Instruments]) {
+
+  def forComponent(componentCategory: ComponentCategory, componentId: String): ComponentMetrics =
+    instruments match {
+      case Some(i) => new RecordingComponentMetrics(i, componentCategory, componentId)
+      case None    => ComponentMetrics.Disabled
+    }
+}
+
+/**
+ * Metrics for one component. Attributes are created up front, so recording does not allocate beyond what the
+ * OpenTelemetry SDK does. Timings are taken with `startTimer()`, which does not read the clock when metrics are
+ * disabled.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+sealed abstract class ComponentMetrics {
+  def enabled: Boolean
+  def startTimer(): Long
+  def recordHandled(operation: ComponentOperation, startTime: Long): Unit
+  def recordFailed(operation: ComponentOperation, startTime: Long, code: Status.Code): Unit
+  def recordSerialization(startTime: Long): Unit
+  def recordPayloadSize(operation: ComponentOperation, bytes: Int): Unit
+  def recordQueryCacheHit(entryAgeNanos: Long): Unit
+  def recordQueryCacheMiss(): Unit
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+object ComponentMetrics {
+
+  val ComponentTypeKey: AttributeKey[String] = AttributeKey.stringKey("component.type")
+  val ComponentTypeIdKey: AttributeKey[String] = AttributeKey.stringKey("component.type_id")
+  val OperationKey: AttributeKey[String] = AttributeKey.stringKey("operation")
+  val StatusCodeKey: AttributeKey[String] = AttributeKey.stringKey("status.code")
+  val CacheHitKey: AttributeKey[java.lang.Boolean] = AttributeKey.booleanKey("cache.hit")
+
+  object Disabled extends ComponentMetrics {
+    override def enabled: Boolean = false
+    override def startTimer(): Long = 0L
+    override def recordHandled(operation: ComponentOperation, startTime: Long): Unit = ()
+    override def recordFailed(operation: ComponentOperation, startTime: Long, code: Status.Code): Unit = ()
+    override def recordSerialization(startTime: Long): Unit = ()
+    override def recordPayloadSize(operation: ComponentOperation, bytes: Int): Unit = ()
+    override def recordQueryCacheHit(entryAgeNanos: Long): Unit = ()
+    override def recordQueryCacheMiss(): Unit = ()
+  }
+
+  private[telemetry] def secondsSince(startTime: Long): Double =
+    (System.nanoTime() - startTime).toDouble / TimeUnit.SECONDS.toNanos(1)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[telemetry] final class RecordingComponentMetrics(
+    instruments: SdkMetrics.Instruments,
+    componentCategory: ComponentCategory,
+    componentId: String)
+    extends ComponentMetrics {
+  import ComponentMetrics._
+
+  private val componentAttributes =
+    Attributes.of(ComponentTypeKey, componentCategory.name, ComponentTypeIdKey, componentId)
+
+  private val operationAttributes: Array[Attributes] =
+    ComponentOperation.values.map(op => componentAttributes.toBuilder.put(OperationKey, op.name).build()).toArray
+
+  private val cacheHitAttributes = componentAttributes.toBuilder.put(CacheHitKey, java.lang.Boolean.TRUE).build()
+  private val cacheMissAttributes = componentAttributes.toBuilder.put(CacheHitKey, java.lang.Boolean.FALSE).build()
+
+  private val statusCodes = Status.Code.values()
+
+  // per operation and status code, only created for the codes actually seen
+  private val errorAttributes = new AtomicReferenceArray[Attributes](operationAttributes.length * statusCodes.length)
+
+  override def enabled: Boolean = true
+
+  override def startTimer(): Long = System.nanoTime()
+
+  override def recordHandled(operation: ComponentOperation, startTime: Long): Unit = {
+    val attributes = operationAttributes(operation.index)
+    instruments.operations.add(1, attributes)
+    instruments.operationDuration.record(secondsSince(startTime), attributes)
+  }
+
+  override def recordFailed(operation: ComponentOperation, startTime: Long, code: Status.Code): Unit = {
+    recordHandled(operation, startTime)
+    instruments.errors.add(1, errorAttributesFor(operation, code))
+  }
+
+  override def recordSerialization(startTime: Long): Unit =
+    instruments.serializationDuration.record(secondsSince(startTime), componentAttributes)
+
+  override def recordPayloadSize(operation: ComponentOperation, bytes: Int): Unit =
+    instruments.payloadSize.record(bytes.toLong, operationAttributes(operation.index))
+
+  override def recordQueryCacheHit(entryAgeNanos: Long): Unit = {
+    instruments.queryCacheLookups.add(1, cacheHitAttributes)
+    instruments.queryCacheEntryAge.record(entryAgeNanos.toDouble / TimeUnit.SECONDS.toNanos(1), cacheHitAttributes)
+  }
+
+  override def recordQueryCacheMiss(): Unit =
+    instruments.queryCacheLookups.add(1, cacheMissAttributes)
+
+  private def errorAttributesFor(operation: ComponentOperation, code: Status.Code): Attributes = {
+    val index = operation.index * statusCodes.length + code.ordinal()
+    val existing = errorAttributes.get(index)
+    if (existing ne null) existing
+    else {
+      val attributes = operationAttributes(operation.index).toBuilder.put(StatusCodeKey, code.name()).build()
+      errorAttributes.set(index, attributes)
+      attributes
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.telemetry
+
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+import akka.annotation.InternalApi
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+object SpanSampler {
+
+  val AlwaysOn: SpanSampler = new SpanSampler(1.0, 0)
+
+  def apply(samplingRatio: Double, maxSpansPerSecond: Int): SpanSampler = {
+    require(
+      samplingRatio >= 0.0 && samplingRatio <= 1.0,
+      s"Tracing sampling ratio must be between 0.0 and 1.0, was [$samplingRatio]")
+    require(maxSpansPerSecond >= 0, s"Max spans per second must not be negative, was [$maxSpansPerSecond]")
+    if (samplingRatio == 1.0 && maxSpansPerSecond == 0) AlwaysOn
+    else new SpanSampler(samplingRatio, maxSpansPerSecond)
+  }
+
+  private val OneSecondNanos = TimeUnit.SECONDS.toNanos(1)
+}
+
+/**
+ * Head based sampling of the spans the SDK starts for incoming calls, decided before the trace parent is extracted. A
+ * call is sampled if the random part of its trace id, read directly from the `traceparent` value, is below the
+ * configured ratio, like the OpenTelemetry `TraceIdRatioBased` sampler. Every SDK service with the same ratio therefore
+ * makes the same decision for a trace, so sampled traces are not cut off at random hops. At most the configured number
+ * of spans is started per second (0 for no limit), this limit is applied per service instance.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+final class SpanSampler private (samplingRatio: Double, maxSpansPerSecond: Int) {
+  import SpanSampler.OneSecondNanos
+
+  private val idUpperBound: Long = (samplingRatio * Long.MaxValue).toLong
+
+  private val windowStart = new AtomicLong(System.nanoTime())
+  private val spansInWindow = new AtomicInteger()
+
+  /**
+   * @param traceParent
+   *   the W3C `traceparent` value of the call, `version-traceid-parentid-flags`
+   */
+  def sample(traceParent: String): Boolean =
+    sampleRatio(traceParent) && withinRateLimit()
+
+  private def sampleRatio(traceParent: String): Boolean =
+    samplingRatio >= 1.0 || (samplingRatio > 0.0 && traceIdRandomPart(traceParent) < idUpperBound)
+
+  // the last 16 hex digits of the 32 digit trace id, a trace parent that is not valid is sampled at random
+  private def traceIdRandomPart(traceParent: String): Long = {
+    var value = 0L
+    var valid = traceParent.length >= 55 && traceParent.charAt(2) == '-' && traceParent.charAt(35) == '-'
+    var i = 19
+    while (valid && i < 35) {
+      val digit = Character.digit(traceParent.charAt(i), 16)
+      if (digit < 0) valid = false
+      else value = (value << 4) | digit
+      i += 1
+    }
+    // the absolute value, like the OpenTelemetry sampler uses, so Long.MinValue stays negative and is always sampled
+    if (valid) Math.abs(value)
+    else ThreadLocalRandom.current().nextLong(Long.MaxValue)
+  }
+
+  private def withinRateLimit(): Boolean =
+    maxSpansPerSecond == 0 || {
+      val now = System.nanoTime()
+      val start = windowStart.get()
+      if (now - start >= OneSecondNanos && windowStart.compareAndSet(start, now))
+        spansInWindow.set(0)
+      spansInWindow.incrementAndGet() <= maxSpansPerSecond
+    }
+}
@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory
 
 import java.lang
 import java.util.Collections
+import java.util.concurrent.ConcurrentHashMap
 import scala.collection.mutable
 import scala.jdk.OptionConverters._
 
@@ -70,6 +71,22 @@ case object KeyValueEntityCategory extends ComponentCategory {
   def name = "Key Value Entity"
 }
 
+/**
+ * INTERNAL API
+ */
+@InternalApi
+case object WorkflowCategory extends ComponentCategory {
+  def name = "Workflow"
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+case object ViewCategory extends ComponentCategory {
+  def name = "View"
+}
+
 /**
  * INTERNAL API
  */
@@ -123,7 +140,8 @@ private[akka] object TraceInstrumentation {
 private[akka] final class TraceInstrumentation(
     componentName: String,
     componentCategory: ComponentCategory,
-    val tracerFactory: () => Tracer) {
+    val tracerFactory: () => Tracer,
+    spanSampler: SpanSampler = SpanSampler.AlwaysOn) {
 
   import Telemetry._
   import TraceInstrumentation._
@@ -138,45 +156,59 @@ private[akka] final class TraceInstrumentation(
   private val tracer = tracerFactory()
   private val enabled = tracer != OpenTelemetry.noop().getTracer(InstrumentationScopeName)
 
+  // span names per command name, the set of command names of a component is bounded
+  private val spanNames = new ConcurrentHashMap[String, String]()
+  private val createSpanName: java.util.function.Function[String, String] =
+    commandName => s"$traceNamePrefix.${removeSyntheticName(commandName)}"
+
   /**
    * Creates a span if it finds a trace parent in the command's metadata
    */
   def buildSpan(service: Service, command: Command): Option[Span] =
-    if (enabled) internalBuildSpan(service, command.name, command.metadata, Some(command.entityId))
-    else None
+    if (enabled) {
+      val traceParent = findEntry(command.metadata, TRACE_PARENT_KEY)
+      if ((traceParent ne null) && spanSampler.sample(traceParent.value.stringValue.getOrElse("")))
+        Some(internalBuildSpan(service, command.name, traceParent, command.entityId))
+      else None
+    } else None
 
   /**
    * Creates a span if it finds a trace parent in the command's metadata
    */
   def buildSpan(service: Service, command: ActionCommand): Option[Span] =
     if (enabled) {
-      val subject =
-        command.metadata.flatMap(_.entries.find(_.key == MetadataImpl.CeSubject).flatMap(_.value.stringValue))
-      internalBuildSpan(service, command.name, command.metadata, subject)
+      val traceParent = findEntry(command.metadata, TRACE_PARENT_KEY)
+      if ((traceParent ne null) && spanSampler.sample(traceParent.value.stringValue.getOrElse(""))) {
+        val subjectEntry = findEntry(command.metadata, MetadataImpl.CeSubject)
+        val subject = if (subjectEntry ne null) subjectEntry.value.stringValue.orNull else null
+        Some(internalBuildSpan(service, command.name, traceParent, subject))
+      } else None
     } else None
 
+  /** @return the first entry with the key or null */
+  private def findEntry(metadata: Option[ProtocolMetadata], key: String): MetadataEntry =
+    metadata match {
+      case Some(md) => md.entries.find(_.key == key).orNull
+      case None     => null
+    }
+
   private def internalBuildSpan(
       service: Service,
       commandName: String,
-      commandMetadata: Option[ProtocolMetadata],
-      subjectId: Option[String]): Option[Span] = {
-    // only if there is a trace parent in the metadata
-    val traceParent = commandMetadata.flatMap(_.entries.find(_.key == TRACE_PARENT_KEY))
-    traceParent.map { traceParentMetadataEntry =>
-      val parentContext = propagator.getTextMapPropagator
-        .extract(OtelContext.current(), traceParentMetadataEntry, metadataEntryTraceParentGetter)
-
-      val spanName = s"$traceNamePrefix.${removeSyntheticName(commandName)}"
-      var spanBuilder =
-        tracer
-          .spanBuilder(spanName)
-          .setParent(parentContext)
-          .setSpanKind(SpanKind.SERVER)
-          .setAttribute("component.type", service.componentType)
-          .setAttribute("component.type_id", service.componentId)
-      subjectId.foreach(id => spanBuilder = spanBuilder.setAttribute("component.id", id))
-      spanBuilder.startSpan()
-    }
+      traceParentMetadataEntry: MetadataEntry,
+      subjectId: String): Span = {
+    val parentContext = propagator.getTextMapPropagator
+      .extract(OtelContext.current(), traceParentMetadataEntry, metadataEntryTraceParentGetter)
+
+    val spanBuilder =
+      tracer
+        .spanBuilder(spanNames.computeIfAbsent(commandName, createSpanName))
+        .setParent(parentContext)
+        .setSpanKind(SpanKind.SERVER)
+        .setAttribute("component.type", service.componentType)
+        .setAttribute("component.type_id", service.componentId)
+    if (subjectId ne null) spanBuilder.setAttribute("component.id", subjectId)
+    spanBuilder.startSpan()
   }
 
   private def removeSyntheticName(maybeSyntheticName: String): String =
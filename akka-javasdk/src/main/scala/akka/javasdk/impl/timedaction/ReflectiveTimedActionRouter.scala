@@ -11,6 +11,8 @@ import akka.javasdk.impl.InvocationContext
 import akka.javasdk.impl.reflection.Reflect
 import akka.javasdk.impl.AnySupport.ProtobufEmptyTypeUrl
 import akka.javasdk.impl.CommandSerialization
+import akka.javasdk.impl.ComponentCommandDispatcher
+import akka.javasdk.impl.ComponentCommandDispatchers
 import akka.javasdk.timedaction.CommandEnvelope
 import akka.javasdk.timedaction.TimedAction
 import com.google.protobuf.any.{ Any => ScalaPbAny }
@@ -21,7 +23,8 @@ import com.google.protobuf.any.{ Any => ScalaPbAny }
 @InternalApi
 private[impl] final class ReflectiveTimedActionRouter[A <: TimedAction](
     action: A,
-    commandHandlers: Map[String, CommandHandler])
+    commandHandlers: Map[String, CommandHandler],
+    commandDispatcher: Option[ComponentCommandDispatcher[AnyRef]] = None)
     extends TimedActionRouter[A](action) {
 
   private def commandHandlerLookup(commandName: String) =
@@ -44,10 +47,8 @@ private[impl] final class ReflectiveTimedActionRouter[A <: TimedAction](
       val methodInvoker = commandHandler.getSingleNameInvoker()
       val deserializedCommand =
         CommandSerialization.deserializeComponentClientCommand(methodInvoker.method, scalaPbAnyCommand)
-      val result = deserializedCommand match {
-        case None          => methodInvoker.invoke(action)
-        case Some(command) => methodInvoker.invokeDirectly(action, command)
-      }
+      val result =
+        ComponentCommandDispatchers.dispatch(commandDispatcher, action, commandName, methodInvoker, deserializedCommand)
       result.asInstanceOf[TimedAction.Effect]
     } else {
 
@@ -57,10 +58,8 @@ private[impl] final class ReflectiveTimedActionRouter[A <: TimedAction](
       // lookup ComponentClient
       val componentClients = Reflect.lookupComponentClientFields(action)
 
-      // inject call metadata
-      componentClients.foreach(cc =>
-        cc.callMetadata =
-          cc.callMetadata.map(existing => existing.merge(message.metadata())).orElse(Some(message.metadata())))
+      // inject call metadata, replacing any metadata from a previous command if the instance is reused
+      componentClients.foreach(_.callMetadata = Some(message.metadata()))
 
       val methodInvoker = commandHandler.lookupInvoker(inputTypeUrl)
       methodInvoker match {
@@ -5,6 +5,7 @@
 package akka.javasdk.impl.timedaction
 
 import akka.annotation.InternalApi
+import akka.javasdk.impl.InstancePool
 import akka.javasdk.impl.JsonMessageCodec
 import akka.javasdk.impl.Service
 import akka.javasdk.timedaction.TimedAction
@@ -19,10 +20,13 @@ import org.slf4j.LoggerFactory
 private[impl] class TimedActionService[A <: TimedAction](
     actionClass: Class[A],
     messageCodec: JsonMessageCodec,
-    val factory: () => A)
+    val factory: () => A,
+    reuseInstances: Boolean = false)
     extends Service(actionClass, Actions.name, messageCodec) {
   lazy val log: Logger = LoggerFactory.getLogger(actionClass)
 
   def createRouter(): TimedActionRouter[A] =
-    new ReflectiveTimedActionRouter[A](factory(), componentDescriptor.commandHandlers)
+    new ReflectiveTimedActionRouter[A](factory(), componentDescriptor.commandHandlers, commandDispatcher)
+
+  private[impl] val routerPool = new InstancePool[TimedActionRouter[A]](reuseInstances, () => createRouter())
 }
@@ -10,8 +10,8 @@ import akka.javasdk.impl.AnySupport
 import akka.javasdk.impl.CommandHandler
 import akka.javasdk.impl.ComponentDescriptorFactory
 import akka.javasdk.impl.InvocationContext
+import akka.javasdk.impl.reflection.Reflect
 
-import java.lang.reflect.ParameterizedType
 import com.google.protobuf.any.{ Any => ScalaPbAny }
 import akka.javasdk.impl.AnySupport.ProtobufEmptyTypeUrl
 import akka.javasdk.view.TableUpdater
@@ -29,26 +29,21 @@ class ReflectiveViewRouter[S, V <: TableUpdater[S]](
   private def commandHandlerLookup(commandName: String) =
     commandHandlers.getOrElse(commandName, throw new RuntimeException(s"no matching method for '$commandName'"))
 
-  override def handleUpdate(commandName: String, state: S, event: Any): TableUpdater.Effect[S] = {
+  private val viewStateType: Class[S] = Reflect.tableTypeForTableUpdater(updater.getClass).asInstanceOf[Class[S]]
 
-    val viewStateType: Class[S] =
-      updater.getClass.getGenericSuperclass
-        .asInstanceOf[ParameterizedType]
-        .getActualTypeArguments
-        .head
-        .asInstanceOf[Class[S]]
+  override def handleUpdate(commandName: String, state: S, event: Any): TableUpdater.Effect[S] = {
 
-    // the state: S received can either be of the view "state" type (if coming from emptyState)
-    // or PB Any type (if coming from the runtime)
+    // the state: S received can either be of the view "state" type (if coming from emptyState or from an
+    // earlier update in the same stream) or PB Any type (if coming from the runtime)
     state match {
-      case s if s == null || state.getClass == viewStateType =>
+      case s if s == null || viewStateType.isInstance(s) =>
         // note that we set the state even if null, this is needed in order to
         // be able to call viewState() later
         viewUpdater._internalSetViewState(s)
       case s =>
-        val deserializedState =
-          JsonSupport.decodeJson(viewStateType, ScalaPbAny.toJavaProto(s.asInstanceOf[ScalaPbAny]))
-        viewUpdater._internalSetViewState(deserializedState)
+        // only decoded if the handler accesses the row state, many handlers only look at the event
+        viewUpdater._internalSetLazyViewState(() =>
+          JsonSupport.decodeJson(viewStateType, ScalaPbAny.toJavaProto(s.asInstanceOf[ScalaPbAny])))
     }
 
     val commandHandler = commandHandlerLookup(commandName)
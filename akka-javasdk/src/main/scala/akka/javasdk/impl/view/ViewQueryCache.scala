@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.view
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+import akka.annotation.InternalApi
+import akka.javasdk.impl.telemetry.ComponentMetrics
+import akka.util.ByteString
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.jdk.CollectionConverters._
+
+/**
+ * Caches the serialized results of view queries with a `@Query` cacheTtlMillis, by view, query method and serialized
+ * query parameter. All cached results of a view are dropped when an update to the view is applied by this service.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+sealed trait ViewQueryCache {
+
+  /**
+   * @return
+   *   the cached result payload if there is one that has not expired, otherwise the result of `runQuery`, which is
+   *   cached
+   */
+  def query(componentId: String, methodName: String, ttlMillis: Long, maxEntries: Int, parameter: ByteString)(
+      runQuery: () => Future[ByteString])(implicit ec: ExecutionContext): Future[ByteString]
+
+  /** Drop the cached results of the view, after an update has been applied to it */
+  def invalidate(componentId: String): Unit
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+object ViewQueryCache {
+
+  object Disabled extends ViewQueryCache {
+    override def query(
+        componentId: String,
+        methodName: String,
+        ttlMillis: Long,
+        maxEntries: Int,
+        parameter: ByteString)(runQuery: () => Future[ByteString])(implicit ec: ExecutionContext): Future[ByteString] =
+      runQuery()
+
+    override def invalidate(componentId: String): Unit = ()
+  }
+
+  /**
+   * @param metricsFor
+   *   the metrics of a view, by component id, for the cache hits and misses
+   */
+  final class Enabled(metricsFor: String => ComponentMetrics) extends ViewQueryCache {
+    private val views = new ConcurrentHashMap[String, ViewResults]()
+
+    override def query(
+        componentId: String,
+        methodName: String,
+        ttlMillis: Long,
+        maxEntries: Int,
+        parameter: ByteString)(runQuery: () => Future[ByteString])(implicit ec: ExecutionContext): Future[ByteString] =
+      if (ttlMillis <= 0) runQuery()
+      else
+        views
+          .computeIfAbsent(componentId, id => new ViewResults(metricsFor(id)))
+          .query(methodName, TimeUnit.MILLISECONDS.toNanos(ttlMillis), maxEntries, parameter, runQuery)
+
+    override def invalidate(componentId: String): Unit = {
+      val results = views.get(componentId)
+      if (results ne null) results.invalidate()
+    }
+  }
+
+  /**
+   * @param storedAt
+   *   when the query producing the result was started, the view may have been updated while it ran
+   */
+  private final class CachedResult(val payload: ByteString, val storedAt: Long, val generation: Long) {
+    // only used to pick the results to drop when trimming, so updated without any ordering between hits
+    @volatile var lastUsed: Long = storedAt
+  }
+
+  private final class ViewResults(metrics: ComponentMetrics) {
+
+    // incremented by every invalidation, results of an earlier generation are neither cached nor served
+    private val generation = new AtomicLong()
+    private val queries = new ConcurrentHashMap[String, ConcurrentHashMap[ByteString, CachedResult]]()
+
+    def query(
+        methodName: String,
+        ttlNanos: Long,
+        maxEntries: Int,
+        parameter: ByteString,
+        runQuery: () => Future[ByteString])(implicit ec: ExecutionContext): Future[ByteString] = {
+      val now = System.nanoTime()
+      val queryGeneration = generation.get()
+      val results = resultsFor(methodName)
+      val cached = results.get(parameter)
+
+      if ((cached ne null) && cached.generation == queryGeneration && now - cached.storedAt <= ttlNanos) {
+        cached.lastUsed = now
+        metrics.recordQueryCacheHit(now - cached.storedAt)
+        Future.successful(cached.payload)
+      } else {
+        if (cached ne null) results.remove(parameter, cached)
+        metrics.recordQueryCacheMiss()
+        runQuery().map { payload =>
+          if (generation.get() == queryGeneration) {
+            results.put(parameter, new CachedResult(payload, now, queryGeneration))
+            if (results.size() > maxEntries) trim(results, maxEntries)
+          }
+          payload
+        }
+      }
+    }
+
+    def invalidate(): Unit = {
+      generation.incrementAndGet()
+      queries.clear()
+    }
+
+    private def resultsFor(methodName: String): ConcurrentHashMap[ByteString, CachedResult] = {
+      val results = queries.get(methodName)
+      if (results ne null) results
+      else queries.computeIfAbsent(methodName, _ => new ConcurrentHashMap[ByteString, CachedResult]())
+    }
+
+    // drops the least recently used results, only done when a result is added so that a hit does not have to lock
+    private def trim(results: ConcurrentHashMap[ByteString, CachedResult], maxEntries: Int): Unit =
+      results.synchronized {
+        while (results.size() > maxEntries) {
+          val eldest = results.entrySet().asScala.minByOption(_.getValue.lastUsed)
+          eldest.foreach(entry => results.remove(entry.getKey, entry.getValue))
+        }
+      }
+  }
+}
@@ -9,17 +9,23 @@ import scala.util.control.NonFatal
 import akka.annotation.InternalApi
 import akka.javasdk.Metadata
 import akka.javasdk.impl.AbstractContext
+import akka.javasdk.impl.InstancePool
 import akka.javasdk.impl.JsonMessageCodec
 import akka.javasdk.impl.MetadataImpl
 import akka.javasdk.impl.Service
 import akka.javasdk.impl.reflection.Reflect
+import akka.javasdk.impl.telemetry.ComponentMetrics
+import akka.javasdk.impl.telemetry.ComponentOperation
+import akka.javasdk.impl.telemetry.ComponentOperationEvent
+import akka.javasdk.impl.telemetry.SdkMetrics
 import akka.javasdk.impl.telemetry.Telemetry
+import akka.javasdk.impl.telemetry.ViewCategory
 import akka.javasdk.view.TableUpdater
 import akka.javasdk.view.UpdateContext
 import akka.javasdk.view.View
-import akka.stream.scaladsl.Source
 import kalix.protocol.{ view => pv }
 import com.google.protobuf.any.{ Any => ScalaPbAny }
+import io.grpc.Status
 import org.slf4j.LoggerFactory
 import org.slf4j.MDC
 
@@ -30,7 +36,8 @@ import org.slf4j.MDC
 final class ViewService[V <: View](
     viewClass: Class[_],
     messageCodec: JsonMessageCodec,
-    wiredInstance: Class[TableUpdater[AnyRef]] => TableUpdater[AnyRef])
+    wiredInstance: Class[TableUpdater[AnyRef]] => TableUpdater[AnyRef],
+    reuseTableUpdaters: Boolean)
     extends Service(viewClass, pv.Views.name, messageCodec) {
 
   private def viewUpdaterFactories(): Set[TableUpdater[AnyRef]] = {
@@ -48,6 +55,9 @@ final class ViewService[V <: View](
       .toMap[Class[TableUpdater[AnyRef]], TableUpdater[AnyRef]]
     new ReflectiveViewMultiTableRouter(viewUpdaters, componentDescriptor.commandHandlers)
   }
+
+  private[impl] val routerPool =
+    new InstancePool[ReflectiveViewMultiTableRouter](reuseTableUpdaters, () => createRouter())
 }
 
 /**
@@ -56,111 +66,173 @@ final class ViewService[V <: View](
 @InternalApi
 object ViewsImpl {
   private val log = LoggerFactory.getLogger(classOf[ViewsImpl])
+
+  /**
+   * The row state after the last update of a stream, updates for the same row are routed to the same command.
+   */
+  private final case class FoldedRow(serviceName: String, commandName: String, subject: String, state: Option[Any]) {
+    def isFor(receiveEvent: pv.ReceiveEvent): Boolean =
+      receiveEvent.serviceName == serviceName && receiveEvent.commandName == commandName
+  }
+
+  /**
+   * The state of a stream, the last updated row and the views written to by the stream so far.
+   */
+  private final case class UpdateStream(lastRow: Option[FoldedRow], updatedViews: Set[String])
 }
 
 /**
  * INTERNAL API
  */
 @InternalApi
-final class ViewsImpl(_services: Map[String, ViewService[_]], sdkDispatcherName: String) extends pv.Views {
+final class ViewsImpl(
+    _services: Map[String, ViewService[_]],
+    sdkDispatcherName: String,
+    sdkMetrics: SdkMetrics = SdkMetrics.Disabled,
+    viewQueryCache: ViewQueryCache = ViewQueryCache.Disabled)
+    extends pv.Views {
+  import ViewsImpl.FoldedRow
+  import ViewsImpl.UpdateStream
   import ViewsImpl.log
 
   private final val services = _services.iterator.toMap
 
+  private val metrics: Map[String, ComponentMetrics] = services.values.map { s =>
+    (s.componentId, sdkMetrics.forComponent(ViewCategory, s.componentId))
+  }.toMap
+
   /**
-   * Handle a full duplex streamed session. One stream will be established per incoming message to the view service.
+   * Handle a full duplex streamed session. Each incoming ReceiveEvent is answered with one Upsert or Delete, a stream
+   * can carry any number of events.
+   *
+   * The row state resulting from an update is kept for the rest of the stream, and used instead of the looked up row
+   * for the next event if that is for the same row, so that consecutive updates of one row are folded in memory rather
+   * than decoding the row again for every event. Every event is still answered with its own write, since the runtime
+   * expects one response per event.
    *
-   * The first message is ReceiveEvent and contain the request metadata, including the service name and command name.
+   * The cached query results of a view are dropped when an update to it is handled, and again once the stream has
+   * completed. The runtime writes the rows after it has received the responses, and may do so after the stream has
+   * completed, so a query running in between can still cache the result from before the update.
    */
   override def handle(in: akka.stream.scaladsl.Source[pv.ViewStreamIn, akka.NotUsed])
       : akka.stream.scaladsl.Source[pv.ViewStreamOut, akka.NotUsed] =
     // FIXME: see runtime issues #207 and #209
-    // It is currently only implemented to support one request (ReceiveEvent) with one response (Upsert).
+    // The runtime currently only sends one request (ReceiveEvent) per stream, expecting one response (Upsert).
     // The intention, and reason for full-duplex streaming, is that there should be able to have an interaction
     // with two main types of operations, loads, and updates, and with
     // each load there is an associated continuation, which in turn may return more operations, including more loads,
     // and so on recursively.
-    in.prefixAndTail(1)
-      .flatMapConcat {
-        case (Seq(pv.ViewStreamIn(pv.ViewStreamIn.Message.Receive(receiveEvent), _)), _) =>
-          services.get(receiveEvent.serviceName) match {
-            case Some(service) =>
-              // FIXME should we really create a new handler instance per incoming command ???
-              val handler = service.createRouter()
-
-              val state: Option[Any] =
-                receiveEvent.bySubjectLookupResult.flatMap(row =>
-                  row.value.map(scalaPb => service.messageCodec.decodeMessage(scalaPb)))
-
-              val commandName = receiveEvent.commandName
-              val msg = service.messageCodec.decodeMessage(receiveEvent.payload.get)
-              val metadata = MetadataImpl.of(receiveEvent.metadata.map(_.entries.toVector).getOrElse(Nil))
-              val addedToMDC = metadata.traceId match {
-                case Some(traceId) =>
-                  MDC.put(Telemetry.TRACE_ID, traceId)
-                  true
-                case None => false
-              }
-              val context = new UpdateContextImpl(commandName, metadata)
-
-              val effect =
-                try {
-                  handler._internalHandleUpdate(state, msg, context)
-                } catch {
-                  case NonFatal(error) =>
-                    log.error(s"View updater for view [${service.componentId}] threw an exception", error)
-                    throw ViewException(
-                      service.componentId,
-                      context,
-                      s"View unexpected failure: ${error.getMessage}",
-                      Some(error))
-                } finally {
-                  if (addedToMDC) MDC.remove(Telemetry.TRACE_ID)
-                }
-
-              effect match {
-                case ViewEffectImpl.Update(newState) =>
-                  if (newState == null) {
-                    log.error(
-                      s"View updater tried to set row state to null, not allowed [${service.componentId}] threw an exception")
-                    throw ViewException(
-                      service.componentId,
-                      context,
-                      "updateState with null state is not allowed.",
-                      None)
-                  }
-                  val serializedState = ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(newState))
-                  val upsert = pv.Upsert(Some(pv.Row(value = Some(serializedState))))
-                  val out = pv.ViewStreamOut(pv.ViewStreamOut.Message.Upsert(upsert))
-                  Source.single(out)
-                case ViewEffectImpl.Delete =>
-                  val delete = pv.Delete()
-                  val out = pv.ViewStreamOut(pv.ViewStreamOut.Message.Delete(delete))
-                  Source.single(out)
-                case ViewEffectImpl.Ignore =>
-                  // ignore incoming event
-                  val upsert = pv.Upsert(None)
-                  val out = pv.ViewStreamOut(pv.ViewStreamOut.Message.Upsert(upsert))
-                  Source.single(out)
-              }
-
-            case None =>
-              val errMsg = s"Unknown service: ${receiveEvent.serviceName}"
-              log.error(errMsg)
-              Source.failed(new RuntimeException(errMsg))
-          }
-
-        case (Seq(), _) =>
-          log.warn("View stream closed before init.")
-          Source.empty[pv.ViewStreamOut]
-
-        case (Seq(pv.ViewStreamIn(other, _)), _) =>
-          val errMsg =
-            s"Kalix protocol failure: expected ReceiveEvent message, but got ${other.getClass.getName}"
-          Source.failed(new RuntimeException(errMsg))
-      }
+    in.statefulMap(() => UpdateStream(None, Set.empty))(
+        {
+          case (stream, pv.ViewStreamIn(pv.ViewStreamIn.Message.Receive(receiveEvent), _)) =>
+            services.get(receiveEvent.serviceName) match {
+              case Some(service) =>
+                val (out, row) = handleReceiveEvent(service, receiveEvent, stream.lastRow)
+                val updated = out.message.isDelete || out.message.upsert.exists(_.row.isDefined)
+                val updatedViews = if (updated) stream.updatedViews + service.componentId else stream.updatedViews
+                (UpdateStream(row, updatedViews), out)
+              case None =>
+                val errMsg = s"Unknown service: ${receiveEvent.serviceName}"
+                log.error(errMsg)
+                throw new RuntimeException(errMsg)
+            }
+
+          case (_, pv.ViewStreamIn(other, _)) =>
+            throw new RuntimeException(
+              s"Kalix protocol failure: expected ReceiveEvent message, but got ${other.getClass.getName}")
+        },
+        // also invoked if the stream fails or is cancelled
+        stream => {
+          stream.updatedViews.foreach(viewQueryCache.invalidate)
+          None
+        })
       .async(sdkDispatcherName)
 
+  private def handleReceiveEvent(
+      service: ViewService[_],
+      receiveEvent: pv.ReceiveEvent,
+      lastRow: Option[FoldedRow]): (pv.ViewStreamOut, Option[FoldedRow]) = {
+    val componentMetrics = metrics(service.componentId)
+    val startTime = componentMetrics.startTimer()
+    val jfrEvent = new ComponentOperationEvent
+    jfrEvent.begin()
+    val payloadBytes = receiveEvent.payload.fold(0)(_.value.size())
+    componentMetrics.recordPayloadSize(ComponentOperation.Update, payloadBytes)
+    // updaters are reused across updates when enabled through akka.javasdk.view.reuse-table-updaters
+    val handler = service.routerPool.acquire()
+
+    val commandName = receiveEvent.commandName
+    val metadata = MetadataImpl.of(receiveEvent.metadata.map(_.entries).getOrElse(Nil))
+    val subject = metadata.getScala(MetadataImpl.CeSubject)
+
+    val state: Option[Any] =
+      lastRow match {
+        case Some(row) if subject.contains(row.subject) && row.isFor(receiveEvent) =>
+          row.state
+        case _ =>
+          receiveEvent.bySubjectLookupResult.flatMap(row =>
+            row.value.map(scalaPb => service.messageCodec.decodeMessage(scalaPb)))
+      }
+    def foldedRow(newState: Option[Any]): Option[FoldedRow] =
+      subject.map(FoldedRow(receiveEvent.serviceName, commandName, _, newState))
+
+    val msg = service.messageCodec.decodeMessage(receiveEvent.payload.get)
+    val addedToMDC = metadata.traceId match {
+      case Some(traceId) =>
+        MDC.put(Telemetry.TRACE_ID, traceId)
+        true
+      case None => false
+    }
+    val context = new UpdateContextImpl(commandName, metadata)
+
+    val effect =
+      try {
+        val effect = handler._internalHandleUpdate(state, msg, context)
+        service.routerPool.release(handler)
+        effect
+      } catch {
+        case NonFatal(error) =>
+          componentMetrics.recordFailed(ComponentOperation.Update, startTime, Status.Code.INTERNAL)
+          log.error(s"View updater for view [${service.componentId}] threw an exception", error)
+          throw ViewException(
+            service.componentId,
+            context,
+            s"View unexpected failure: ${error.getMessage}",
+            Some(error))
+      } finally {
+        if (jfrEvent.isEnabled)
+          jfrEvent.complete(service.componentId, ComponentOperation.Update, commandName, subject.orNull, payloadBytes)
+        if (addedToMDC) MDC.remove(Telemetry.TRACE_ID)
+      }
+
+    effect match {
+      case ViewEffectImpl.Update(newState) =>
+        if (newState == null) {
+          componentMetrics.recordFailed(ComponentOperation.Update, startTime, Status.Code.INTERNAL)
+          log.error(
+            s"View updater tried to set row state to null, not allowed [${service.componentId}] threw an exception")
+          throw ViewException(service.componentId, context, "updateState with null state is not allowed.", None)
+        }
+        val serializationStartTime = componentMetrics.startTimer()
+        val serializedState = ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(newState))
+        componentMetrics.recordSerialization(serializationStartTime)
+        componentMetrics.recordHandled(ComponentOperation.Update, startTime)
+        viewQueryCache.invalidate(service.componentId)
+        val upsert = pv.Upsert(Some(pv.Row(value = Some(serializedState))))
+        (pv.ViewStreamOut(pv.ViewStreamOut.Message.Upsert(upsert)), foldedRow(Some(newState)))
+      case ViewEffectImpl.Delete =>
+        componentMetrics.recordHandled(ComponentOperation.Update, startTime)
+        viewQueryCache.invalidate(service.componentId)
+        val delete = pv.Delete()
+        (pv.ViewStreamOut(pv.ViewStreamOut.Message.Delete(delete)), foldedRow(None))
+      case ViewEffectImpl.Ignore =>
+        // ignore incoming event
+        componentMetrics.recordHandled(ComponentOperation.Update, startTime)
+        val upsert = pv.Upsert(None)
+        (pv.ViewStreamOut(pv.ViewStreamOut.Message.Upsert(upsert)), foldedRow(state))
+    }
+  }
+
   private final class UpdateContextImpl(override val eventName: String, override val metadata: Metadata)
       extends AbstractContext
       with UpdateContext {
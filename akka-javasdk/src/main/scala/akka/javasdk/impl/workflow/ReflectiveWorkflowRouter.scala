@@ -8,6 +8,8 @@ import akka.annotation.InternalApi
 import akka.javasdk.impl.AnySupport
 import akka.javasdk.impl.CommandHandler
 import akka.javasdk.impl.CommandSerialization
+import akka.javasdk.impl.ComponentCommandDispatcher
+import akka.javasdk.impl.ComponentCommandDispatchers
 import akka.javasdk.impl.InvocationContext
 import akka.javasdk.workflow.CommandContext
 import akka.javasdk.workflow.Workflow
@@ -19,7 +21,8 @@ import com.google.protobuf.any.{ Any => ScalaPbAny }
 @InternalApi
 class ReflectiveWorkflowRouter[S, W <: Workflow[S]](
     override protected val workflow: W,
-    commandHandlers: Map[String, CommandHandler])
+    commandHandlers: Map[String, CommandHandler],
+    commandDispatcher: Option[ComponentCommandDispatcher[AnyRef]] = None)
     extends WorkflowRouter[S, W](workflow) {
 
   private def commandHandlerLookup(commandName: String) =
@@ -42,10 +45,12 @@ class ReflectiveWorkflowRouter[S, W <: Workflow[S]](
       val methodInvoker = commandHandler.getSingleNameInvoker()
       val deserializedCommand =
         CommandSerialization.deserializeComponentClientCommand(methodInvoker.method, scalaPbAnyCommand)
-      val result = deserializedCommand match {
-        case None          => methodInvoker.invoke(workflow)
-        case Some(command) => methodInvoker.invokeDirectly(workflow, command)
-      }
+      val result = ComponentCommandDispatchers.dispatch(
+        commandDispatcher,
+        workflow,
+        commandName,
+        methodInvoker,
+        deserializedCommand)
       result.asInstanceOf[Workflow.Effect[_]]
     } else {
 
@@ -21,7 +21,12 @@ import akka.javasdk.impl.StrictJsonMessageCodec
 import akka.javasdk.impl.WorkflowExceptions.ProtocolException
 import akka.javasdk.impl.WorkflowExceptions.WorkflowException
 import akka.javasdk.impl.WorkflowExceptions.failureMessageForLog
+import akka.javasdk.impl.telemetry.ComponentMetrics
+import akka.javasdk.impl.telemetry.ComponentOperation
+import akka.javasdk.impl.telemetry.ComponentOperationEvent
+import akka.javasdk.impl.telemetry.SdkMetrics
 import akka.javasdk.impl.telemetry.SpanTracingImpl
+import akka.javasdk.impl.telemetry.WorkflowCategory
 import akka.javasdk.impl.timer.TimerSchedulerImpl
 import akka.javasdk.impl.workflow.WorkflowEffectImpl.DeleteState
 import akka.javasdk.impl.workflow.WorkflowEffectImpl.End
@@ -94,7 +99,7 @@ final class WorkflowService[S, W <: Workflow[S]](
     extends Service(workflowClass, WorkflowEntities.name, messageCodec) {
 
   def createRouter(context: WorkflowContext) =
-    new ReflectiveWorkflowRouter[S, W](instanceFactory(context), componentDescriptor.commandHandlers)
+    new ReflectiveWorkflowRouter[S, W](instanceFactory(context), componentDescriptor.commandHandlers, commandDispatcher)
 
   val strictMessageCodec = new StrictJsonMessageCodec(messageCodec)
 
@@ -109,12 +114,17 @@ final class WorkflowImpl(
     timerClient: TimerClient,
     sdkExcutionContext: ExecutionContext,
     sdkDispatcherName: String,
-    tracerFactory: () => Tracer)
+    tracerFactory: () => Tracer,
+    sdkMetrics: SdkMetrics = SdkMetrics.Disabled)
     extends kalix.protocol.workflow_entity.WorkflowEntities {
 
   private implicit val ec: ExecutionContext = sdkExcutionContext
   private final val log = LoggerFactory.getLogger(this.getClass)
 
+  private val metrics: Map[String, ComponentMetrics] = services.values.map { s =>
+    (s.componentId, sdkMetrics.forComponent(WorkflowCategory, s.componentId))
+  }.toMap
+
   override def handle(in: Source[WorkflowStreamIn, NotUsed]): Source[WorkflowStreamOut, NotUsed] =
     in.prefixAndTail(1)
       .flatMapConcat {
@@ -200,6 +210,7 @@ final class WorkflowImpl(
     val router: WorkflowRouter[_, _] =
       service.createRouter(new WorkflowContextImpl(init.entityId))
     val workflowId = init.entityId
+    val componentMetrics = metrics(service.componentId)
 
     val workflowConfig =
       WorkflowStreamOut(
@@ -220,7 +231,7 @@ final class WorkflowImpl(
           persistence match {
             case UpdateState(newState) =>
               router._internalSetInitState(newState, transition.isInstanceOf[End.type])
-              WorkflowEffect.defaultInstance.withUserState(service.strictMessageCodec.encodeScala(newState))
+              WorkflowEffect.defaultInstance.withUserState(service.messageCodec.encodeStateOrEvent(newState))
             // TODO: persistence should be optional, but we must ensure that we don't save it back to null
             // and preferably we should not even send it over the wire.
             case NoPersistence => WorkflowEffect.defaultInstance
@@ -288,7 +299,10 @@ final class WorkflowImpl(
           Future.failed(ProtocolException(command, "Receiving Workflow is not the intended recipient of command"))
 
         case InCommand(command) =>
-          val metadata = MetadataImpl.of(command.metadata.map(_.entries.toVector).getOrElse(Nil))
+          val startTime = componentMetrics.startTimer()
+          if (componentMetrics.enabled)
+            componentMetrics.recordPayloadSize(ComponentOperation.Command, command.payload.fold(0)(_.value.size()))
+          val metadata = MetadataImpl.of(command.metadata.map(_.entries).getOrElse(Nil))
 
           val context =
             new CommandContextImpl(
@@ -314,16 +328,32 @@ final class WorkflowImpl(
             } catch {
               case BadRequestException(msg) =>
                 (CommandResult(WorkflowEffectImpl[Any]().error(msg)), Some(Status.Code.INVALID_ARGUMENT))
-              case e: WorkflowException => throw e
+              case e: WorkflowException =>
+                componentMetrics.recordFailed(ComponentOperation.Command, startTime, Status.Code.INTERNAL)
+                throw e
               case NonFatal(error) =>
+                componentMetrics.recordFailed(ComponentOperation.Command, startTime, Status.Code.INTERNAL)
                 throw WorkflowException(command, s"Unexpected failure: $error", Some(error))
             } finally {
               context.deactivate() // Very important!
             }
 
-          Future.successful(toProtoEffect(effect, command.id, errorCode))
+          val out = toProtoEffect(effect, command.id, errorCode)
+          effect match {
+            case error: ErrorEffectImpl[_] =>
+              componentMetrics.recordFailed(
+                ComponentOperation.Command,
+                startTime,
+                error.status.orElse(errorCode).getOrElse(Status.Code.UNKNOWN))
+            case _ =>
+              componentMetrics.recordHandled(ComponentOperation.Command, startTime)
+          }
+          Future.successful(out)
 
         case Step(executeStep) =>
+          val startTime = componentMetrics.startTimer()
+          val jfrEvent = new ComponentOperationEvent
+          jfrEvent.begin()
           val context =
             new CommandContextImpl(
               workflowId,
@@ -350,16 +380,30 @@ final class WorkflowImpl(
                 context,
                 sdkExcutionContext)
             } catch {
-              case e: WorkflowException => throw e
+              case e: WorkflowException =>
+                componentMetrics.recordFailed(ComponentOperation.Step, startTime, Status.Code.INTERNAL)
+                throw e
               case NonFatal(ex) =>
+                componentMetrics.recordFailed(ComponentOperation.Step, startTime, Status.Code.INTERNAL)
                 throw WorkflowException(
                   s"unexpected exception [${ex.getMessage}] while executing step [${executeStep.stepName}]",
                   Some(ex))
             }
 
-          stepResponse.map { stp =>
-            WorkflowStreamOut(WorkflowStreamOut.Message.Response(stp))
-          }
+          stepResponse
+            .andThen { case result =>
+              jfrEvent.complete(
+                service.componentId,
+                ComponentOperation.Step,
+                executeStep.stepName,
+                workflowId,
+                executeStep.input.fold(0)(_.value.size()))
+              if (result.isSuccess) componentMetrics.recordHandled(ComponentOperation.Step, startTime)
+              else componentMetrics.recordFailed(ComponentOperation.Step, startTime, Status.Code.INTERNAL)
+            }
+            .map { stp =>
+              WorkflowStreamOut(WorkflowStreamOut.Message.Response(stp))
+            }
 
         case Transition(cmd) =>
           val CommandResult(effect) =
@@ -10,7 +10,7 @@ import java.util.function.{ Function => JFunc }
 import scala.jdk.FutureConverters.CompletionStageOps
 import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
-import scala.jdk.OptionConverters.RichOptional
+import scala.jdk.CollectionConverters._
 import com.google.protobuf.any.{ Any => ScalaPbAny }
 import akka.javasdk.impl.WorkflowExceptions.WorkflowException
 import WorkflowRouter.CommandHandlerNotFound
@@ -23,6 +23,7 @@ import akka.javasdk.workflow.Workflow
 import Workflow.AsyncCallStep
 import Workflow.CallStep
 import Workflow.Effect
+import Workflow.Step
 import Workflow.WorkflowDef
 import akka.annotation.InternalApi
 import akka.javasdk.JsonSupport
@@ -72,9 +73,12 @@ abstract class WorkflowRouter[S, W <: Workflow[S]](protected val workflow: W) {
       state
   }
 
-  def _getWorkflowDefinition(): WorkflowDef[S] = {
-    workflow.definition()
-  }
+  // built once per workflow instance, and not for every step execution and transition
+  private lazy val workflowDef: WorkflowDef[S] = workflow.definition()
+  private lazy val stepsByName: Map[String, Step] =
+    workflowDef.getSteps.asScala.iterator.map(step => step.name() -> step).toMap
+
+  def _getWorkflowDefinition(): WorkflowDef[S] = workflowDef
 
   /** INTERNAL API */
   // "public" api against the impl/testkit
@@ -141,9 +145,7 @@ abstract class WorkflowRouter[S, W <: Workflow[S]](protected val workflow: W) {
     workflow._internalSetCurrentState(stateOrEmpty())
     workflow._internalSetTimerScheduler(Optional.of(timerScheduler))
     workflow._internalSetCommandContext(Optional.of(commandContext))
-    val workflowDef = workflow.definition()
-
-    workflowDef.findByName(stepName).toScala match {
+    stepsByName.get(stepName) match {
       case Some(call: CallStep[_, _, _, _]) =>
         throw new IllegalStateException(s"DeferredCall not supported for workflows: [$call]")
 
@@ -178,9 +180,7 @@ abstract class WorkflowRouter[S, W <: Workflow[S]](protected val workflow: W) {
   def _internalGetNextStep(stepName: String, result: ScalaPbAny, messageCodec: MessageCodec): CommandResult = {
 
     workflow._internalSetCurrentState(stateOrEmpty())
-    val workflowDef = workflow.definition()
-
-    workflowDef.findByName(stepName).toScala match {
+    stepsByName.get(stepName) match {
       case Some(call: CallStep[_, _, _, _]) =>
         val effect =
           call.transitionFunc
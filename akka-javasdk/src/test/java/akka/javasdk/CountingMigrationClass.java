@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk;
+
+import akka.javasdk.annotations.Migration;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Migration(CountingMigrationClass.CountingMigration.class)
+public record CountingMigrationClass(String value) {
+
+  public static class CountingMigration extends JsonMigration {
+
+    public static final AtomicInteger created = new AtomicInteger();
+
+    public CountingMigration() {
+      created.incrementAndGet();
+    }
+
+    @Override
+    public int currentVersion() {
+      return 1;
+    }
+
+    @Override
+    public JsonNode transform(int fromVersion, JsonNode json) {
+      return json;
+    }
+  }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk;
+
+import akka.javasdk.annotations.Migration;
+
+@Migration(FailingMigrationClass.FailingMigration.class)
+public record FailingMigrationClass(String value) {
+
+  public static class FailingMigration extends JsonMigration {
+
+    public FailingMigration() {
+      throw new IllegalStateException("boom");
+    }
+
+    @Override
+    public int currentVersion() {
+      return 1;
+    }
+  }
+}
@@ -11,10 +11,14 @@ import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.any.Any;
+import akka.japi.function.Function2;
 import akka.javasdk.JsonSupport;
 import akka.javasdk.Metadata;
 import akka.javasdk.impl.client.ComponentClientImpl;
+import akka.javasdk.impl.client.ComponentMethodRefImpl;
 import akka.javasdk.impl.client.DeferredCallImpl;
+import akka.javasdk.impl.client.MethodRefResolver;
+import akka.javasdk.impl.client.ResolvedMethodRef;
 import akka.javasdk.impl.telemetry.Telemetry;
 import akka.runtime.sdk.spi.ActionClient;
 import akka.runtime.sdk.spi.ActionType$;
@@ -25,10 +29,13 @@ import akka.runtime.sdk.spi.ViewClient;
 import akka.javasdk.testmodels.Number;
 import akka.javasdk.testmodels.action.ActionsTestModels.ActionWithOneParam;
 import akka.javasdk.testmodels.action.ActionsTestModels.ActionWithoutParam;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
 import akka.javasdk.testmodels.keyvalueentity.Counter;
 import akka.javasdk.testmodels.keyvalueentity.User;
 import akka.javasdk.testmodels.view.ViewTestModels;
+import akka.javasdk.testmodels.view.ViewTestModels.SubscribeToEventSourcedEvents;
 import akka.javasdk.testmodels.view.ViewTestModels.UserByEmailWithGet;
+import akka.javasdk.testmodels.view.ViewTestModels.ViewWithTwoQueries;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import scala.Option;
@@ -164,6 +171,51 @@ class ComponentClientTest {
 
   }
 
+  @Test
+  public void shouldResolveMethodRefOncePerCallSite() {
+    ResolvedMethodRef first = resolveRandomIncrease();
+    ResolvedMethodRef second = resolveRandomIncrease();
+
+    assertThat(second).isSameAs(first);
+    assertThat(first.methodName()).isEqualTo("RandomIncrease");
+    assertThat(first.componentId()).isEqualTo(ComponentDescriptorFactory.readComponentIdIdValue(Counter.class));
+  }
+
+  @Test
+  public void shouldTargetTheViewQueryOfEachMethodRef() {
+    var body = new ViewTestModels.ByEmail("email@example.com");
+
+    // the query properties are validated once per method and then re-used, each call must still target its own query
+    for (int i = 0; i < 2; i++) {
+      var getUser = viewCallFor(componentClient.forView().method(UserByEmailWithGet::getUser), body);
+      assertThat(getUser.componentId()).isEqualTo("users_view");
+      assertThat(getUser.methodName()).isEqualTo("GetUser");
+      assertThat(getUser.message()).isEqualTo(body);
+
+      var getUserByEmail = viewCallFor(componentClient.forView().method(ViewWithTwoQueries::getUserByEmail), body);
+      assertThat(getUserByEmail.componentId()).isEqualTo("users_view");
+      assertThat(getUserByEmail.methodName()).isEqualTo("GetUserByEmail");
+
+      var getEmployee =
+        viewCallFor(componentClient.forView().method(SubscribeToEventSourcedEvents::getEmployeeByEmail), body);
+      assertThat(getEmployee.componentId()).isEqualTo("employees_view");
+      assertThat(getEmployee.methodName()).isEqualTo("GetEmployeeByEmail");
+    }
+  }
+
+  private ResolvedMethodRef resolveRandomIncrease() {
+    // one call site, so one lambda class for all calls
+    return MethodRefResolver.resolve(
+      (Function2<Counter, Integer, KeyValueEntity.Effect<Number>>) Counter::randomIncrease);
+  }
+
+  @SuppressWarnings("unchecked")
+  private DeferredCallImpl<Object, Object> viewCallFor(ComponentInvokeOnlyMethodRef1<?, ?> methodRef, Object arg) {
+    // view calls can not be deferred, but creating the call does not run the query
+    var impl = (ComponentMethodRefImpl<Object, Object>) methodRef;
+    return (DeferredCallImpl<Object, Object>) impl.createDeferred().apply(Option.empty(), Option.apply(arg));
+  }
+
   private ComponentDescriptor descriptorFor(Class<?> clazz, JsonMessageCodec messageCodec) {
     Validations.validate(clazz).failIfInvalid();
     return ComponentDescriptor.descriptorFor(clazz, messageCodec);
@@ -6,6 +6,8 @@ package akka.javasdk.eventsourcedentity;
 
 import akka.javasdk.impl.eventsourcedentity.EventSourcedEntityRouter;
 import com.example.shoppingcart.ShoppingCartApi;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.any.Any;
 import com.example.shoppingcart.domain.ShoppingCartDomain;
 
 /** Generated, does the routing from command name to concrete method */
@@ -27,8 +29,8 @@ final class CartEntityRouter extends EventSourcedEntityRouter<ShoppingCartDomain
   }
 
   @Override
-  public EventSourcedEntity.Effect<?> handleCommand(
-      String commandName, ShoppingCartDomain.Cart state, Object command, CommandContext context) {
+  public EventSourcedEntity.Effect<?> handleCommand(String commandName, Object command, CommandContext context) {
+    ShoppingCartDomain.Cart state = _stateOrEmpty();
     switch (commandName) {
       case "AddItem":
         return entity().addItem(state, (ShoppingCartApi.AddLineItem) command);
@@ -42,4 +44,13 @@ final class CartEntityRouter extends EventSourcedEntityRouter<ShoppingCartDomain
         throw new EventSourcedEntityRouter.CommandHandlerNotFound(commandName);
     }
   }
+
+  @Override
+  public ShoppingCartDomain.Cart decodeSnapshot(Any snapshot) {
+    try {
+      return ShoppingCartDomain.Cart.parseFrom(snapshot.value());
+    } catch (InvalidProtocolBufferException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
 }
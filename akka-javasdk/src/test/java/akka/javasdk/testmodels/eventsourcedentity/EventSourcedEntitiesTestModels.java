@@ -204,4 +204,20 @@ public class EventSourcedEntitiesTestModels {
             return null;
         }
     }
+
+    // events that are not a sealed type, there are no permitted subclasses to register up front
+    public interface UnsealedEvent {
+    }
+
+    @ComponentId("unsealed-events")
+    public static class EventSourcedEntityWithUnsealedEvents extends EventSourcedEntity<String, UnsealedEvent> {
+
+        public Effect<String> get() {
+            return effects().reply(currentState());
+        }
+
+        public String applyEvent(UnsealedEvent event) {
+            return event.toString();
+        }
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.testmodels.eventsourcedentity;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.TypeName;
+import akka.javasdk.eventsourcedentity.EventSourcedEntity;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** An entity that records the order events were applied in, for testing the entity stream handling. */
+@ComponentId("recording-entity")
+public class RecordingEntity extends EventSourcedEntity<RecordingEntity.State, RecordingEntity.Event> {
+
+  public record State(String values, int events) {
+
+    // number of states decoded from JSON, states created by the entity are not counted
+    public static final AtomicInteger decoded = new AtomicInteger();
+
+    @JsonCreator
+    public static State decode(@JsonProperty("values") String values, @JsonProperty("events") int events) {
+      decoded.incrementAndGet();
+      return new State(values, events);
+    }
+  }
+
+  public sealed interface Event {
+    @TypeName("appended")
+    record Appended(String value) implements Event {
+    }
+  }
+
+  @Override
+  public State emptyState() {
+    return new State("", 0);
+  }
+
+  // never reads the state
+  public ReadOnlyEffect<String> ping() {
+    return effects().reply("pong");
+  }
+
+  // reads the state, twice
+  public ReadOnlyEffect<String> getValues() {
+    var values = currentState().values();
+    return effects().reply(values + "/" + currentState().events());
+  }
+
+  public Effect<String> append(String value) {
+    return effects().persist(new Event.Appended(value)).thenReply(State::values);
+  }
+
+  @Override
+  public State applyEvent(Event event) {
+    return switch (event) {
+      case Event.Appended appended ->
+          new State(currentState().values() + appended.value(), currentState().events() + 1);
+    };
+  }
+}
@@ -324,6 +324,20 @@ public class PubSubTestModels {//TODO shall we remove this class and move things
     }
   }
 
+  @Consume.FromEventSourcedEntity(EmployeeEntity.class)
+  @Consume.Deduplicate
+  @Produce.ToTopic("foobar")
+  public static class DeduplicatingESWithPublishToTopicConsumer extends Consumer {
+
+    public Effect messageOne(EmployeeCreated created) {
+      return effects().produce(new Message(created.firstName));
+    }
+
+    public Effect messageTwo(EmployeeEmailUpdated updated) {
+      return effects().ignore();
+    }
+  }
+
   @Consume.FromTopic("source")
   @Produce.ToTopic("foobar")
   public static class TypeLevelTopicSubscriptionWithPublishToTopic extends Consumer {
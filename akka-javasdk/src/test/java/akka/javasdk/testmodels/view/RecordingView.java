@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.testmodels.view;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.eventsourcedentity.TestESEvent;
+import akka.javasdk.eventsourcedentity.TestEventSourcedEntity;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** A view whose table updater records what it saw, for testing the view update handling. */
+@ComponentId("recording-view")
+public class RecordingView extends View {
+
+  public record Row(String value, int updates) {
+
+    // number of rows decoded from JSON, rows created by the updater are not counted
+    public static final AtomicInteger decoded = new AtomicInteger();
+
+    @JsonCreator
+    public static Row decode(@JsonProperty("value") String value, @JsonProperty("updates") int updates) {
+      decoded.incrementAndGet();
+      return new Row(value, updates);
+    }
+  }
+
+  @Consume.FromEventSourcedEntity(TestEventSourcedEntity.class)
+  public static class RecordingUpdater extends TableUpdater<Row> {
+
+    public String lastEventName;
+    public String lastSubject;
+    public Row lastRowState;
+
+    // reads the row state, twice
+    public Effect<Row> onEvent1(TestESEvent.Event1 event) {
+      record();
+      lastRowState = rowState();
+      var updates = rowState() == null ? 1 : rowState().updates() + 1;
+      return effects().updateRow(new Row(event.s(), updates));
+    }
+
+    // replaces the row without reading it
+    public Effect<Row> onEvent2(TestESEvent.Event2 event) {
+      record();
+      return effects().updateRow(new Row("replaced", event.newName()));
+    }
+
+    // deletes the row or ignores the event without reading the row
+    public Effect<Row> onEvent3(TestESEvent.Event3 event) {
+      record();
+      return event.b() ? effects().deleteRow() : effects().ignore();
+    }
+
+    public Effect<Row> onEvent4(TestESEvent.Event4 event) {
+      record();
+      throw new IllegalStateException(event.anotherString());
+    }
+
+    private void record() {
+      lastEventName = updateContext().eventName();
+      lastSubject = updateContext().metadata().get("ce-subject").orElse(null);
+    }
+  }
+
+  @Query("SELECT * FROM recordings WHERE value = :value")
+  public QueryEffect<Row> getRow(String value) {
+    return queryResult();
+  }
+}
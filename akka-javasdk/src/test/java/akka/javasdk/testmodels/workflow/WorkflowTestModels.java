@@ -9,6 +9,8 @@ import akka.javasdk.annotations.JWT;
 import akka.javasdk.annotations.ComponentId;
 import akka.javasdk.workflow.Workflow;
 
+import java.util.concurrent.CompletableFuture;
+
 public class WorkflowTestModels {
 
   @ComponentId("transfer-workflow")
@@ -88,4 +90,23 @@ public class WorkflowTestModels {
       return null;
     }
   }
+
+  @ComponentId("counting-workflow")
+  public static class WorkflowCountingDefinitions extends Workflow<WorkflowState> {
+    public int definitionCalls = 0;
+    public String lastGreeting;
+
+    @Override
+    public WorkflowDef<WorkflowState> definition() {
+      definitionCalls++;
+      return workflow()
+        .addStep(
+          step("greet")
+            .asyncCall(String.class, name -> CompletableFuture.completedFuture("Hello " + name))
+            .andThen(String.class, greeting -> {
+              lastGreeting = greeting;
+              return effects().end();
+            }));
+    }
+  }
 }
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.timedaction;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.consumer.Consumer;
+import akka.javasdk.consumer.MessageEnvelope;
+import akka.javasdk.eventsourcedentity.TestESEvent;
+import akka.javasdk.eventsourcedentity.TestEventSourcedEntity;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@ComponentId("es-batch-sub-action")
+@Consume.FromEventSourcedEntity(value = TestEventSourcedEntity.class)
+public class TestESBatchSubscription extends Consumer {
+
+  public final List<List<TestESEvent>> batches = new CopyOnWriteArrayList<>();
+
+  @Consume.Batch(maxSize = 2, maxWaitMillis = 10000)
+  public Effect handleEvents(List<MessageEnvelope<TestESEvent>> events) {
+    batches.add(events.stream().map(MessageEnvelope::payload).toList());
+    return effects().done();
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.timedaction;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.consumer.Consumer;
+import akka.javasdk.eventsourcedentity.TestESEvent;
+import akka.javasdk.eventsourcedentity.TestEventSourcedEntity;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ComponentId("es-dedup-sub-action")
+@Consume.FromEventSourcedEntity(value = TestEventSourcedEntity.class, ignoreUnknown = true)
+@Consume.Deduplicate(maxEntries = 10)
+public class TestESDeduplicatingSubscription extends Consumer {
+
+  public final AtomicInteger handled = new AtomicInteger();
+  public final AtomicBoolean failNext = new AtomicBoolean();
+
+  public Effect handleEvent2(TestESEvent.Event2 event) {
+    handled.incrementAndGet();
+    return effects().done();
+  }
+
+  public Effect handleEvent3(TestESEvent.Event3 event) {
+    handled.incrementAndGet();
+    if (failNext.getAndSet(false)) throw new RuntimeException("boom");
+    return effects().done();
+  }
+}
@@ -10,6 +10,7 @@ import scala.beans.BeanProperty
 import akka.Done
 import akka.javasdk.impl.AnySupport
 import akka.javasdk.impl.ByteStringEncoding
+import akka.javasdk.impl.JsonMigrationPlan
 import com.google.protobuf.Any
 import com.google.protobuf.UnsafeByteOperations
 import org.scalatest.matchers.should.Matchers
@@ -107,6 +108,29 @@ class JsonSupportSpec extends AnyWordSpec with Matchers {
       decoded shouldBe new DummyClass("123", 321, Optional.of("value"))
     }
 
+    "create the migration of a class once" in {
+      val any = JsonSupport.encodeJson(new CountingMigrationClass("value"))
+      JsonSupport.decodeJson(classOf[CountingMigrationClass], any) shouldBe new CountingMigrationClass("value")
+      JsonSupport.decodeJson(classOf[CountingMigrationClass], any) shouldBe new CountingMigrationClass("value")
+      CountingMigrationClass.CountingMigration.created.get() shouldBe 1
+
+      val plan = JsonMigrationPlan.lookup(classOf[CountingMigrationClass]).get
+      JsonMigrationPlan.lookup(classOf[CountingMigrationClass]).get should be theSameInstanceAs plan
+      plan.currentVersion shouldBe 1
+      plan.versionOf(any.getTypeUrl + "#2") shouldBe 2
+      plan.versionOf(any.getTypeUrl) shouldBe 0
+      JsonMigrationPlan.lookup(classOf[MyJsonable]) shouldBe None
+    }
+
+    "fail with an IllegalArgumentException if the migration can not be created" in {
+      val any = JsonSupport.encodeJson(new FailingMigrationClass("value"))
+      val exception = intercept[IllegalArgumentException] {
+        JsonSupport.decodeJson(classOf[FailingMigrationClass], any)
+      }
+      exception.getMessage should include(classOf[FailingMigrationClass].getName)
+      exception.getCause.getCause.getMessage shouldBe "boom"
+    }
+
     "serialize and deserialize Akka Done class" in {
       val done = Done.getInstance()
       val any = JsonSupport.encodeJson(done)
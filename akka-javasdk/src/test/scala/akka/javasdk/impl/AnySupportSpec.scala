@@ -206,4 +206,19 @@ class AnySupportSpec extends AnyWordSpec with Matchers with OptionValues {
     }
   }
 
+  "Primitive bytes decoding" should {
+
+    "read the wrapped bytes in place" in {
+      val json = ByteString.copyFromUtf8("""{"field":"some json text that is long enough"}""")
+      val encoded = AnySupport.encodePrimitiveBytes(json)
+      AnySupport.decodePrimitiveBytesInPlace(encoded) should ===(json)
+      AnySupport.decodePrimitiveBytesInPlace(encoded) should ===(AnySupport.decodePrimitiveBytes(encoded))
+    }
+
+    "return empty bytes for the default value" in {
+      AnySupport.decodePrimitiveBytesInPlace(AnySupport.encodePrimitiveBytes(ByteString.EMPTY)) should ===(
+        ByteString.EMPTY)
+    }
+  }
+
 }
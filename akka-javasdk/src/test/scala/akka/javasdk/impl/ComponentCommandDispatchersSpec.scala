@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl
+
+import akka.javasdk.impl.reflection.ParameterExtractor
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+object ComponentCommandDispatchersSpec {
+  class Target {
+    def reset(): String = "reflective reset"
+    def set(value: String): String = s"reflective set $value"
+  }
+
+  // knows only Reset, like a generated dispatcher with an overloaded Set handler
+  class ResetOnlyDispatcher extends ComponentCommandDispatcher[AnyRef] {
+    override def dispatch(component: AnyRef, commandName: String, command: AnyRef): AnyRef =
+      if (commandName == "Reset") "generated reset" else ComponentCommandDispatcher.NOT_HANDLED
+  }
+}
+
+class ComponentCommandDispatchersSpec extends AnyWordSpec with Matchers {
+  import ComponentCommandDispatchersSpec._
+
+  private val target = new Target
+  private def invokerFor(name: String) =
+    MethodInvoker(
+      classOf[Target].getMethods.find(_.getName == name).get,
+      Array.empty[ParameterExtractor[InvocationContext, AnyRef]])
+
+  "ComponentCommandDispatchers" should {
+
+    "use the generated dispatcher for the commands it knows" in {
+      ComponentCommandDispatchers.dispatch(
+        Some(new ResetOnlyDispatcher),
+        target,
+        "Reset",
+        invokerFor("reset"),
+        None) shouldBe "generated reset"
+    }
+
+    "fall back to the method invoker for commands the generated dispatcher does not know" in {
+      ComponentCommandDispatchers.dispatch(
+        Some(new ResetOnlyDispatcher),
+        target,
+        "Set",
+        invokerFor("set"),
+        Some("value")) shouldBe "reflective set value"
+    }
+
+    "use the method invoker when there is no generated dispatcher" in {
+      ComponentCommandDispatchers.dispatch(None, target, "Reset", invokerFor("reset"), None) shouldBe "reflective reset"
+    }
+
+    "not find a dispatcher for components without a generated one" in {
+      ComponentCommandDispatchers.lookup(classOf[Target]) shouldBe None
+    }
+
+    "name the dispatcher of nested components after the enclosing classes" in {
+      ComponentCommandDispatchers.generatedClassName(classOf[Target]) shouldBe
+      "akka.javasdk.impl.ComponentCommandDispatchersSpec$$Target_AkkaDispatcher"
+    }
+  }
+}
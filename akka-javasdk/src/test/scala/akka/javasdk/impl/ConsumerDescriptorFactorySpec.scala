@@ -17,6 +17,7 @@ import akka.javasdk.testmodels.subscriptions.PubSubTestModels.AmbiguousHandlersT
 import akka.javasdk.testmodels.subscriptions.PubSubTestModels.AmbiguousHandlersVESubscriptionInConsumer
 import akka.javasdk.testmodels.subscriptions.PubSubTestModels.AmbiguousHandlersVETypeLevelSubscriptionInConsumer
 import akka.javasdk.testmodels.subscriptions.PubSubTestModels.ConsumerWithMethodLevelAclAndSubscription
+import akka.javasdk.testmodels.subscriptions.PubSubTestModels.DeduplicatingESWithPublishToTopicConsumer
 import akka.javasdk.testmodels.subscriptions.PubSubTestModels.ESWithPublishToTopicConsumer
 import akka.javasdk.testmodels.subscriptions.PubSubTestModels.EventStreamPublishingConsumer
 import akka.javasdk.testmodels.subscriptions.PubSubTestModels.EventStreamSubscriptionConsumer
@@ -282,6 +283,13 @@ class ConsumerDescriptorFactorySpec extends AnyWordSpec with ComponentDescriptor
         "You must select a source for @Produce.ToTopic. Annotate this class with one a @Consume annotation.")
     }
 
+    "validates that a deduplicating consumer does not publish to a topic" in {
+      intercept[ValidationException] {
+        Validations.validate(classOf[DeduplicatingESWithPublishToTopicConsumer]).failIfInvalid()
+      }.getMessage should include(
+        "A Consumer annotated with @Consume.Deduplicate can not be annotated with @Produce.ToTopic.")
+    }
+
     "validates if there are missing event handlers for event sourced Entity Subscription at type level" in {
       intercept[ValidationException] {
         Validations.validate(classOf[MissingHandlersWhenSubscribeToEventSourcedEntityConsumer]).failIfInvalid()
@@ -14,10 +14,14 @@ import akka.javasdk.eventsourcedentity.OldTestESEvent.OldEvent1
 import akka.javasdk.eventsourcedentity.OldTestESEvent.OldEvent2
 import akka.javasdk.eventsourcedentity.OldTestESEvent.OldEvent3
 import akka.javasdk.eventsourcedentity.TestESEvent
+import akka.javasdk.eventsourcedentity.TestESEvent.Event3
 import akka.javasdk.eventsourcedentity.TestESEvent.Event4
 import akka.javasdk.impl.action.ActionsImpl
 import akka.javasdk.impl.consumer.ConsumerService
+import akka.javasdk.impl.telemetry.ComponentOperationEvent
 import akka.javasdk.impl.telemetry.Telemetry
+import akka.javasdk.timedaction.TestESBatchSubscription
+import akka.javasdk.timedaction.TestESDeduplicatingSubscription
 import akka.javasdk.timedaction.TestESSubscription
 import akka.javasdk.timedaction.TestTracing
 import akka.runtime.sdk.spi.DeferredRequest
@@ -27,6 +31,8 @@ import com.google.protobuf.any.{ Any => ScalaPbAny }
 import io.opentelemetry.api.OpenTelemetry
 import io.opentelemetry.api.trace.Tracer
 import io.opentelemetry.sdk.OpenTelemetrySdk
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingStream
 import kalix.protocol.action.ActionCommand
 import kalix.protocol.action.ActionResponse
 import kalix.protocol.action.Actions
@@ -41,9 +47,13 @@ import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpecLike
 import org.slf4j.LoggerFactory
 
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
 import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
 import scala.concurrent.duration.FiniteDuration
+import scala.jdk.CollectionConverters._
 
 class ConsumersImplSpec
     extends ScalaTestWithActorTestKit
@@ -110,6 +120,125 @@ class ConsumersImplSpec
       }
     }
 
+    "pass messages to a batch handler" in {
+      val jsonMessageCodec = new JsonMessageCodec()
+      val consumer = new TestESBatchSubscription
+      val consumerProvider =
+        new ConsumerService(classOf[TestESBatchSubscription], jsonMessageCodec, () => consumer)
+
+      val service = create(consumerProvider)
+      val serviceName = consumerProvider.descriptor.getFullName
+
+      val reply1 =
+        service.handleUnary(toActionCommand(serviceName, jsonMessageCodec.encodeScala(new Event3(true))))
+      val reply2 =
+        service.handleUnary(toActionCommand(serviceName, jsonMessageCodec.encodeScala(new Event3(false))))
+
+      // each message gets its own response, once the batch has been handled
+      reply1.futureValue.response shouldBe a[ActionResponse.Response.Reply]
+      reply2.futureValue.response shouldBe a[ActionResponse.Response.Reply]
+      // the first message is handled right away, the second one is collected while the first one is handled, if at all
+      consumer.batches.asScala.flatMap(_.asScala) shouldBe Seq(new Event3(true), new Event3(false))
+      consumer.batches.asScala.head.asScala shouldBe Seq(new Event3(true))
+    }
+
+    "acknowledge redelivered messages without handling them again" in {
+      val jsonMessageCodec = new JsonMessageCodec()
+      val consumer = new TestESDeduplicatingSubscription
+      val consumerProvider =
+        new ConsumerService(classOf[TestESDeduplicatingSubscription], jsonMessageCodec, () => consumer)
+
+      val service = create(consumerProvider)
+      val serviceName = consumerProvider.descriptor.getFullName
+
+      def delivery(id: String) = {
+        val metadata = Metadata(
+          Seq(
+            MetadataEntry("ce-id", MetadataEntry.Value.StringValue(id)),
+            MetadataEntry("ce-source", MetadataEntry.Value.StringValue("es")),
+            MetadataEntry("ce-subject", MetadataEntry.Value.StringValue("entity-1"))))
+        val event = jsonMessageCodec.encodeScala(new Event3(true))
+        toActionCommand(serviceName, event).withMetadata(metadata)
+      }
+
+      service.handleUnary(delivery("1")).futureValue.response shouldBe a[ActionResponse.Response.Reply]
+      service.handleUnary(delivery("1")).futureValue.response shouldBe ActionResponse.Response.Empty
+      service.handleUnary(delivery("2")).futureValue.response shouldBe a[ActionResponse.Response.Reply]
+      consumer.handled.get() shouldBe 2
+    }
+
+    "handle a redelivered message again if handling it failed" in {
+      val jsonMessageCodec = new JsonMessageCodec()
+      val consumer = new TestESDeduplicatingSubscription
+      val consumerProvider =
+        new ConsumerService(classOf[TestESDeduplicatingSubscription], jsonMessageCodec, () => consumer)
+
+      val service = create(consumerProvider)
+      val serviceName = consumerProvider.descriptor.getFullName
+
+      val metadata = Metadata(
+        Seq(
+          MetadataEntry("ce-id", MetadataEntry.Value.StringValue("1")),
+          MetadataEntry("ce-source", MetadataEntry.Value.StringValue("es")),
+          MetadataEntry("ce-subject", MetadataEntry.Value.StringValue("entity-1"))))
+      val delivery = toActionCommand(serviceName, jsonMessageCodec.encodeScala(new Event3(true))).withMetadata(metadata)
+
+      consumer.failNext.set(true)
+      service.handleUnary(delivery).futureValue.response shouldBe a[ActionResponse.Response.Failure]
+      service.handleUnary(delivery).futureValue.response shouldBe a[ActionResponse.Response.Reply]
+      service.handleUnary(delivery).futureValue.response shouldBe ActionResponse.Response.Empty
+      consumer.handled.get() shouldBe 2
+    }
+
+    "emit a JFR event for each handled message" in {
+      val jsonMessageCodec = new JsonMessageCodec()
+      val consumerProvider =
+        new ConsumerService(
+          classOf[TestESDeduplicatingSubscription],
+          jsonMessageCodec,
+          () => new TestESDeduplicatingSubscription)
+
+      val service = create(consumerProvider)
+      val serviceName = consumerProvider.descriptor.getFullName
+
+      val metadata = Metadata(
+        Seq(
+          MetadataEntry("ce-id", MetadataEntry.Value.StringValue("1")),
+          MetadataEntry("ce-source", MetadataEntry.Value.StringValue("es")),
+          MetadataEntry("ce-subject", MetadataEntry.Value.StringValue("entity-1"))))
+      val event = jsonMessageCodec.encodeScala(new Event3(true))
+
+      val jfrEvent = recordedOperationOf(consumerProvider.componentId) {
+        service
+          .handleUnary(toActionCommand(serviceName, event).withMetadata(metadata))
+          .futureValue
+          .response shouldBe a[ActionResponse.Response.Reply]
+      }
+      jfrEvent.getString("operation") shouldBe "Message"
+      jfrEvent.getString("name") shouldBe "KalixSyntheticMethodOnESEs"
+      jfrEvent.getInt("entityIdHash") shouldBe "entity-1".hashCode
+      jfrEvent.getLong("payloadBytes") shouldBe event.value.size()
+    }
+
+    "find the subject of a message whatever the case or format of its key" in {
+      val jsonMessageCodec = new JsonMessageCodec()
+      val consumerProvider =
+        new ConsumerService(classOf[TestESSubscription], jsonMessageCodec, () => new TestESSubscription)
+
+      val service = create(consumerProvider)
+      val serviceName = consumerProvider.descriptor.getFullName
+
+      Seq("Ce-Subject", "ce_subject").foreach { subjectKey =>
+        val metadata = Metadata(Seq(MetadataEntry(subjectKey, MetadataEntry.Value.StringValue("entity-2"))))
+        val event = jsonMessageCodec.encodeScala(new OldEvent3(true))
+
+        val jfrEvent = recordedOperationOf(consumerProvider.componentId) {
+          service.handleUnary(toActionCommand(serviceName, event).withMetadata(metadata)).futureValue
+        }
+        jfrEvent.getInt("entityIdHash") shouldBe "entity-2".hashCode
+      }
+    }
+
     "inject traces correctly into metadata and keeps trace_id in MDC" in {
       val jsonMessageCodec = new JsonMessageCodec()
       val consumerProvider =
@@ -154,6 +283,29 @@ class ConsumersImplSpec
     }
   }
 
+  // the JFR event of the first operation of the component, in the handling that `handle` starts
+  private def recordedOperationOf(componentId: String)(handle: => Unit): RecordedEvent = {
+    val recorded = new LinkedBlockingQueue[RecordedEvent]()
+    val recording = new RecordingStream()
+    try {
+      recording.enable(classOf[ComponentOperationEvent])
+      recording.onEvent("akka.javasdk.ComponentOperation", (event: RecordedEvent) => recorded.put(event))
+      recording.startAsync()
+      handle
+
+      // other components may be handling messages at the same time
+      def nextEventOfComponent(): RecordedEvent = {
+        val event = recorded.poll(10, TimeUnit.SECONDS)
+        if (event eq null) fail(s"No JFR event recorded for component [$componentId]")
+        else if (event.getString("componentId") == componentId) event
+        else nextEventOfComponent()
+      }
+      nextEventOfComponent()
+    } finally {
+      recording.close()
+    }
+  }
+
   private def toActionCommand(serviceName: String, event1: ScalaPbAny) = {
     ActionCommand(serviceName, "KalixSyntheticMethodOnESEs", Some(event1))
   }
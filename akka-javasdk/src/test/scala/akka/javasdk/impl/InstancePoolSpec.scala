@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class InstancePoolSpec extends AnyWordSpec with Matchers {
+
+  private final class Instance(val id: Int)
+
+  private class CountingPool(enabled: Boolean) {
+    val created = new AtomicInteger()
+    val pool = new InstancePool[Instance](enabled, () => new Instance(created.incrementAndGet()))
+  }
+
+  "The InstancePool" should {
+
+    "grow to the number of instances in use at the same time" in {
+      val counting = new CountingPool(enabled = true)
+      val inUse = (1 to 3).map(_ => counting.pool.acquire())
+      inUse.map(_.id).distinct should have size 3
+      inUse.foreach(counting.pool.release)
+
+      val reused = (1 to 3).map(_ => counting.pool.acquire())
+      reused.map(_.id).toSet shouldBe inUse.map(_.id).toSet
+      counting.created.get() shouldBe 3
+
+      counting.pool.acquire()
+      counting.created.get() shouldBe 4
+    }
+
+    "only hand out an instance again once it has been released" in {
+      val counting = new CountingPool(enabled = true)
+      val first = counting.pool.acquire()
+      counting.pool.acquire() should not be theSameInstanceAs(first)
+      counting.pool.release(first)
+      counting.pool.acquire() should be theSameInstanceAs first
+    }
+
+    "create a new instance for every acquire when disabled" in {
+      val counting = new CountingPool(enabled = false)
+      val instance = counting.pool.acquire()
+      counting.pool.release(instance)
+      counting.pool.acquire() should not be theSameInstanceAs(instance)
+      counting.created.get() shouldBe 2
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl
+
+import akka.javasdk.JsonSupport
+import akka.javasdk.impl.JsonMessageCodecSpec.SimpleClass
+import akka.javasdk.impl.JsonMessageCodecSpec.SimpleClassUpdated
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class JsonCodecRegistrySpec extends AnyWordSpec with Matchers {
+
+  "The JsonCodecRegistry" should {
+
+    "count lookups of registered types as hits" in {
+      val registry = new JsonCodecRegistry(JsonSupport.getObjectMapper)
+      registry.register(classOf[SimpleClass])
+
+      val bytes = registry.writerFor(classOf[SimpleClass]).writeValueAsBytes(SimpleClass("abc", 10))
+      registry.readerFor(classOf[SimpleClass]).readValue[SimpleClass](bytes) shouldBe SimpleClass("abc", 10)
+
+      registry.hitCount shouldBe 2
+      registry.missCount shouldBe 0
+      registry.missedTypeNames shouldBe empty
+    }
+
+    "report types that were not registered up front" in {
+      val registry = new JsonCodecRegistry(JsonSupport.getObjectMapper)
+
+      registry.writerFor(classOf[SimpleClassUpdated])
+      registry.writerFor(classOf[SimpleClassUpdated])
+
+      registry.missCount shouldBe 1
+      registry.hitCount shouldBe 1
+      registry.missedTypeNames shouldBe Set(classOf[SimpleClassUpdated].getName)
+    }
+
+    "keep registered types after a refresh" in {
+      val registry = new JsonCodecRegistry(JsonSupport.getObjectMapper)
+      registry.register(classOf[SimpleClass])
+      registry.refresh()
+
+      registry.readerFor(classOf[SimpleClass])
+      registry.missCount shouldBe 0
+    }
+  }
+}
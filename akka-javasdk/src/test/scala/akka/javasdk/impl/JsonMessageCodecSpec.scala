@@ -6,6 +6,8 @@ package akka.javasdk.impl
 
 import java.lang
 import java.util
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
 
 import com.fasterxml.jackson.annotation.JsonCreator
 import com.fasterxml.jackson.databind.JsonNode
@@ -13,6 +15,7 @@ import com.fasterxml.jackson.databind.node.IntNode
 import com.fasterxml.jackson.databind.node.ObjectNode
 import com.google.protobuf.any.{ Any => ScalaPbAny }
 import com.google.protobuf.{ Any => JavaPbAny }
+import com.typesafe.config.ConfigFactory
 import JsonMessageCodecSpec.Cat
 import JsonMessageCodecSpec.Dog
 import JsonMessageCodecSpec.SimpleClass
@@ -21,6 +24,9 @@ import akka.javasdk.JsonMigration
 import akka.javasdk.JsonSupport
 import akka.javasdk.annotations.Migration
 import akka.javasdk.annotations.TypeName
+import akka.javasdk.impl.telemetry.SerializationEvent
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingStream
 import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpec
 
@@ -155,6 +161,90 @@ class JsonMessageCodecSpec extends AnyWordSpec with Matchers {
       decoded shouldBe SimpleClassUpdated("abc", 10, 1)
     }
 
+    "emit a JFR event for encoding and decoding a message" in {
+      val recorded = new LinkedBlockingQueue[RecordedEvent]()
+      val recording = new RecordingStream()
+      try {
+        recording.enable(classOf[SerializationEvent])
+        recording.onEvent("akka.javasdk.Serialization", (event: RecordedEvent) => recorded.put(event))
+        recording.startAsync()
+
+        val encoded = messageCodec.encodeJava(SimpleClass("jfr", 1))
+        messageCodec.decodeMessage(classOf[SimpleClass], akka.util.ByteString(encoded.getValue.toByteArray))
+
+        // other tests may be encoding messages at the same time
+        def nextEventFor(typeName: String): RecordedEvent = {
+          val event = recorded.poll(10, TimeUnit.SECONDS)
+          if (event eq null) fail(s"No JFR event recorded for $typeName")
+          else if (event.getString("type") == typeName) event
+          else nextEventFor(typeName)
+        }
+
+        val encodeEvent = nextEventFor(encoded.getTypeUrl)
+        encodeEvent.getBoolean("encode") shouldBe true
+        encodeEvent.getLong("payloadBytes") shouldBe encoded.getValue.size()
+
+        val decodeEvent = nextEventFor(classOf[SimpleClass].getName)
+        decodeEvent.getBoolean("encode") shouldBe false
+        decodeEvent.getLong("payloadBytes") shouldBe encoded.getValue.size()
+      } finally {
+        recording.close()
+      }
+    }
+
+    "decode compressed state" in {
+      val value = SimpleClass("abc" * 1000, 10)
+      val encoded = messageCodec.encodeScala(value)
+      val compressed = StateCompression.Deflate(1024).compress(encoded)
+      compressed.typeUrl shouldBe AnySupport.DeflatedJsonTypeUrlPrefix + AnySupport.stripJsonTypeUrlPrefix(
+        encoded.typeUrl)
+      compressed.value.size() should be < encoded.value.size()
+      JsonSupport.decodeJson(classOf[SimpleClass], compressed) shouldBe value
+      new StrictJsonMessageCodec(messageCodec).decodeMessage(compressed) shouldBe value
+
+      // small state is not compressed
+      val small = messageCodec.encodeScala(SimpleClass("abc", 10))
+      StateCompression.Deflate(1024).compress(small) shouldBe small
+    }
+
+    "read the state compression of individual entities from config" in {
+      val config = ConfigFactory.parseString("""
+          state-compression {
+            enabled = false
+            threshold = 64 KiB
+          }
+          state-compression-per-entity {
+            "big-state" {
+              enabled = true
+            }
+            "my.counter" {
+              enabled = true
+              threshold = 1 KiB
+            }
+          }
+          """)
+      StateCompression.perEntityFromConfig(
+        config.getConfig("state-compression"),
+        config.getConfig("state-compression-per-entity")) shouldBe Map(
+        "big-state" -> StateCompression.Deflate(65536),
+        "my.counter" -> StateCompression.Deflate(1024))
+    }
+
+    "encode configured types as CBOR" in {
+      val cborCodec = new JsonMessageCodec(Set(classOf[SimpleClass].getName))
+      val value = SimpleClass("abc", 10)
+      val encoded = cborCodec.encodeStateOrEvent(value)
+      encoded.typeUrl shouldBe AnySupport.CborTypeUrlPrefix + classOf[SimpleClass].getName
+      JsonSupport.decodeJson(classOf[SimpleClass], encoded) shouldBe value
+      new StrictJsonMessageCodec(cborCodec).decodeMessage(encoded) shouldBe value
+      // migrations apply the same as for JSON
+      JsonSupport.decodeJson(classOf[SimpleClassUpdated], encoded) shouldBe SimpleClassUpdated("abc", 10, 1)
+
+      // other types and replies are JSON
+      cborCodec.encodeStateOrEvent(Dog("woof")).typeUrl shouldBe jsonTypeUrlWith("animal")
+      cborCodec.encodeScala(value).typeUrl shouldBe jsonTypeUrlWith(classOf[SimpleClass].getName)
+    }
+
     "not re-encode (wrap) to JavaPbAny" in {
       val encoded: JavaPbAny = messageCodec.encodeJava(SimpleClass("abc", 10))
       val reEncoded = messageCodec.encodeJava(encoded)
@@ -37,6 +37,37 @@ class MetadataImplSpec extends AnyWordSpec with Matchers with OptionValues {
       val expectedEntries = "foobar" :: "raboof" :: Nil
       merged.getAll("foobar").asScala should contain theSameElementsAs expectedEntries
     }
+
+    "look up entries by key ignoring case, keeping their order" in {
+      val md = metadata("Foo" -> "1", "bar" -> "2", "FOO" -> "3")
+      md.has("foo") shouldBe true
+      md.get("fOo").toScala.value shouldBe "1"
+      md.getAll("foo").asScala shouldBe Seq("1", "3")
+      md.has("baz") shouldBe false
+
+      val removed = md.remove("foo")
+      removed.has("FOO") shouldBe false
+      removed.get("BAR").toScala.value shouldBe "2"
+      md.get("foo").toScala.value shouldBe "1"
+    }
+
+    "leave the metadata it was built from unchanged when adding and setting entries" in {
+      val md = MetadataImpl.Empty.add("foo", "1").add("bar", "2")
+      val added = md.add("FOO", "3")
+      val set = added.set("foo", "4")
+
+      md.getAllKeys.asScala shouldBe Seq("foo", "bar")
+      added.getAll("foo").asScala shouldBe Seq("1", "3")
+      set.getAllKeys.asScala shouldBe Seq("bar", "foo")
+      set.getAll("foo").asScala shouldBe Seq("4")
+      added.getAll("foo").asScala shouldBe Seq("1", "3")
+    }
+
+    "convert alternative CloudEvent keys of added entries to the default format" in {
+      val md = MetadataImpl.Empty.set("ce_subject", "subject").add("ce_id", "id")
+      md.getAllKeys.asScala shouldBe Seq(MetadataImpl.CeSubject, MetadataImpl.CeId)
+      md.subject().toScala.value shouldBe "subject"
+    }
   }
 
   private def metadata(entries: (String, String)*): Metadata = {
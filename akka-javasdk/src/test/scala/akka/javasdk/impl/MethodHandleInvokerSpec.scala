@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+object MethodHandleInvokerSpec {
+  class Target {
+    def noArgs(): String = "none"
+    def oneArg(a: String): String = a
+    def twoArgs(a: String, b: Int): String = a + b
+    def threeArgs(a: String, b: String, c: String): String = a + b + c
+    def failing(a: String): String = throw new IllegalStateException(a)
+    def returnsNothing(): Unit = ()
+    def castsItself(a: AnyRef): String = a.asInstanceOf[String]
+    // compiled to a private method, not accessible to the method handle lookup
+    private def hidden(a: String): String = "hidden " + a
+    def callsHidden(): String = hidden("directly")
+  }
+}
+
+class MethodHandleInvokerSpec extends AnyWordSpec with Matchers {
+  import MethodHandleInvokerSpec._
+
+  private val target = new Target
+  private def invokerFor(name: String) =
+    MethodHandleInvoker.create(classOf[Target].getMethods.find(_.getName == name).get)
+
+  "The MethodHandleInvoker" should {
+
+    "invoke methods of any arity" in {
+      invokerFor("noArgs").invoke0(target) shouldBe "none"
+      invokerFor("oneArg").invoke1(target, "one") shouldBe "one"
+      invokerFor("twoArgs").invoke2(target, "two", Int.box(2)) shouldBe "two2"
+      invokerFor("threeArgs").invokeN(target, Array[AnyRef]("a", "b", "c")) shouldBe "abc"
+      invokerFor("twoArgs").invokeN(target, Array[AnyRef]("two", Int.box(2))) shouldBe "two2"
+      invokerFor("returnsNothing").invoke0(target) shouldBe (null: AnyRef)
+    }
+
+    "throw exceptions from the invoked method without wrapping them" in {
+      intercept[IllegalStateException] {
+        invokerFor("failing").invoke1(target, "boom")
+      }.getMessage shouldBe "boom"
+    }
+
+    "reject arguments of the wrong type like reflection does" in {
+      intercept[IllegalArgumentException] {
+        invokerFor("oneArg").invoke1(target, Int.box(1))
+      }.getMessage shouldBe "argument type mismatch"
+      intercept[IllegalArgumentException] {
+        invokerFor("threeArgs").invokeN(target, Array[AnyRef]("a", Int.box(1), "c"))
+      }.getMessage shouldBe "argument type mismatch"
+    }
+
+    "reject null for a primitive parameter like reflection does" in {
+      intercept[IllegalArgumentException] {
+        invokerFor("twoArgs").invoke2(target, "two", null)
+      }.getMessage shouldBe "argument type mismatch"
+    }
+
+    "reject a target of the wrong type like reflection does" in {
+      intercept[IllegalArgumentException] {
+        invokerFor("noArgs").invoke0(new Object)
+      }.getMessage shouldBe "object is not an instance of declaring class"
+    }
+
+    "throw a ClassCastException from the invoked method without translating it" in {
+      intercept[ClassCastException] {
+        invokerFor("castsItself").invoke1(target, Int.box(1))
+      }
+    }
+
+    "invoke methods that are not accessible after making them accessible" in {
+      val hidden = classOf[Target].getDeclaredMethods.find(_.getName.contains("hidden")).get
+      MethodHandleInvoker.create(hidden).invoke1(target, "one") shouldBe "hidden one"
+    }
+
+    "reject calls with the wrong number of arguments" in {
+      intercept[IllegalArgumentException] {
+        invokerFor("oneArg").invokeN(target, Array.empty[AnyRef])
+      }
+    }
+  }
+}
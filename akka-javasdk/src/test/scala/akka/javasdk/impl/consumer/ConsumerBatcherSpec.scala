@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.consumer
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+import akka.actor.testkit.typed.scaladsl.ScalaTestWithActorTestKit
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class ConsumerBatcherSpec extends ScalaTestWithActorTestKit with AnyWordSpecLike with Matchers {
+
+  private implicit val ec: ExecutionContext = system.executionContext
+
+  // completes each batch once the test completes its promise
+  private class TestHandler {
+    private val handled = new CopyOnWriteArrayList[(Seq[Int], Promise[String])]()
+
+    def apply(batch: Seq[Int]): Future[String] = {
+      val response = Promise[String]()
+      handled.add(batch -> response)
+      response.future
+    }
+
+    def batches: Seq[Seq[Int]] = handled.asScala.map(_._1).toSeq
+    def complete(batch: Int, response: String): Unit = handled.get(batch)._2.success(response)
+  }
+
+  private def batcher(handler: TestHandler, maxSize: Int = 10, maxWait: FiniteDuration = 1.hour) =
+    new ConsumerBatcher[Int, String](maxSize, maxWait, system.classicSystem.scheduler, handler(_))
+
+  "ConsumerBatcher" should {
+
+    "hand a message to the batch handler right away when no batch is in progress" in {
+      val handler = new TestHandler
+      val response = batcher(handler).add(1)
+      handler.batches shouldBe Seq(Seq(1))
+      handler.complete(0, "done")
+      response.futureValue shouldBe "done"
+    }
+
+    "collect the messages that arrive while a batch is in progress" in {
+      val handler = new TestHandler
+      val messages = batcher(handler)
+      val response1 = messages.add(1)
+      val response2 = messages.add(2)
+      val response3 = messages.add(3)
+      handler.batches shouldBe Seq(Seq(1))
+
+      handler.complete(0, "first")
+      response1.futureValue shouldBe "first"
+      eventually(handler.batches shouldBe Seq(Seq(1), Seq(2, 3)))
+      handler.complete(1, "second")
+      response2.futureValue shouldBe "second"
+      response3.futureValue shouldBe "second"
+    }
+
+    "not start a full batch before the batch in progress has completed" in {
+      val handler = new TestHandler
+      val messages = batcher(handler, maxSize = 2)
+      (1 to 5).foreach(messages.add)
+      handler.batches shouldBe Seq(Seq(1))
+
+      handler.complete(0, "first")
+      eventually(handler.batches shouldBe Seq(Seq(1), Seq(2, 3)))
+      handler.complete(1, "second")
+      eventually(handler.batches shouldBe Seq(Seq(1), Seq(2, 3), Seq(4, 5)))
+    }
+
+    "close the collected messages as a batch after the max wait" in {
+      val handler = new TestHandler
+      val maxWait = 100.millis
+      val messages = batcher(handler, maxWait = maxWait)
+      messages.add(1)
+      messages.add(2)
+      Thread.sleep((maxWait * 3).toMillis)
+      messages.add(3)
+      handler.batches shouldBe Seq(Seq(1))
+
+      handler.complete(0, "first")
+      eventually(handler.batches shouldBe Seq(Seq(1), Seq(2)))
+      handler.complete(1, "second")
+      eventually(handler.batches shouldBe Seq(Seq(1), Seq(2), Seq(3)))
+    }
+
+    "fail the messages of a batch if the handler throws, and continue with the next batch" in {
+      val messages = new ConsumerBatcher[Int, String](
+        10,
+        1.hour,
+        system.classicSystem.scheduler,
+        batch => if (batch.contains(1)) throw new RuntimeException("boom") else Future.successful("next"))
+      messages.add(1).failed.futureValue.getMessage shouldBe "boom"
+      messages.add(2).futureValue shouldBe "next"
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.consumer
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+
+import org.scalatest.concurrent.Eventually
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class SubjectOrderingSpec extends AnyWordSpec with Matchers with ScalaFutures with Eventually {
+
+  private implicit val ec: ExecutionContext = ExecutionContext.global
+
+  "SubjectOrdering" should {
+
+    "handle messages for the same subject in order" in {
+      val ordering = new SubjectOrdering
+      val first = Promise[String]()
+      val secondStarted = new AtomicBoolean(false)
+
+      val result1 = ordering.submit("cart-1")(() => first.future)
+      val result2 = ordering.submit("cart-1") { () =>
+        secondStarted.set(true)
+        Future.successful("second")
+      }
+
+      Thread.sleep(100)
+      secondStarted.get() shouldBe false
+      first.success("first")
+      result1.futureValue shouldBe "first"
+      result2.futureValue shouldBe "second"
+    }
+
+    "never hold up messages for other subjects while a subject is busy" in {
+      val ordering = new SubjectOrdering
+      val blocked = Promise[String]()
+      ordering.submit("cart-1")(() => blocked.future)
+      (2 to 100).foreach { n =>
+        ordering.submit(s"cart-$n")(() => Future.successful("other")).futureValue shouldBe "other"
+      }
+      blocked.success("done")
+    }
+
+    "not order messages without a subject" in {
+      val ordering = new SubjectOrdering
+      val blocked = Promise[String]()
+      ordering.submit(null)(() => blocked.future)
+      ordering.submit(null)(() => Future.successful("other")).futureValue shouldBe "other"
+      blocked.success("done")
+      ordering.subjectsInProgress shouldBe 0
+    }
+
+    "continue with the next message after a failure" in {
+      val ordering = new SubjectOrdering
+      val failed = ordering.submit[String]("cart-1")(() => throw new RuntimeException("boom"))
+      failed.failed.futureValue.getMessage shouldBe "boom"
+      ordering.submit("cart-1")(() => Future.successful("next")).futureValue shouldBe "next"
+    }
+
+    "forget a subject once its messages have been handled" in {
+      val ordering = new SubjectOrdering
+      val blocked = Promise[String]()
+      val result = ordering.submit("cart-1")(() => blocked.future)
+      ordering.subjectsInProgress shouldBe 1
+      blocked.success("done")
+      result.futureValue shouldBe "done"
+      eventually(ordering.subjectsInProgress shouldBe 0)
+    }
+  }
+}
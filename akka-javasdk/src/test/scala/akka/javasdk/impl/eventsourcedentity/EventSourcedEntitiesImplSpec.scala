@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.eventsourcedentity
+
+import akka.actor.testkit.typed.scaladsl.ScalaTestWithActorTestKit
+import akka.javasdk.JsonSupport
+import akka.javasdk.impl.AnySupport
+import akka.javasdk.impl.JsonMessageCodec
+import akka.javasdk.impl.Settings
+import akka.javasdk.impl.StateCompression
+import akka.javasdk.testkit.eventsourcedentity.EventSourcedMessages._
+import akka.javasdk.testmodels.eventsourcedentity.RecordingEntity
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import com.google.protobuf.ByteString
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import io.opentelemetry.api.OpenTelemetry
+import kalix.protocol.event_sourced_entity.EventSourcedSnapshot
+import kalix.protocol.event_sourced_entity.EventSourcedStreamIn
+import kalix.protocol.event_sourced_entity.EventSourcedStreamOut
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class EventSourcedEntitiesImplSpec
+    extends ScalaTestWithActorTestKit
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures {
+
+  private val messageCodec = new JsonMessageCodec()
+  private val entityId = "entity-1"
+
+  private class TestEntity(
+      replayDecodeParallelism: Int = 1,
+      snapshotPolicy: SnapshotPolicy = SnapshotPolicy.EventsSinceSnapshot(100),
+      snapshotCompression: StateCompression = StateCompression.Disabled) {
+    val service =
+      new EventSourcedEntityService[RecordingEntity.State, RecordingEntity.Event, RecordingEntity](
+        classOf[RecordingEntity],
+        messageCodec,
+        _ => new RecordingEntity)
+
+    val serviceName: String = service.descriptor.getFullName
+
+    private val settings =
+      Settings(system.settings.config.getConfig("akka.javasdk"))
+        .copy(
+          replayDecodeParallelism = replayDecodeParallelism,
+          snapshotPolicy = snapshotPolicy,
+          snapshotCompression = snapshotCompression)
+
+    val entities = new EventSourcedEntitiesImpl(
+      system.classicSystem,
+      Map(serviceName -> service),
+      settings,
+      "akka.actor.default-dispatcher",
+      () => OpenTelemetry.noop().getTracer("test"))
+
+    def handle(snapshot: Option[EventSourcedSnapshot], in: EventSourcedStreamIn.Message*): Seq[EventSourcedStreamOut] =
+      entities
+        .handle(Source((init(serviceName, entityId, snapshot) +: in).map(EventSourcedStreamIn(_)).toList))
+        .runWith(Sink.seq)
+        .futureValue
+  }
+
+  private def snapshotOf(sequence: Long, state: RecordingEntity.State): Option[EventSourcedSnapshot] =
+    Some(snapshot(sequence, Some(messageCodec.encodeScala(state))))
+
+  private def appended(sequence: Long, value: String): EventSourcedStreamIn.Message =
+    event(sequence, Some(messageCodec.encodeScala(new RecordingEntity.Event.Appended(value))))
+
+  private def replyOf(out: EventSourcedStreamOut): String =
+    out.message.reply
+      .flatMap(_.clientAction)
+      .flatMap(_.action.reply)
+      .flatMap(_.payload)
+      .map(payload => JsonSupport.decodeJson(classOf[String], ScalaPbAny.toJavaProto(payload)))
+      .getOrElse(fail(s"Expected a reply, got $out"))
+
+  "The event sourced entities service" should {
+
+    "not decode the snapshot for a command that does not read the state" in {
+      val entity = new TestEntity
+      RecordingEntity.State.decoded.set(0)
+
+      val out = entity.handle(
+        snapshotOf(2, new RecordingEntity.State("ab", 2)),
+        command(1, entityId, "Ping", None),
+        command(2, entityId, "Ping", None))
+
+      out.map(replyOf) shouldBe Seq("pong", "pong")
+      RecordingEntity.State.decoded.get() shouldBe 0
+    }
+
+    "decode the snapshot only once however often the state is read" in {
+      val entity = new TestEntity
+      RecordingEntity.State.decoded.set(0)
+
+      val out = entity.handle(
+        snapshotOf(2, new RecordingEntity.State("ab", 2)),
+        command(1, entityId, "GetValues", None),
+        command(2, entityId, "GetValues", None))
+
+      // the command handler reads the state twice per command
+      out.map(replyOf) shouldBe Seq("ab/2", "ab/2")
+      RecordingEntity.State.decoded.get() shouldBe 1
+    }
+
+    "decode the snapshot once for replayed events and commands" in {
+      val entity = new TestEntity
+      RecordingEntity.State.decoded.set(0)
+
+      val out = entity.handle(
+        snapshotOf(2, new RecordingEntity.State("ab", 2)),
+        appended(3, "c"),
+        command(1, entityId, "GetValues", None))
+
+      out.map(replyOf) shouldBe Seq("abc/3")
+      RecordingEntity.State.decoded.get() shouldBe 1
+    }
+
+    "apply replayed events in order when decoding them ahead" in {
+      val entity = new TestEntity(replayDecodeParallelism = 4)
+      val values = (1 to 50).map(n => s"$n,")
+      val events = values.zipWithIndex.map { case (value, n) => appended(n + 1, value) }
+
+      val out = entity.handle(None, events :+ command(1, entityId, "GetValues", None): _*)
+
+      out.map(replyOf) shouldBe Seq(values.mkString + "/50")
+    }
+
+    "handle commands interleaved with replayed events when decoding them ahead" in {
+      val entity = new TestEntity(replayDecodeParallelism = 4)
+
+      val out = entity.handle(
+        None,
+        appended(1, "a"),
+        command(1, entityId, "GetValues", None),
+        appended(2, "b"),
+        appended(3, "c"),
+        command(2, entityId, "Append", Some(messageCodec.encodeScala("d"))),
+        command(3, entityId, "GetValues", None))
+
+      out.map(replyOf) shouldBe Seq("a/1", "abcd", "abcd/4")
+      out(1).message.reply.map(_.events.size) shouldBe Some(1)
+    }
+
+    "fail the entity when decoding a replayed event ahead fails" in {
+      val entity = new TestEntity(replayDecodeParallelism = 4)
+      val unknownEvent = ScalaPbAny("json.akka.io/unknown-event", ByteString.copyFromUtf8("{}"))
+
+      val out = entity.handle(
+        None,
+        appended(1, "a"),
+        event(2, Some(unknownEvent)),
+        appended(3, "b"),
+        command(1, entityId, "GetValues", None))
+
+      out should have size 1
+      out.head.message.isFailure shouldBe true
+    }
+
+    "compare the events to the uncompressed size of a compressed snapshot with the state-size-ratio policy" in {
+      val compression = StateCompression.Deflate(1024)
+      val entity =
+        new TestEntity(snapshotPolicy = SnapshotPolicy.StateSizeRatio(1.0, 0), snapshotCompression = compression)
+      val state = messageCodec.encodeScala(new RecordingEntity.State("a" * 4000, 1))
+      val compressedState = compression.compress(state)
+      compressedState.value.size() should be < 1000
+
+      val out = entity.handle(
+        Some(snapshot(1, Some(compressedState))),
+        command(1, entityId, "Append", Some(messageCodec.encodeScala("b" * 1000))),
+        command(2, entityId, "Append", Some(messageCodec.encodeScala("c" * 3500))))
+
+      // the first event is larger than the compressed snapshot, both events together are larger than the state
+      val snapshots = out.map(_.message.reply.flatMap(_.snapshot))
+      snapshots.map(_.isDefined) shouldBe Seq(false, true)
+      snapshots(1).get.typeUrl should startWith(AnySupport.DeflatedJsonTypeUrlPrefix)
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.eventsourcedentity
+
+import java.time.Duration
+
+import akka.javasdk.impl.eventsourcedentity.SnapshotPolicy._
+import com.typesafe.config.ConfigFactory
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class SnapshotPolicySpec extends AnyWordSpec with Matchers {
+
+  private def stats(events: Int, eventBytes: Long, lastSnapshotBytes: Long = 0L): SnapshotStats = {
+    val stats = new SnapshotStats
+    stats.snapshotLoaded(lastSnapshotBytes)
+    stats.eventsAdded(events, eventBytes)
+    stats
+  }
+
+  "The snapshot policies" should {
+
+    "snapshot after a number of events" in {
+      EventsSinceSnapshot(10).shouldSnapshot(stats(9, 100)) shouldBe false
+      EventsSinceSnapshot(10).shouldSnapshot(stats(10, 100)) shouldBe true
+      EventsSinceSnapshot(0).shouldSnapshot(stats(1000, 100)) shouldBe false
+    }
+
+    "tell when they never snapshot" in {
+      EventsSinceSnapshot(0).disablesSnapshots shouldBe true
+      EventsSinceSnapshot(-1).disablesSnapshots shouldBe true
+      EventsSinceSnapshot(10).disablesSnapshots shouldBe false
+      StateSizeRatio(2.0, 0).disablesSnapshots shouldBe false
+    }
+
+    "snapshot after a number of event bytes" in {
+      EventBytesSinceSnapshot(1000).shouldSnapshot(stats(100, 999)) shouldBe false
+      EventBytesSinceSnapshot(1000).shouldSnapshot(stats(1, 1000)) shouldBe true
+    }
+
+    "snapshot relative to the size of the last snapshot" in {
+      StateSizeRatio(2.0, 100).shouldSnapshot(stats(3, 300, lastSnapshotBytes = 200)) shouldBe false
+      StateSizeRatio(2.0, 100).shouldSnapshot(stats(3, 400, lastSnapshotBytes = 200)) shouldBe true
+      // no snapshot yet
+      StateSizeRatio(2.0, 100).shouldSnapshot(stats(99, 10000)) shouldBe false
+      StateSizeRatio(2.0, 100).shouldSnapshot(stats(100, 10000)) shouldBe true
+    }
+
+    "snapshot based on the measured replay time" in {
+      val policy = ReplayTimeBudget(Duration.ofMillis(10), 100)
+      val replayed = new SnapshotStats
+      (1 to 5).foreach(_ => replayed.eventReplayed(10, Duration.ofMillis(1).toNanos))
+      policy.shouldSnapshot(replayed) shouldBe false
+      (1 to 5).foreach(_ => replayed.eventReplayed(10, Duration.ofMillis(1).toNanos))
+      policy.shouldSnapshot(replayed) shouldBe true
+
+      replayed.snapshotStored(100)
+      replayed.eventsSinceSnapshot shouldBe 0
+      policy.shouldSnapshot(replayed) shouldBe false
+    }
+
+    "be created from config" in {
+      val config = ConfigFactory.parseString("""
+          snapshot-every = 50
+          snapshot-policy {
+            type = "events"
+            event-bytes = 1 MiB
+            replay-time = 200 ms
+            state-size-ratio = 4.0
+          }
+          snapshot-policy-per-entity {
+            "big-events" {
+              type = "event-bytes"
+              event-bytes = 2 KiB
+            }
+            "my.counter" {
+              type = "state-size-ratio"
+            }
+          }
+          """)
+      val (default, perEntity) = SnapshotPolicy.fromConfig(config)
+      default shouldBe EventsSinceSnapshot(50)
+      perEntity shouldBe Map("big-events" -> EventBytesSinceSnapshot(2048), "my.counter" -> StateSizeRatio(4.0, 50))
+    }
+  }
+}
@@ -7,6 +7,11 @@ package akka.javasdk.impl.reflection
 import akka.javasdk.client.ComponentClient
 import akka.javasdk.impl.client.ComponentClientImpl
 import akka.javasdk.impl.reflection.Reflect
+import akka.javasdk.testmodels.eventsourcedentity.EmployeeEvent
+import akka.javasdk.testmodels.eventsourcedentity.Employee
+import akka.javasdk.testmodels.eventsourcedentity.EventSourcedEntitiesTestModels.EmployeeEntity
+import akka.javasdk.testmodels.eventsourcedentity.EventSourcedEntitiesTestModels.EventSourcedEntityWithUnsealedEvents
+import akka.javasdk.testmodels.eventsourcedentity.EventSourcedEntitiesTestModels.UnsealedEvent
 import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpec
 
@@ -41,6 +46,25 @@ class ReflectSpec extends AnyWordSpec with Matchers {
       )
     }
 
+    "resolve the state and event types of an event sourced entity once" in {
+      val types = Reflect.eventSourcedEntityTypes(classOf[EmployeeEntity])
+      types.stateType shouldBe classOf[Employee]
+      types.eventType shouldBe classOf[EmployeeEvent]
+      types.knownEventTypes should contain theSameElementsAs Seq(
+        classOf[EmployeeEvent.EmployeeCreated],
+        classOf[EmployeeEvent.EmployeeEmailUpdated])
+      Reflect.eventSourcedEntityTypes(classOf[EmployeeEntity]) should be theSameInstanceAs types
+      Reflect.eventSourcedEntityStateType(classOf[EmployeeEntity]) shouldBe classOf[Employee]
+      Reflect.eventSourcedEntityEventType(classOf[EmployeeEntity]) shouldBe classOf[EmployeeEvent]
+    }
+
+    "resolve no known event types for an event type that is not sealed" in {
+      val types = Reflect.eventSourcedEntityTypes(classOf[EventSourcedEntityWithUnsealedEvents])
+      types.stateType shouldBe classOf[String]
+      types.eventType shouldBe classOf[UnsealedEvent]
+      types.knownEventTypes shouldBe empty
+    }
+
     "lookup component client instances" in {
       abstract class Foo(val componentClient: ComponentClient)
       class Bar(val anotherComponentClient: ComponentClient, val parentComponentClient: ComponentClient)
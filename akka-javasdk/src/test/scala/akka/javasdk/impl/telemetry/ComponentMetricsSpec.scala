@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.telemetry
+
+import scala.jdk.CollectionConverters._
+
+import io.grpc.Status
+import io.opentelemetry.api.common.Attributes
+import io.opentelemetry.sdk.metrics.SdkMeterProvider
+import io.opentelemetry.sdk.metrics.data.MetricData
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class ComponentMetricsSpec extends AnyWordSpec with Matchers {
+  import ComponentMetrics._
+
+  private class TestMetrics(enabled: Boolean) {
+    val reader: InMemoryMetricReader = InMemoryMetricReader.create()
+    private val meterProvider = SdkMeterProvider.builder().registerMetricReader(reader).build()
+    val sdkMetrics: SdkMetrics = SdkMetrics(enabled, () => meterProvider.get("test"))
+
+    def collect(): Map[String, MetricData] =
+      reader.collectAllMetrics().asScala.map(metric => metric.getName -> metric).toMap
+
+    // sum of the counter points with exactly these attributes
+    def count(metric: MetricData, attributes: Attributes): Long =
+      metric.getLongSumData.getPoints.asScala.filter(_.getAttributes == attributes).map(_.getValue).sum
+
+    def histogramCount(metric: MetricData, attributes: Attributes): Long =
+      metric.getHistogramData.getPoints.asScala.filter(_.getAttributes == attributes).map(_.getCount).sum
+  }
+
+  private def componentAttributes(componentId: String) =
+    Attributes.of(ComponentTypeKey, EventSourcedEntityCategory.name, ComponentTypeIdKey, componentId)
+
+  private def operationAttributes(componentId: String, operation: ComponentOperation) =
+    componentAttributes(componentId).toBuilder.put(OperationKey, operation.name).build()
+
+  "The component metrics" should {
+
+    "count handled operations per component and operation" in {
+      val test = new TestMetrics(enabled = true)
+      val cart = test.sdkMetrics.forComponent(EventSourcedEntityCategory, "cart")
+      val order = test.sdkMetrics.forComponent(EventSourcedEntityCategory, "order")
+
+      cart.recordHandled(ComponentOperation.Command, cart.startTimer())
+      cart.recordHandled(ComponentOperation.Command, cart.startTimer())
+      cart.recordHandled(ComponentOperation.Event, cart.startTimer())
+      order.recordHandled(ComponentOperation.Command, order.startTimer())
+
+      val metrics = test.collect()
+      val operations = metrics("akka.javasdk.component.operations")
+      test.count(operations, operationAttributes("cart", ComponentOperation.Command)) shouldBe 2
+      test.count(operations, operationAttributes("cart", ComponentOperation.Event)) shouldBe 1
+      test.count(operations, operationAttributes("order", ComponentOperation.Command)) shouldBe 1
+
+      val durations = metrics("akka.javasdk.component.operation.duration")
+      test.histogramCount(durations, operationAttributes("cart", ComponentOperation.Command)) shouldBe 2
+    }
+
+    "count failed operations with the status code" in {
+      val test = new TestMetrics(enabled = true)
+      val cart = test.sdkMetrics.forComponent(EventSourcedEntityCategory, "cart")
+
+      cart.recordFailed(ComponentOperation.Command, cart.startTimer(), Status.Code.INVALID_ARGUMENT)
+      cart.recordFailed(ComponentOperation.Command, cart.startTimer(), Status.Code.INVALID_ARGUMENT)
+      cart.recordFailed(ComponentOperation.Command, cart.startTimer(), Status.Code.INTERNAL)
+
+      val metrics = test.collect()
+      def errorAttributes(code: Status.Code) =
+        operationAttributes("cart", ComponentOperation.Command).toBuilder.put(StatusCodeKey, code.name()).build()
+      val errors = metrics("akka.javasdk.component.errors")
+      test.count(errors, errorAttributes(Status.Code.INVALID_ARGUMENT)) shouldBe 2
+      test.count(errors, errorAttributes(Status.Code.INTERNAL)) shouldBe 1
+      // failed operations are also counted as handled
+      test.count(
+        metrics("akka.javasdk.component.operations"),
+        operationAttributes("cart", ComponentOperation.Command)) shouldBe 3
+    }
+
+    "record payload sizes and serialization time" in {
+      val test = new TestMetrics(enabled = true)
+      val cart = test.sdkMetrics.forComponent(EventSourcedEntityCategory, "cart")
+
+      cart.recordPayloadSize(ComponentOperation.Command, 100)
+      cart.recordPayloadSize(ComponentOperation.Command, 300)
+      cart.recordSerialization(cart.startTimer())
+
+      val metrics = test.collect()
+      val payloadSizes = metrics("akka.javasdk.component.payload.size").getHistogramData.getPoints.asScala
+      payloadSizes.map(_.getSum) shouldBe Seq(400.0)
+      payloadSizes.head.getAttributes shouldBe operationAttributes("cart", ComponentOperation.Command)
+      val serializationDurations = metrics("akka.javasdk.component.serialization.duration")
+      test.histogramCount(serializationDurations, componentAttributes("cart")) shouldBe 1
+    }
+
+    "record nothing when disabled" in {
+      val test = new TestMetrics(enabled = false)
+      val cart = test.sdkMetrics.forComponent(EventSourcedEntityCategory, "cart")
+      cart shouldBe theSameInstanceAs(ComponentMetrics.Disabled)
+      cart.enabled shouldBe false
+      cart.startTimer() shouldBe 0L
+
+      cart.recordHandled(ComponentOperation.Command, cart.startTimer())
+      cart.recordFailed(ComponentOperation.Command, cart.startTimer(), Status.Code.INTERNAL)
+      cart.recordPayloadSize(ComponentOperation.Command, 100)
+      cart.recordSerialization(cart.startTimer())
+
+      test.collect() shouldBe empty
+    }
+  }
+}
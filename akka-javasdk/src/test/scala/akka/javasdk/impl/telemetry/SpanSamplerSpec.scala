@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.telemetry
+
+import java.util.concurrent.ThreadLocalRandom
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class SpanSamplerSpec extends AnyWordSpec with Matchers {
+
+  private def randomTraceParent(): String = {
+    val random = ThreadLocalRandom.current()
+    f"00-${random.nextLong()}%016x${random.nextLong()}%016x-${random.nextLong()}%016x-01"
+  }
+
+  private val traceParents = Vector.fill(10000)(randomTraceParent())
+
+  "The SpanSampler" should {
+
+    "sample everything by default" in {
+      SpanSampler(1.0, 0) shouldBe theSameInstanceAs(SpanSampler.AlwaysOn)
+      traceParents.forall(SpanSampler.AlwaysOn.sample) shouldBe true
+    }
+
+    "sample nothing with ratio 0" in {
+      val sampler = SpanSampler(0.0, 0)
+      traceParents.exists(sampler.sample) shouldBe false
+    }
+
+    "sample roughly the configured ratio" in {
+      val sampler = SpanSampler(0.25, 0)
+      val sampled = traceParents.count(sampler.sample)
+      sampled should (be > 2000 and be < 3000)
+    }
+
+    "make the same decision for a trace in every service" in {
+      val sampler1 = SpanSampler(0.5, 0)
+      val sampler2 = SpanSampler(0.5, 0)
+      traceParents.foreach { traceParent =>
+        // a later hop of the same trace has another parent span id
+        val laterHop = traceParent.substring(0, 36) + "00f067aa0ba902b7-01"
+        sampler2.sample(laterHop) shouldBe sampler1.sample(traceParent)
+      }
+    }
+
+    "sample traces with a lower ratio also with a higher ratio" in {
+      val lower = SpanSampler(0.1, 0)
+      val higher = SpanSampler(0.5, 0)
+      traceParents.filter(lower.sample).forall(higher.sample) shouldBe true
+    }
+
+    "decide on the absolute value of the random part of the trace id, like the OpenTelemetry sampler" in {
+      def traceParentWithRandomPart(randomPart: Long) = f"00-4bf92f3577b34da6$randomPart%016x-00f067aa0ba902b7-01"
+      val sampler = SpanSampler(0.5, 0)
+      sampler.sample(traceParentWithRandomPart(1L)) shouldBe true
+      sampler.sample(traceParentWithRandomPart(Long.MaxValue)) shouldBe false
+      // the absolute value of -Long.MaxValue is Long.MaxValue, dropping the top bit would make it 1
+      sampler.sample(traceParentWithRandomPart(-Long.MaxValue)) shouldBe false
+      sampler.sample(traceParentWithRandomPart(-1L)) shouldBe true
+      // has no positive absolute value, so is below any upper bound
+      SpanSampler(0.01, 0).sample(traceParentWithRandomPart(Long.MinValue)) shouldBe true
+    }
+
+    "sample invalid trace parents at random" in {
+      val sampler = SpanSampler(0.5, 0)
+      val sampled = (1 to 10000).count(_ => sampler.sample("00-not-a-valid-trace-parent"))
+      sampled should (be > 4000 and be < 6000)
+    }
+
+    "limit the number of sampled spans per second" in {
+      val sampler = SpanSampler(1.0, 10)
+      traceParents.take(100).count(sampler.sample) should be <= 20
+    }
+
+    "reject invalid settings" in {
+      intercept[IllegalArgumentException](SpanSampler(1.5, 0))
+      intercept[IllegalArgumentException](SpanSampler(1.0, -1))
+    }
+  }
+}
@@ -5,8 +5,11 @@
 package akka.javasdk.impl.view
 
 import akka.javasdk.impl.ComponentDescriptorSuite
+import akka.javasdk.impl.JsonMessageCodec
 import akka.javasdk.impl.ValidationException
 import akka.javasdk.impl.Validations
+import akka.javasdk.impl.Validations.Valid
+import akka.javasdk.testmodels.keyvalueentity.User
 import akka.javasdk.testmodels.subscriptions.PubSubTestModels.EventStreamSubscriptionView
 import akka.javasdk.testmodels.subscriptions.PubSubTestModels.SubscribeOnTypeToEventSourcedEvents
 import akka.javasdk.testmodels.view.ViewTestModels
@@ -66,6 +69,32 @@ class ViewDescriptorFactorySpec extends AnyWordSpec with ComponentDescriptorSuit
       }.getMessage should include("A view must contain at least one public static TableUpdater subclass.")
     }
 
+    "not allow state compression for a key value entity that a View stores as is" in {
+      intercept[ValidationException] {
+        Validations
+          .validateStateCompression(classOf[ViewTestModels.UserByEmailWithGet], _ == "user")
+          .failIfInvalid()
+      }.getMessage should include("State compression is enabled for key value entity [user]")
+
+      Validations.validateStateCompression(classOf[ViewTestModels.UserByEmailWithGet], _ => false) shouldBe Valid
+      // an update handler reads the compressed state
+      Validations.validateStateCompression(classOf[TransformedUserView], _ == "user") shouldBe Valid
+    }
+
+    "not allow CBOR state for a key value entity that a View stores as is" in {
+      val cborCodec = new JsonMessageCodec(Set(classOf[User].getName))
+      intercept[ValidationException] {
+        Validations
+          .validateCborState(classOf[ViewTestModels.UserByEmailWithGet], cborCodec.storesAsCbor)
+          .failIfInvalid()
+      }.getMessage should include(s"The state type [${classOf[User].getName}] of key value entity")
+
+      val jsonCodec = new JsonMessageCodec()
+      Validations.validateCborState(classOf[ViewTestModels.UserByEmailWithGet], jsonCodec.storesAsCbor) shouldBe Valid
+      // an update handler reads the CBOR state
+      Validations.validateCborState(classOf[TransformedUserView], cborCodec.storesAsCbor) shouldBe Valid
+    }
+
     "not allow View with an invalid row type" in {
       intercept[ValidationException] {
         Validations.validate(classOf[ViewTestModels.ViewWithInvalidRowType]).failIfInvalid()
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.view
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+
+import akka.javasdk.impl.telemetry.ComponentMetrics
+import akka.util.ByteString
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class ViewQueryCacheSpec extends AnyWordSpec with Matchers with ScalaFutures {
+
+  private implicit val ec: ExecutionContext = ExecutionContext.global
+
+  private val parameter = ByteString("""{"name":"alice"}""")
+
+  private class CountingQuery {
+    val calls = new AtomicInteger()
+    def apply(): Future[ByteString] = Future.successful(ByteString(s"""{"call":${calls.incrementAndGet()}}"""))
+  }
+
+  "ViewQueryCache" should {
+
+    "serve repeated queries from the cache until the view is updated" in {
+      val cache = new ViewQueryCache.Enabled(_ => ComponentMetrics.Disabled)
+      val runQuery = new CountingQuery
+
+      cache.query("users", "getUser", 60000, 10, parameter)(() => runQuery()).futureValue
+      cache.query("users", "getUser", 60000, 10, parameter)(() => runQuery()).futureValue
+      runQuery.calls.get() shouldBe 1
+
+      cache.query("users", "getUser", 60000, 10, ByteString("""{"name":"bob"}"""))(() => runQuery()).futureValue
+      runQuery.calls.get() shouldBe 2
+
+      cache.invalidate("users")
+      cache.query("users", "getUser", 60000, 10, parameter)(() => runQuery()).futureValue
+      runQuery.calls.get() shouldBe 3
+    }
+
+    "not cache queries without a ttl or expired results" in {
+      val cache = new ViewQueryCache.Enabled(_ => ComponentMetrics.Disabled)
+      val runQuery = new CountingQuery
+
+      cache.query("users", "getUser", 0, 10, parameter)(() => runQuery()).futureValue
+      cache.query("users", "getUser", 0, 10, parameter)(() => runQuery()).futureValue
+      runQuery.calls.get() shouldBe 2
+
+      cache.query("users", "getUser", 1, 10, parameter)(() => runQuery()).futureValue
+      Thread.sleep(10)
+      cache.query("users", "getUser", 1, 10, parameter)(() => runQuery()).futureValue
+      runQuery.calls.get() shouldBe 4
+    }
+
+    "not cache the result of a query started before the view was updated" in {
+      val cache = new ViewQueryCache.Enabled(_ => ComponentMetrics.Disabled)
+      val runQuery = new CountingQuery
+      val inFlight = Promise[ByteString]()
+
+      val result = cache.query("users", "getUser", 60000, 10, parameter)(() => inFlight.future)
+      cache.invalidate("users")
+      inFlight.success(ByteString("""{"call":0}"""))
+      result.futureValue
+
+      cache.query("users", "getUser", 60000, 10, parameter)(() => runQuery()).futureValue
+      runQuery.calls.get() shouldBe 1
+    }
+
+    "count the age of a result from the start of its query" in {
+      val cache = new ViewQueryCache.Enabled(_ => ComponentMetrics.Disabled)
+      val runQuery = new CountingQuery
+      val inFlight = Promise[ByteString]()
+
+      val result = cache.query("users", "getUser", 50, 10, parameter)(() => inFlight.future)
+      Thread.sleep(100)
+      inFlight.success(ByteString("""{"call":0}"""))
+      result.futureValue
+
+      cache.query("users", "getUser", 50, 10, parameter)(() => runQuery()).futureValue
+      runQuery.calls.get() shouldBe 1
+    }
+
+    "drop the least recently used results beyond the max entries" in {
+      val cache = new ViewQueryCache.Enabled(_ => ComponentMetrics.Disabled)
+      val runQuery = new CountingQuery
+      def query(name: String) =
+        cache.query("users", "getUser", 60000, 2, ByteString(s"""{"name":"$name"}"""))(() => runQuery()).futureValue
+
+      query("alice")
+      query("bob")
+      query("alice")
+      runQuery.calls.get() shouldBe 2
+
+      // bob is dropped, alice was used more recently
+      query("carol")
+      query("alice")
+      runQuery.calls.get() shouldBe 3
+      query("bob")
+      runQuery.calls.get() shouldBe 4
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.view
+
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.collection.mutable
+import scala.concurrent.Future
+import scala.concurrent.Promise
+
+import akka.Done
+import akka.actor.testkit.typed.scaladsl.ScalaTestWithActorTestKit
+import akka.javasdk.JsonSupport
+import akka.javasdk.eventsourcedentity.TestESEvent
+import akka.javasdk.impl.JsonMessageCodec
+import akka.javasdk.impl.telemetry.ComponentMetrics
+import akka.javasdk.testmodels.view.RecordingView
+import akka.javasdk.testmodels.view.RecordingView.RecordingUpdater
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.protocol.component.Metadata
+import kalix.protocol.component.MetadataEntry
+import kalix.protocol.{ view => pv }
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class ViewsImplSpec extends ScalaTestWithActorTestKit with AnyWordSpecLike with Matchers with ScalaFutures {
+
+  private val messageCodec = new JsonMessageCodec()
+
+  private class TestView(reuseTableUpdaters: Boolean, viewQueryCache: ViewQueryCache = ViewQueryCache.Disabled) {
+    val updaters = mutable.Buffer.empty[RecordingUpdater]
+
+    val service = new ViewService[RecordingView](
+      classOf[RecordingView],
+      messageCodec,
+      { updaterClass =>
+        val updater = updaterClass.getDeclaredConstructor().newInstance()
+        updaters.synchronized(updaters += updater.asInstanceOf[RecordingUpdater])
+        updater
+      },
+      reuseTableUpdaters)
+
+    val serviceName: String = service.descriptor.getFullName
+    // all event handlers of the updater are combined into one command
+    val commandName: String = service.componentDescriptor.commandHandlers.keys.head
+
+    val views =
+      new ViewsImpl(Map(serviceName -> service), "akka.actor.default-dispatcher", viewQueryCache = viewQueryCache)
+
+    def receive(event: AnyRef, subject: String, row: Option[RecordingView.Row] = None): pv.ViewStreamIn =
+      pv.ViewStreamIn(
+        pv.ViewStreamIn.Message.Receive(
+          pv.ReceiveEvent(
+            serviceName = serviceName,
+            commandName = commandName,
+            payload = Some(messageCodec.encodeScala(event)),
+            metadata = Some(Metadata(Seq(MetadataEntry("ce-subject", MetadataEntry.Value.StringValue(subject))))),
+            bySubjectLookupResult = row.map(r => pv.Row(value = Some(messageCodec.encodeScala(r)))))))
+
+    def handle(in: pv.ViewStreamIn*): Seq[pv.ViewStreamOut] =
+      views.handle(Source(in.toList)).runWith(Sink.seq).futureValue
+
+    def handleFailing(in: pv.ViewStreamIn*): Throwable =
+      views.handle(Source(in.toList)).runWith(Sink.seq).failed.futureValue
+  }
+
+  private def upsertedRow(out: pv.ViewStreamOut): RecordingView.Row =
+    out.message.upsert
+      .flatMap(_.row)
+      .flatMap(_.value)
+      .map(value => JsonSupport.decodeJson(classOf[RecordingView.Row], ScalaPbAny.toJavaProto(value)))
+      .getOrElse(fail(s"Expected an upserted row, got $out"))
+
+  "The views service" should {
+
+    "create new table updaters for every update by default" in {
+      val view = new TestView(reuseTableUpdaters = false)
+      view.handle(view.receive(new TestESEvent.Event2(1), "row-1"))
+      view.handle(view.receive(new TestESEvent.Event2(2), "row-2"))
+      view.updaters should have size 2
+    }
+
+    "pass the row state and context of each update to a reused table updater" in {
+      val view = new TestView(reuseTableUpdaters = true)
+      view.handle(view.receive(new TestESEvent.Event1("first"), "row-1", Some(new RecordingView.Row("one", 1))))
+      val out =
+        view.handle(view.receive(new TestESEvent.Event1("second"), "row-2", Some(new RecordingView.Row("two", 5))))
+
+      view.updaters should have size 1
+      val updater = view.updaters.head
+      updater.lastSubject shouldBe "row-2"
+      updater.lastEventName shouldBe view.commandName
+      updater.lastRowState shouldBe new RecordingView.Row("two", 5)
+      upsertedRow(out.head) shouldBe new RecordingView.Row("second", 6)
+
+      // no row stored yet, the updater must not see the row of the previous update
+      view.handle(view.receive(new TestESEvent.Event1("third"), "row-3"))
+      view.updaters should have size 1
+      updater.lastRowState shouldBe null
+    }
+
+    "answer every event of a stream, with the updates of the same row folded" in {
+      val view = new TestView(reuseTableUpdaters = false)
+      // the runtime looks up the row as stored before the stream, not as updated by earlier events of the stream
+      val stored = Some(new RecordingView.Row("stored", 1))
+      val out = view.handle(
+        view.receive(new TestESEvent.Event1("a"), "row-1", stored),
+        view.receive(new TestESEvent.Event3(false), "row-1", stored),
+        view.receive(new TestESEvent.Event1("b"), "row-1", stored),
+        view.receive(new TestESEvent.Event1("c"), "row-2", Some(new RecordingView.Row("other", 5))))
+
+      out should have size 4
+      upsertedRow(out(0)) shouldBe new RecordingView.Row("a", 2)
+      out(1).message.upsert.flatMap(_.row) shouldBe None
+      upsertedRow(out(2)) shouldBe new RecordingView.Row("b", 3)
+      // another row, the looked up row is used
+      upsertedRow(out(3)) shouldBe new RecordingView.Row("c", 6)
+    }
+
+    "not use the looked up row for an update after the row was deleted in the same stream" in {
+      val view = new TestView(reuseTableUpdaters = false)
+      val stored = Some(new RecordingView.Row("stored", 1))
+      val out = view.handle(
+        view.receive(new TestESEvent.Event3(true), "row-1", stored),
+        view.receive(new TestESEvent.Event1("a"), "row-1", stored))
+
+      out should have size 2
+      out(0).message.isDelete shouldBe true
+      upsertedRow(out(1)) shouldBe new RecordingView.Row("a", 1)
+      view.updaters.last.lastRowState shouldBe null
+    }
+
+    "not decode the looked up row for handlers that do not read it" in {
+      val view = new TestView(reuseTableUpdaters = false)
+      val stored = Some(new RecordingView.Row("stored", 1))
+      val decodedBefore = RecordingView.Row.decoded.get()
+      val out = view.handle(
+        view.receive(new TestESEvent.Event3(false), "row-1", stored),
+        view.receive(new TestESEvent.Event2(7), "row-2", stored))
+      RecordingView.Row.decoded.get() shouldBe decodedBefore
+
+      out(0).message.upsert.flatMap(_.row) shouldBe None
+      upsertedRow(out(1)) shouldBe new RecordingView.Row("replaced", 7)
+    }
+
+    "decode the looked up row once for a handler reading it several times" in {
+      val view = new TestView(reuseTableUpdaters = false)
+      val decodedBefore = RecordingView.Row.decoded.get()
+      val out = view.handle(
+        view.receive(new TestESEvent.Event1("a"), "row-1", Some(new RecordingView.Row("stored", 1))),
+        // same row, the row from the previous update is used as is
+        view.receive(new TestESEvent.Event1("b"), "row-1", Some(new RecordingView.Row("stored", 1))))
+      RecordingView.Row.decoded.get() shouldBe decodedBefore + 1
+
+      upsertedRow(out(1)) shouldBe new RecordingView.Row("b", 3)
+    }
+
+    "drop cached query results again once the runtime has completed the update stream" in {
+      val cache = new ViewQueryCache.Enabled(_ => ComponentMetrics.Disabled)
+      val view = new TestView(reuseTableUpdaters = false, cache)
+      // what the runtime has stored in the view table
+      val stored = new AtomicReference(ByteString("before"))
+      def query(): Future[ByteString] =
+        cache.query(view.service.componentId, "getRow", 60000, 10, ByteString("a"))(() =>
+          Future.successful(stored.get()))(system.executionContext)
+
+      val streamCompleted = Promise[Done]()
+      val in = Source
+        .single(view.receive(new TestESEvent.Event1("a"), "row-1"))
+        .concat(Source.future(streamCompleted.future).flatMapConcat(_ => Source.empty[pv.ViewStreamIn]))
+      val responded = Promise[pv.ViewStreamOut]()
+      val done = view.views.handle(in).runWith(Sink.foreach(out => responded.trySuccess(out)))
+
+      // the update has been handled, but the runtime has not written the row yet
+      upsertedRow(responded.future.futureValue) shouldBe new RecordingView.Row("a", 1)
+      query().futureValue shouldBe ByteString("before")
+      stored.set(ByteString("after"))
+      query().futureValue shouldBe ByteString("before")
+
+      streamCompleted.success(Done)
+      done.futureValue
+      query().futureValue shouldBe ByteString("after")
+    }
+
+    "not reuse a table updater that failed" in {
+      val view = new TestView(reuseTableUpdaters = true)
+      view.handle(view.receive(new TestESEvent.Event2(1), "row-1"))
+      view.handleFailing(view.receive(new TestESEvent.Event4("boom"), "row-1")) shouldBe a[ViewException]
+      view.updaters should have size 1
+
+      view.handle(view.receive(new TestESEvent.Event2(2), "row-1"))
+      view.updaters should have size 2
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.javasdk.impl.workflow
+
+import akka.javasdk.impl.JsonMessageCodec
+import akka.javasdk.impl.StrictJsonMessageCodec
+import akka.javasdk.impl.workflow.WorkflowRouter.WorkflowStepNotFound
+import akka.javasdk.testmodels.workflow.WorkflowState
+import akka.javasdk.testmodels.workflow.WorkflowTestModels.WorkflowCountingDefinitions
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class WorkflowRouterSpec extends AnyWordSpec with Matchers {
+
+  private val messageCodec = new StrictJsonMessageCodec(new JsonMessageCodec)
+
+  private def routerFor(workflow: WorkflowCountingDefinitions) =
+    new ReflectiveWorkflowRouter[WorkflowState, WorkflowCountingDefinitions](workflow, Map.empty)
+
+  "The WorkflowRouter" should {
+
+    "build the workflow definition once per workflow instance" in {
+      val workflow = new WorkflowCountingDefinitions
+      val router = routerFor(workflow)
+
+      val definition = router._getWorkflowDefinition()
+      router._getWorkflowDefinition() should be theSameInstanceAs definition
+      workflow.definitionCalls shouldBe 1
+
+      // a new workflow instance gets its own definition
+      val otherWorkflow = new WorkflowCountingDefinitions
+      routerFor(otherWorkflow)._getWorkflowDefinition() should not be theSameInstanceAs(definition)
+      otherWorkflow.definitionCalls shouldBe 1
+    }
+
+    "look up the steps of the cached definition by name for every transition" in {
+      val workflow = new WorkflowCountingDefinitions
+      val router = routerFor(workflow)
+
+      router._internalGetNextStep("greet", messageCodec.encodeScala("Hello Alice"), messageCodec)
+      workflow.lastGreeting shouldBe "Hello Alice"
+      router._internalGetNextStep("greet", messageCodec.encodeScala("Hello Bob"), messageCodec)
+      workflow.lastGreeting shouldBe "Hello Bob"
+
+      workflow.definitionCalls shouldBe 1
+    }
+
+    "fail for a step that is not in the definition" in {
+      val router = routerFor(new WorkflowCountingDefinitions)
+
+      intercept[WorkflowStepNotFound] {
+        router._internalGetNextStep("unknown", messageCodec.encodeScala("Hello"), messageCodec)
+      }.stepName shouldBe "unknown"
+    }
+  }
+}